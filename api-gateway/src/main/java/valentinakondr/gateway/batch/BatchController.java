@@ -0,0 +1,170 @@
+package valentinakondr.gateway.batch;
+
+import com.fasterxml.jackson.databind.node.TextNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import valentinakondr.gateway.trace.CorrelationIdFilter;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+// POST /batch: несколько запросов клиента за один round trip. Части выполняются параллельно
+// обратным вызовом в этот же шлюз, поэтому проходят все его фильтры - JWT, лимиты, кэш, балансировку.
+// Ответы возвращаются в порядке запроса; ошибка одной части не отменяет остальные.
+@RestController
+public class BatchController {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchController.class);
+
+    private static final Set<HttpMethod> METHODS =
+            Set.of(HttpMethod.GET, HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+    private static final List<String> FORWARDED_HEADERS = List.of(HttpHeaders.AUTHORIZATION, HttpHeaders.ACCEPT_LANGUAGE);
+    private static final List<String> RETURNED_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.LOCATION, "X-Cache");
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    private final WebClient webClient;
+    private final String baseUrl;
+    private final int maxRequests;
+    private final Duration timeout;
+
+    public BatchController(WebClient.Builder webClientBuilder,
+                           @Value("${gateway.batch.base-url:http://localhost:${server.port}}") String baseUrl,
+                           @Value("${gateway.batch.max-requests:10}") int maxRequests,
+                           @Value("${gateway.batch.timeout:10s}") Duration timeout,
+                           @Value("${gateway.batch.max-response-bytes:1048576}") int maxResponseBytes) {
+        this.webClient = webClientBuilder.clone()
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(maxResponseBytes))
+                .build();
+        this.baseUrl = baseUrl;
+        this.maxRequests = maxRequests;
+        this.timeout = timeout;
+    }
+
+    @PostMapping("/batch")
+    public Mono<BatchResponse> batch(@RequestBody BatchRequest batch, ServerHttpRequest request, ServerHttpResponse response) {
+        List<BatchRequest.Part> parts = validate(batch);
+        String correlationId = CorrelationIdFilter.resolve(request.getHeaders().getFirst(CorrelationIdFilter.HEADER));
+        response.getHeaders().set(CorrelationIdFilter.HEADER, correlationId);
+
+        HttpHeaders forwarded = new HttpHeaders();
+        FORWARDED_HEADERS.forEach(name -> {
+            String value = request.getHeaders().getFirst(name);
+            if (value != null) {
+                forwarded.set(name, value);
+            }
+        });
+        forwarded.set(CorrelationIdFilter.HEADER, correlationId);
+        InetSocketAddress remote = request.getRemoteAddress();
+        if (remote != null) {
+            forwarded.set(FORWARDED_FOR, remote.getHostString());
+        }
+
+        long start = System.nanoTime();
+        return Flux.range(0, parts.size())
+                .flatMapSequential(i -> call(partId(parts.get(i), i), parts.get(i), forwarded), parts.size())
+                .collectList()
+                .map(BatchResponse::new)
+                .doOnSuccess(result -> log.info("[gateway.batch.done] correlationId={} parts={} durationMs={}",
+                        correlationId, parts.size(), Duration.ofNanos(System.nanoTime() - start).toMillis()));
+    }
+
+    private Mono<BatchResponse.Part> call(String id, BatchRequest.Part part, HttpHeaders forwarded) {
+        WebClient.RequestBodySpec spec = webClient.method(method(part))
+                .uri(URI.create(baseUrl + part.path()))
+                .headers(headers -> headers.addAll(forwarded))
+                .accept(MediaType.APPLICATION_JSON);
+        WebClient.RequestHeadersSpec<?> ready = part.body() != null && !part.body().isNull()
+                ? spec.contentType(MediaType.APPLICATION_JSON).bodyValue(part.body())
+                : spec;
+
+        return ready.exchangeToMono(upstream -> upstream.bodyToMono(String.class)
+                        .defaultIfEmpty("")
+                        .map(body -> toPart(id, upstream, body)))
+                .timeout(timeout)
+                .onErrorResume(e -> {
+                    boolean timedOut = e instanceof TimeoutException;
+                    log.warn("[gateway.batch.part.failed] id={} path={} error={}", id, part.path(), e.toString());
+                    HttpStatus status = timedOut ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.BAD_GATEWAY;
+                    return Mono.just(new BatchResponse.Part(id, status.value(), Map.of(),
+                            TextNode.valueOf(timedOut ? "timeout" : "upstream error").toString()));
+                });
+    }
+
+    private static BatchResponse.Part toPart(String id, ClientResponse upstream, String body) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        RETURNED_HEADERS.forEach(name -> {
+            String value = upstream.headers().asHttpHeaders().getFirst(name);
+            if (value != null) {
+                headers.put(name, value);
+            }
+        });
+
+        String json;
+        if (body.isEmpty()) {
+            json = null;
+        } else if (upstream.headers().contentType().map(type -> type.isCompatibleWith(MediaType.APPLICATION_JSON)
+                || type.getSubtype().endsWith("+json")).orElse(false)) {
+            json = body;
+        } else {
+            json = TextNode.valueOf(body).toString();
+        }
+        return new BatchResponse.Part(id, upstream.statusCode().value(), headers, json);
+    }
+
+    private List<BatchRequest.Part> validate(BatchRequest batch) {
+        if (batch == null || batch.requests() == null || batch.requests().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "requests must not be empty");
+        }
+        if (batch.requests().size() > maxRequests) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "at most " + maxRequests + " requests per batch");
+        }
+        for (BatchRequest.Part part : batch.requests()) {
+            if (part == null || part.method() == null || !METHODS.contains(method(part))) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "unsupported method");
+            }
+            // только пути этого шлюза: без схемы/хоста, без выхода вверх и без вложенных /batch
+            String path = part.path();
+            if (path == null || !path.startsWith("/") || path.startsWith("//") || path.contains("..")
+                    || path.contains("\\") || path.equals("/batch") || path.startsWith("/batch?")
+                    || path.startsWith("/actuator")) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid path: " + path);
+            }
+            try {
+                URI.create(path);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid path: " + path);
+            }
+        }
+        return batch.requests();
+    }
+
+    private static HttpMethod method(BatchRequest.Part part) {
+        return HttpMethod.valueOf(part.method().toUpperCase(Locale.ROOT));
+    }
+
+    private static String partId(BatchRequest.Part part, int index) {
+        return part.id() != null ? part.id() : String.valueOf(index);
+    }
+}
@@ -0,0 +1,19 @@
+package valentinakondr.gateway.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+
+public record BatchRequest(
+        List<Part> requests
+) {
+
+    // path - путь шлюза с query, как у обычного запроса: /api/hotels?page=0
+    public record Part(
+            String id,
+            String method,
+            String path,
+            JsonNode body
+    ) {
+    }
+}
@@ -0,0 +1,20 @@
+package valentinakondr.gateway.batch;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.util.List;
+import java.util.Map;
+
+public record BatchResponse(
+        List<Part> responses
+) {
+
+    // body - JSON ответа сервиса как есть, без повторного разбора; не-JSON ответ - строкой
+    public record Part(
+            String id,
+            int status,
+            Map<String, String> headers,
+            @JsonRawValue String body
+    ) {
+    }
+}
@@ -0,0 +1,17 @@
+package valentinakondr.gateway.cache;
+
+// upstream - URI маршрута (lb://hotel-service): запись по нему сбрасывает все маршруты того же сервиса.
+// role и accept - как в ключе RequestCoalescing: ответы по ним различаются
+record CacheKey(
+        String upstream,
+        String routeId,
+        String role,
+        String accept,
+        String pathAndQuery
+) {
+
+    int weight() {
+        return upstream.length() + routeId.length() + pathAndQuery.length()
+                + (role != null ? role.length() : 0) + (accept != null ? accept.length() : 0);
+    }
+}
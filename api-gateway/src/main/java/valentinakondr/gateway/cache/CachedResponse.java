@@ -0,0 +1,16 @@
+package valentinakondr.gateway.cache;
+
+import org.springframework.http.MediaType;
+
+import java.time.Duration;
+import java.time.Instant;
+
+record CachedResponse(
+        MediaType contentType,
+        String cacheControl,
+        String etag,
+        byte[] body,
+        Instant storedAt,
+        Duration ttl
+) {
+}
@@ -0,0 +1,83 @@
+package valentinakondr.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+// Общее хранилище ответов для всех маршрутов с фильтром ResponseCache.
+// Ограничено суммарным размером тел (gateway.response-cache.max-bytes), у каждой записи свой TTL.
+@Component
+public class ResponseCache {
+
+    private final Cache<CacheKey, CachedResponse> cache;
+
+    public ResponseCache(@Value("${gateway.response-cache.max-bytes}") long maxBytes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((CacheKey key, CachedResponse value) -> key.weight() + value.body().length)
+                .expireAfter(new PerEntryTtl())
+                .recordStats()
+                .build();
+    }
+
+    CachedResponse get(CacheKey key) {
+        return cache.getIfPresent(key);
+    }
+
+    void put(CacheKey key, CachedResponse response) {
+        cache.put(key, response);
+    }
+
+    // null в параметре означает "любой"
+    public int purge(String routeId, String pathPrefix) {
+        return purge(key -> (routeId == null || key.routeId().equals(routeId))
+                && (pathPrefix == null || key.pathAndQuery().startsWith(pathPrefix)));
+    }
+
+    // записи всех маршрутов, ведущих в тот же сервис
+    int purgeUpstream(String upstream) {
+        return purge(key -> key.upstream().equals(upstream));
+    }
+
+    private int purge(Predicate<CacheKey> matches) {
+        int before = (int) cache.estimatedSize();
+        cache.asMap().keySet().removeIf(matches);
+        return before - (int) cache.estimatedSize();
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("entries", cache.estimatedSize());
+        result.put("bytes", cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L));
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+
+    private static final class PerEntryTtl implements Expiry<CacheKey, CachedResponse> {
+
+        @Override
+        public long expireAfterCreate(CacheKey key, CachedResponse value, long currentTime) {
+            return value.ttl().toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(CacheKey key, CachedResponse value, long currentTime, long currentDuration) {
+            return value.ttl().toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(CacheKey key, CachedResponse value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package valentinakondr.gateway.cache;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// GET /actuator/responsecache - статистика, DELETE /actuator/responsecache?route=&path= - сброс (без параметров - весь кэш)
+@Component
+@Endpoint(id = "responsecache")
+public class ResponseCacheEndpoint {
+
+    private final ResponseCache cache;
+
+    public ResponseCacheEndpoint(ResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        return cache.stats();
+    }
+
+    @DeleteOperation
+    public Map<String, Object> purge(@Nullable String route, @Nullable String path) {
+        return Map.of("purged", cache.purge(route, path));
+    }
+}
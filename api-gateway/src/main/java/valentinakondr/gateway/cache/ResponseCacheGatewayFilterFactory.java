@@ -0,0 +1,216 @@
+package valentinakondr.gateway.cache;
+
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import valentinakondr.gateway.security.IdentityForwardingFilter;
+import valentinakondr.gateway.security.VerifiedUser;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Кэш GET-ответов маршрута: filters: - ResponseCache=60s.
+// TTL маршрута - верхняя граница; upstream может сократить его через max-age/s-maxage или запретить кэширование
+// (no-store, no-cache, private). Ключ - маршрут, роль, Accept, путь и query; ответы с Vary по другим заголовкам
+// не кэшируются. Успешный не-GET запрос сбрасывает кэш всех маршрутов того же сервиса (lb://hotel-service):
+// POST /api/hotels меняет и ответы /api/rooms.
+@Component
+public class ResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseCacheGatewayFilterFactory.class);
+    private static final Pattern MAX_AGE = Pattern.compile("(?:^|[,\\s])(s-maxage|max-age)=(\\d+)");
+    private static final String X_CACHE = "X-Cache";
+    // Accept - часть ключа; от остальных ответ в кэше не зависит: сжатые ответы не кэшируются,
+    // CORS-заголовки не сохраняются
+    private static final Set<String> KEYED_OR_IGNORED_VARY = Set.of(
+            "accept", "accept-encoding", "origin", "access-control-request-method", "access-control-request-headers");
+
+    private final ResponseCache cache;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCache cache) {
+        super(Config.class);
+        this.cache = cache;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttl");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // ответ нужно перехватить раньше, чем NettyWriteResponseFilter начнёт писать тело клиенту;
+        // снаружи RequestCoalescing, чтобы попадания в кэш не ждали чужих запросов
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String routeId = route != null ? route.getId() : "";
+            String upstream = route != null ? route.getUri().toString() : "";
+
+            if (request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange).then(Mono.fromRunnable(() -> {
+                    if (exchange.getResponse().getStatusCode() != null && exchange.getResponse().getStatusCode().is2xxSuccessful()) {
+                        int purged = cache.purgeUpstream(upstream);
+                        log.debug("[gateway.cache.purge] route={} upstream={} reason=write purged={}", routeId, upstream, purged);
+                    }
+                }));
+            }
+            // пользователя кладёт IdentityForwardingFilter только для проверенного токена (независимо от подписи
+            // заголовков личности); без него запрос идёт в сервис и получает 401 оттуда, а не из кэша
+            VerifiedUser user = IdentityForwardingFilter.verifiedUser(exchange);
+            if (user == null) {
+                return chain.filter(exchange);
+            }
+
+            CacheKey key = new CacheKey(upstream, routeId, user.role(),
+                    request.getHeaders().getFirst(HttpHeaders.ACCEPT),
+                    request.getURI().getRawPath()
+                            + (request.getURI().getRawQuery() != null ? "?" + request.getURI().getRawQuery() : ""));
+            boolean revalidate = request.getHeaders().getCacheControl() != null
+                    && request.getHeaders().getCacheControl().contains("no-cache");
+
+            CachedResponse cached = revalidate ? null : cache.get(key);
+            if (cached != null) {
+                return writeCached(exchange, cached);
+            }
+            return chain.filter(exchange.mutate().response(new CachingResponse(exchange, key, config.getTtl())).build());
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2);
+    }
+
+    private static Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(cached.etag());
+        if (cached.cacheControl() != null) {
+            headers.setCacheControl(cached.cacheControl());
+        }
+        headers.set(HttpHeaders.AGE, Long.toString(Duration.between(cached.storedAt(), Instant.now()).toSeconds()));
+        headers.set(X_CACHE, "HIT");
+
+        List<String> ifNoneMatch = exchange.getRequest().getHeaders().getIfNoneMatch();
+        if (ifNoneMatch.contains(cached.etag()) || ifNoneMatch.contains("*")) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+
+        response.setStatusCode(HttpStatus.OK);
+        headers.setContentType(cached.contentType());
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    // null - ответ кэшировать нельзя
+    private static Duration effectiveTtl(HttpHeaders headers, Duration routeTtl) {
+        if (headers.getFirst(HttpHeaders.CONTENT_ENCODING) != null) {
+            return null;
+        }
+        for (String vary : headers.getVary()) {
+            if (!KEYED_OR_IGNORED_VARY.contains(vary.trim().toLowerCase(Locale.ROOT))) {
+                return null;
+            }
+        }
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl == null) {
+            return routeTtl;
+        }
+        String directives = cacheControl.toLowerCase();
+        if (directives.contains("no-store") || directives.contains("no-cache") || directives.contains("private")) {
+            return null;
+        }
+        Duration upstream = null;
+        boolean shared = false;
+        Matcher matcher = MAX_AGE.matcher(directives);
+        while (matcher.find()) {
+            // s-maxage адресован общим кэшам и важнее max-age
+            if (matcher.group(1).equals("s-maxage") || !shared) {
+                upstream = Duration.ofSeconds(Long.parseLong(matcher.group(2)));
+                shared = matcher.group(1).equals("s-maxage");
+            }
+        }
+        Duration ttl = upstream != null && upstream.compareTo(routeTtl) < 0 ? upstream : routeTtl;
+        return ttl.isZero() ? null : ttl;
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final CacheKey key;
+        private final Duration routeTtl;
+
+        CachingResponse(ServerWebExchange exchange, CacheKey key, Duration routeTtl) {
+            super(exchange.getResponse());
+            this.key = key;
+            this.routeTtl = routeTtl;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            Duration ttl = HttpStatus.OK.equals(getStatusCode()) ? effectiveTtl(getHeaders(), routeTtl) : null;
+            if (ttl == null) {
+                getHeaders().set(X_CACHE, "BYPASS");
+                return super.writeWith(body);
+            }
+
+            return DataBufferUtils.join(Flux.from(body)).flatMap(joined -> {
+                byte[] bytes = new byte[joined.readableByteCount()];
+                joined.read(bytes);
+                DataBufferUtils.release(joined);
+
+                String etag = getHeaders().getETag() != null ? getHeaders().getETag() : etag(bytes);
+                getHeaders().setETag(etag);
+                getHeaders().set(X_CACHE, "MISS");
+                cache.put(key, new CachedResponse(getHeaders().getContentType(), getHeaders().getCacheControl(),
+                        etag, bytes, Instant.now(), ttl));
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            });
+        }
+    }
+
+    public static class Config {
+
+        private Duration ttl = Duration.ofSeconds(30);
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package valentinakondr.gateway.coalesce;
+
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import valentinakondr.gateway.security.IdentityForwardingFilter;
+import valentinakondr.gateway.security.VerifiedUser;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Single-flight для GET маршрута: filters: - RequestCoalescing=5s.
+// Одинаковые одновременные запросы (маршрут, роль, путь, query, Accept) ждут ответа первого и получают его копию,
+// в сервис уходит один вызов. Ожидание ограничено maxWait; если первый запрос не дал ответа
+// (ошибка, обрыв, таймаут), ожидающие идут в сервис сами.
+@Component
+public class RequestCoalescingGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<RequestCoalescingGatewayFilterFactory.Config> {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestCoalescingGatewayFilterFactory.class);
+    // X-RateLimit-* относятся к лимиту ведущего запроса, ожидающие лимит не расходуют
+    private static final Set<String> NOT_SHARED_HEADERS = Set.of(
+            "content-length", "transfer-encoding", "connection", "keep-alive",
+            "x-ratelimit-remaining", "x-ratelimit-burst-capacity", "x-ratelimit-replenish-rate");
+
+    private final ConcurrentHashMap<String, Sinks.One<SharedResponse>> inflight = new ConcurrentHashMap<>();
+
+    public RequestCoalescingGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("maxWait");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // внутри ResponseCache: попадания в кэш сюда не доходят, объединяются только промахи
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            // без проверенного шлюзом JWT запрос не объединяется: сервис должен сам ответить на него 401
+            VerifiedUser user = IdentityForwardingFilter.verifiedUser(exchange);
+            if (request.getMethod() != HttpMethod.GET || user == null) {
+                return chain.filter(exchange);
+            }
+
+            String key = key(exchange, user.role());
+            Sinks.One<SharedResponse> flight = Sinks.one();
+            Sinks.One<SharedResponse> leader = inflight.putIfAbsent(key, flight);
+            if (leader != null) {
+                log.debug("[gateway.coalesce.join] key={}", key);
+                return leader.asMono()
+                        .timeout(config.getMaxWait(), Mono.empty())
+                        .flatMap(shared -> writeShared(exchange, shared).thenReturn(true))
+                        .switchIfEmpty(Mono.defer(() -> chain.filter(exchange).thenReturn(true)))
+                        .then();
+            }
+
+            ServerHttpResponse capturing = new CapturingResponse(exchange.getResponse(), key, flight);
+            return chain.filter(exchange.mutate().response(capturing).build())
+                    .doFinally(signal -> finish(key, flight, null));
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private static String key(ServerWebExchange exchange, String role) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String accept = request.getHeaders().getFirst(HttpHeaders.ACCEPT);
+        return (route != null ? route.getId() : "") + " " + role + " " + accept + " " + request.getURI().getRawPath()
+                + (request.getURI().getRawQuery() != null ? "?" + request.getURI().getRawQuery() : "");
+    }
+
+    // remove(key, flight) срабатывает один раз: ответ публикуется ровно однажды, следующий запрос станет новым ведущим
+    private void finish(String key, Sinks.One<SharedResponse> flight, SharedResponse shared) {
+        if (!inflight.remove(key, flight)) {
+            return;
+        }
+        if (shared != null) {
+            flight.tryEmitValue(shared);
+        } else {
+            flight.tryEmitEmpty();
+        }
+    }
+
+    private static Mono<Void> writeShared(ServerWebExchange exchange, SharedResponse shared) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(shared.status());
+        shared.headers().forEach((name, values) -> {
+            if (!NOT_SHARED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                response.getHeaders().put(name, new ArrayList<>(values));
+            }
+        });
+        response.getHeaders().setContentLength(shared.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.body())));
+    }
+
+    private class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final Sinks.One<SharedResponse> flight;
+
+        CapturingResponse(ServerHttpResponse delegate, String key, Sinks.One<SharedResponse> flight) {
+            super(delegate);
+            this.key = key;
+            this.flight = flight;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return DataBufferUtils.join(Flux.from(body))
+                    .map(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+                        return bytes;
+                    })
+                    .defaultIfEmpty(new byte[0])
+                    .flatMap(bytes -> {
+                        HttpHeaders headers = new HttpHeaders();
+                        getHeaders().forEach((name, values) -> headers.put(name, List.copyOf(values)));
+                        HttpStatusCode status = getStatusCode() != null ? getStatusCode() : HttpStatus.OK;
+                        finish(key, flight, new SharedResponse(status, headers, bytes));
+                        return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                    });
+        }
+    }
+
+    private record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+
+    public static class Config {
+
+        private Duration maxWait = Duration.ofSeconds(5);
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package valentinakondr.gateway.loadbalancer;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+import valentinakondr.loadbalancer.PeakEwmaLoadBalancerConfiguration;
+
+// lb:// маршруты (и маршруты discovery locator) выбирают экземпляр по задержке вместо round-robin
+@Configuration
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
@@ -0,0 +1,109 @@
+package valentinakondr.gateway.metrics;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Журнал доступа шлюза. Потоки event loop только кладут запись в ограниченную очередь (без ожидания),
+// форматирует и пишет в лог отдельный поток. Если писатель не успевает - запись отбрасывается и считается.
+@Component
+public class AccessLog {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessLog.class);
+    private static final int DRAIN_BATCH = 256;
+
+    private final boolean enabled;
+    private final BlockingQueue<Entry> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public AccessLog(@Value("${gateway.access-log.enabled:true}") boolean enabled,
+                     @Value("${gateway.access-log.queue-capacity:8192}") int queueCapacity) {
+        this.enabled = enabled;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = new Thread(this::drain, "gateway-access-log");
+        this.writer.setDaemon(true);
+        if (enabled) {
+            this.writer.start();
+        }
+    }
+
+    public void submit(Entry entry) {
+        if (enabled && !queue.offer(entry)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    private void drain() {
+        List<Entry> batch = new ArrayList<>(DRAIN_BATCH);
+        StringBuilder line = new StringBuilder(256);
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, DRAIN_BATCH - 1);
+                for (Entry entry : batch) {
+                    line.setLength(0);
+                    entry.appendTo(line);
+                    log.info(line.toString());
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                batch.clear();
+                log.warn("[gateway.access.failed] error={}", e.toString());
+            }
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(2));
+    }
+
+    // поля заполняются на горячем пути, строка собирается только в потоке писателя
+    public record Entry(String correlationId, String route, String method, String path, int status,
+                        long totalNanos, long upstreamNanos, long loadBalancerNanos, String cache) {
+
+        void appendTo(StringBuilder line) {
+            line.append("[gateway.access] correlationId=").append(correlationId)
+                    .append(" route=").append(route)
+                    .append(" method=").append(method)
+                    .append(" path=").append(path)
+                    .append(" status=").append(status)
+                    .append(" totalMs=");
+            appendMillis(line, totalNanos);
+            line.append(" upstreamMs=");
+            appendMillis(line, upstreamNanos);
+            line.append(" lbMs=");
+            appendMillis(line, loadBalancerNanos);
+            line.append(" cache=").append(cache);
+        }
+
+        // одна цифра после точки без String.format
+        private static void appendMillis(StringBuilder line, long nanos) {
+            long tenths = nanos / 100_000;
+            line.append(tenths / 10).append('.').append(tenths % 10);
+        }
+    }
+}
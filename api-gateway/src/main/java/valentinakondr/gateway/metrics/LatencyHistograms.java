@@ -0,0 +1,103 @@
+package valentinakondr.gateway.metrics;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// HDR-гистограммы задержек по маршруту и коду ответа, в микросекундах.
+// Запись без блокировок и без аллокаций на горячем пути (после первого запроса по паре маршрут/код).
+@Component
+public class LatencyHistograms {
+
+    // всё, что дольше минуты, пишется как минута - гистограмма не растёт от зависших запросов
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final Map<String, RouteHistograms> histograms = new ConcurrentHashMap<>();
+
+    public void record(String route, int status, RouteTimings timings, long end) {
+        String key = route + '|' + status;
+        RouteHistograms target = histograms.get(key);
+        if (target == null) {
+            target = histograms.computeIfAbsent(key, k -> new RouteHistograms(route, status));
+        }
+
+        long total = end - timings.start;
+        long upstream = timings.upstreamNanos();
+        long loadBalancer = timings.loadBalancerNanos();
+        record(target.total, total);
+        if (upstream > 0) {
+            record(target.upstream, upstream);
+            record(target.overhead, total - upstream);
+        }
+        if (loadBalancer > 0) {
+            record(target.loadBalancer, loadBalancer);
+        }
+    }
+
+    private static void record(Histogram histogram, long nanos) {
+        histogram.recordValue(Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0), MAX_MICROS));
+    }
+
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> routes = new TreeMap<>();
+        for (RouteHistograms h : histograms.values()) {
+            Map<String, Object> segments = new LinkedHashMap<>();
+            segments.put("total", summary(h.total));
+            segments.put("upstream", summary(h.upstream));
+            segments.put("gatewayOverhead", summary(h.overhead));
+            segments.put("loadBalancer", summary(h.loadBalancer));
+            routes.computeIfAbsent(h.route, r -> new TreeMap<>()).put(String.valueOf(h.status), segments);
+        }
+        return routes;
+    }
+
+    public void reset() {
+        histograms.clear();
+    }
+
+    private static Map<String, Object> summary(Histogram histogram) {
+        // копия, чтобы процентили считались по одному согласованному состоянию
+        Histogram copy = histogram.copy();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", copy.getTotalCount());
+        if (copy.getTotalCount() == 0) {
+            return summary;
+        }
+        summary.put("p50", millis(copy.getValueAtPercentile(50)));
+        summary.put("p90", millis(copy.getValueAtPercentile(90)));
+        summary.put("p99", millis(copy.getValueAtPercentile(99)));
+        summary.put("p999", millis(copy.getValueAtPercentile(99.9)));
+        summary.put("max", millis(copy.getMaxValue()));
+        summary.put("mean", Math.round(copy.getMean()) / 1000.0);
+        return summary;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static final class RouteHistograms {
+        final String route;
+        final int status;
+        final Histogram total = histogram();
+        final Histogram upstream = histogram();
+        final Histogram overhead = histogram();
+        final Histogram loadBalancer = histogram();
+
+        RouteHistograms(String route, int status) {
+            this.route = route;
+            this.status = status;
+        }
+
+        private static Histogram histogram() {
+            return new ConcurrentHistogram(1, MAX_MICROS, SIGNIFICANT_DIGITS);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package valentinakondr.gateway.metrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// GET /actuator/routelatency - процентили по маршрутам и кодам ответа (мс), DELETE - сброс гистограмм
+@Component
+@Endpoint(id = "routelatency")
+public class RouteLatencyEndpoint {
+
+    private final LatencyHistograms histograms;
+    private final AccessLog accessLog;
+
+    public RouteLatencyEndpoint(LatencyHistograms histograms, AccessLog accessLog) {
+        this.histograms = histograms;
+        this.accessLog = accessLog;
+    }
+
+    @ReadOperation
+    public Map<String, Object> latency() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("routes", histograms.snapshot());
+        result.put("accessLogDropped", accessLog.dropped());
+        return result;
+    }
+
+    @DeleteOperation
+    public Map<String, Object> reset() {
+        histograms.reset();
+        return Map.of("reset", true);
+    }
+}
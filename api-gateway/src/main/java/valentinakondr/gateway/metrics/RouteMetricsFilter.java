@@ -0,0 +1,87 @@
+package valentinakondr.gateway.metrics;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import valentinakondr.gateway.trace.CorrelationIdFilter;
+
+import java.util.concurrent.TimeUnit;
+
+// Замер запроса целиком и по участкам: gateway (всё время в шлюзе), upstream (ответ сервиса), lb (выбор экземпляра).
+// Участки отдаются клиенту в Server-Timing, пишутся в гистограммы по маршруту/коду и в журнал доступа.
+@Component
+public class RouteMetricsFilter implements GlobalFilter, Ordered {
+
+    private static final String SERVER_TIMING = "Server-Timing";
+    private static final String NO_ROUTE = "none";
+
+    private final LatencyHistograms histograms;
+    private final AccessLog accessLog;
+
+    public RouteMetricsFilter(LatencyHistograms histograms, AccessLog accessLog) {
+        this.histograms = histograms;
+        this.accessLog = accessLog;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        RouteTimings timings = new RouteTimings(System.nanoTime());
+        exchange.getAttributes().put(RouteTimings.ATTRIBUTE, timings);
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.beforeCommit(() -> {
+            response.getHeaders().add(SERVER_TIMING, serverTiming(timings, System.nanoTime()));
+            return Mono.empty();
+        });
+
+        return chain.filter(exchange).doFinally(signal -> done(exchange, timings));
+    }
+
+    private void done(ServerWebExchange exchange, RouteTimings timings) {
+        long end = System.nanoTime();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : NO_ROUTE;
+        HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+        int status = statusCode != null ? statusCode.value() : 0;
+
+        histograms.record(routeId, status, timings, end);
+
+        ServerHttpRequest request = exchange.getRequest();
+        String cache = exchange.getResponse().getHeaders().getFirst("X-Cache");
+        accessLog.submit(new AccessLog.Entry(
+                request.getHeaders().getFirst(CorrelationIdFilter.HEADER), routeId, request.getMethod().name(),
+                request.getPath().value(), status, end - timings.start, timings.upstreamNanos(),
+                timings.loadBalancerNanos(), cache != null ? cache : "-"));
+    }
+
+    private static String serverTiming(RouteTimings timings, long now) {
+        StringBuilder value = new StringBuilder(64).append("gateway;dur=").append(millis(now - timings.start));
+        long upstream = timings.upstreamNanos();
+        if (upstream > 0) {
+            value.append(", upstream;dur=").append(millis(upstream));
+        }
+        long loadBalancer = timings.loadBalancerNanos();
+        if (loadBalancer > 0) {
+            value.append(", lb;dur=").append(millis(loadBalancer));
+        }
+        return value.toString();
+    }
+
+    private static double millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos) / 100 / 10.0;
+    }
+
+    // сразу после CorrelationIdFilter: id уже в заголовке запроса, замер включает все фильтры шлюза
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+}
@@ -0,0 +1,33 @@
+package valentinakondr.gateway.metrics;
+
+import org.springframework.web.server.ServerWebExchange;
+
+// Отметки времени одного запроса (System.nanoTime), 0 - участок не выполнялся (ответ из кэша шлюза, 429 и т.п.).
+// Пишутся фильтрами на своих позициях в цепочке, читаются RouteMetricsFilter по завершении.
+public class RouteTimings {
+
+    static final String ATTRIBUTE = RouteTimings.class.getName();
+
+    final long start;
+    volatile long loadBalancerStart;
+    volatile long upstreamStart;
+    volatile long upstreamEnd;
+
+    RouteTimings(long start) {
+        this.start = start;
+    }
+
+    static RouteTimings of(ServerWebExchange exchange) {
+        return exchange.getAttribute(ATTRIBUTE);
+    }
+
+    // выбор экземпляра: список из Eureka (через кэш LoadBalancer) и сам выбор
+    long loadBalancerNanos() {
+        return loadBalancerStart != 0 && upstreamStart != 0 ? upstreamStart - loadBalancerStart : 0;
+    }
+
+    // от отправки запроса в сервис до получения заголовков ответа
+    long upstreamNanos() {
+        return upstreamStart != 0 && upstreamEnd != 0 ? upstreamEnd - upstreamStart : 0;
+    }
+}
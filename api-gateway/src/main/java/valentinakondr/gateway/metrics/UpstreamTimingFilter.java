@@ -0,0 +1,31 @@
+package valentinakondr.gateway.metrics;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+// Отметки вокруг NettyRoutingFilter: его Mono завершается, когда пришли заголовки ответа сервиса,
+// тело пишет клиенту уже NettyWriteResponseFilter
+@Component
+public class UpstreamTimingFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        RouteTimings timings = RouteTimings.of(exchange);
+        if (timings == null) {
+            return chain.filter(exchange);
+        }
+        timings.upstreamStart = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> timings.upstreamEnd = System.nanoTime());
+    }
+
+    // перед NettyRoutingFilter и WebsocketRoutingFilter
+    @Override
+    public int getOrder() {
+        return NettyRoutingFilter.ORDER - 2;
+    }
+}
@@ -0,0 +1,146 @@
+package valentinakondr.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Замена RedisRateLimiter без внешнего хранилища: token bucket на пару (маршрут, ключ) в памяти шлюза.
+// Параметры задаются в аргументах фильтра RequestRateLimiter маршрута (local-rate-limiter.*),
+// для маршрутов без них берутся gateway.rate-limit.capacity / refill-per-second.
+@Component
+public class LocalRateLimiter extends AbstractRateLimiter<LocalRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+
+    private static final Logger log = LoggerFactory.getLogger(LocalRateLimiter.class);
+
+    private final Config defaultConfig;
+    // число ведер ограничено, ведро без обращений удаляется, когда успело бы наполниться целиком
+    private final Cache<String, Bucket> buckets;
+
+    public LocalRateLimiter(ConfigurationService configurationService,
+                            @Value("${gateway.rate-limit.capacity}") int capacity,
+                            @Value("${gateway.rate-limit.refill-per-second}") double refillPerSecond,
+                            @Value("${gateway.rate-limit.max-keys}") long maxKeys) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.defaultConfig = new Config().setCapacity(capacity).setRefillPerSecond(refillPerSecond);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfter(new UntilFull())
+                .build();
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        Bucket bucket = buckets.get(routeId + " " + id, key -> new Bucket(config));
+
+        long remaining = bucket.tryAcquire();
+        boolean allowed = remaining >= 0;
+        if (!allowed) {
+            log.debug("[gateway.ratelimit.denied] route={} key={}", routeId, id);
+        }
+        return Mono.just(new Response(allowed, Map.of(
+                REMAINING_HEADER, Long.toString(Math.max(remaining, 0)),
+                BURST_CAPACITY_HEADER, Integer.toString(bucket.capacity),
+                REPLENISH_RATE_HEADER, Double.toString(bucket.refillPerSecond)
+        )));
+    }
+
+    public static class Config {
+
+        private int capacity;
+        private double refillPerSecond;
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public Config setCapacity(int capacity) {
+            this.capacity = capacity;
+            return this;
+        }
+
+        public double getRefillPerSecond() {
+            return refillPerSecond;
+        }
+
+        public Config setRefillPerSecond(double refillPerSecond) {
+            this.refillPerSecond = refillPerSecond;
+            return this;
+        }
+    }
+
+    // Пополнение ленивое: токены досчитываются при обращении. Состояние меняется CAS-ом, без блокировок.
+    static final class Bucket {
+
+        private final int capacity;
+        private final double refillPerSecond;
+        private final double refillPerNano;
+        private final AtomicReference<State> state;
+
+        Bucket(Config config) {
+            if (config.getCapacity() < 1 || config.getRefillPerSecond() <= 0) {
+                throw new IllegalArgumentException("rate limit capacity must be >= 1 and refill-per-second > 0");
+            }
+            this.capacity = config.getCapacity();
+            this.refillPerSecond = config.getRefillPerSecond();
+            this.refillPerNano = refillPerSecond / 1_000_000_000d;
+            this.state = new AtomicReference<>(new State(capacity, System.nanoTime()));
+        }
+
+        // остаток токенов после списания, -1 - токенов нет
+        long tryAcquire() {
+            while (true) {
+                long now = System.nanoTime();
+                State current = state.get();
+                double tokens = Math.min(capacity, current.tokens() + Math.max(0, now - current.updatedAt()) * refillPerNano);
+                if (tokens < 1) {
+                    return -1;
+                }
+                if (state.compareAndSet(current, new State(tokens - 1, now))) {
+                    return (long) (tokens - 1);
+                }
+            }
+        }
+
+        long fullRefillNanos() {
+            return (long) Math.ceil(capacity / refillPerNano);
+        }
+    }
+
+    private record State(double tokens, long updatedAt) {
+    }
+
+    private static final class UntilFull implements Expiry<String, Bucket> {
+
+        @Override
+        public long expireAfterCreate(String key, Bucket value, long currentTime) {
+            return value.fullRefillNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Bucket value, long currentTime, long currentDuration) {
+            return value.fullRefillNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, Bucket value, long currentTime, long currentDuration) {
+            return value.fullRefillNanos();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package valentinakondr.gateway.ratelimit;
+
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import valentinakondr.gateway.security.IdentityForwardingFilter;
+import valentinakondr.gateway.security.VerifiedUser;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+// Ключ лимита - subject проверенного JWT, для анонимных запросов - IP клиента.
+// Пользователя к этому моменту положил в атрибут обмена IdentityForwardingFilter, в том числе без подписи заголовков личности.
+// X-Forwarded-For учитывается только с loopback: так приходят части POST /batch с IP исходного клиента.
+@Component
+public class PrincipalOrIpKeyResolver implements KeyResolver {
+
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        VerifiedUser user = IdentityForwardingFilter.verifiedUser(exchange);
+        if (user != null) {
+            return Mono.just("user:" + user.username());
+        }
+        InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+        if (remote == null) {
+            return Mono.empty();
+        }
+        if (remote.getAddress() != null && remote.getAddress().isLoopbackAddress()) {
+            List<String> forwarded = exchange.getRequest().getHeaders().get(FORWARDED_FOR);
+            if (forwarded != null && !forwarded.isEmpty()) {
+                String last = forwarded.get(forwarded.size() - 1);
+                return Mono.just("ip:" + last.substring(last.lastIndexOf(',') + 1).trim());
+            }
+        }
+        return Mono.just("ip:" + remote.getHostString());
+    }
+}
@@ -0,0 +1,57 @@
+package valentinakondr.gateway.security;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import valentinakondr.identity.IdentityHeaders;
+
+// Клиентские X-Auth-* всегда отбрасываются; при валидном Bearer добавляются заголовки, подписанные шлюзом,
+// а проверенный пользователь кладётся в атрибут обмена для фильтров маршрутов.
+// Authorization пробрасывается как есть: сервисы с выключенным auth.identity.enabled проверяют JWT сами.
+@Component
+public class IdentityForwardingFilter implements GlobalFilter, Ordered {
+
+    public static final String VERIFIED_USER_ATTR = IdentityForwardingFilter.class.getName() + ".verifiedUser";
+
+    private final JwtVerifier jwtVerifier;
+
+    public IdentityForwardingFilter(JwtVerifier jwtVerifier) {
+        this.jwtVerifier = jwtVerifier;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        String header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        VerifiedUser user = header != null && header.startsWith("Bearer ")
+                ? jwtVerifier.verify(header.substring(7))
+                : null;
+
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(headers -> {
+                    IdentityHeaders.ALL.forEach(headers::remove);
+                    if (user != null) {
+                        user.identityHeaders().forEach(headers::set);
+                    }
+                })
+                .build();
+        if (user != null) {
+            exchange.getAttributes().put(VERIFIED_USER_ATTR, user);
+        }
+        return chain.filter(exchange.mutate().request(request).build());
+    }
+
+    // null - запрос без валидного Bearer-токена
+    public static VerifiedUser verifiedUser(ServerWebExchange exchange) {
+        return exchange.getAttribute(VERIFIED_USER_ATTR);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,73 @@
+package valentinakondr.gateway.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import valentinakondr.identity.IdentityHeaders;
+import valentinakondr.identity.VerifiedTokenCache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+
+// Проверяет JWT один раз на входе в систему. Результат (пользователь и готовые подписанные заголовки) кэшируется
+// по SHA-256 токена до его exp, повторные запросы той же сессии не проверяют подпись и не разбирают JSON.
+// Проверка идёт всегда: по ней работают кэш, объединение запросов и лимиты шлюза. При выключенном
+// auth.identity.enabled заголовки не подписываются, сервисы проверяют JWT сами.
+@Component
+public class JwtVerifier {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtVerifier.class);
+
+    private final JwtParser parser;
+    private final IdentityHeaders identityHeaders;
+    private final VerifiedTokenCache<VerifiedToken> verified;
+
+    public JwtVerifier(@Value("${jwt.secret}") String secret,
+                       @Value("${jwt.cache-size}") long cacheSize,
+                       @Value("${auth.identity.enabled}") boolean identityEnabled,
+                       @Value("${auth.identity.secret:}") String identitySecret) {
+        this.parser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                .build();
+        this.identityHeaders = new IdentityHeaders(identityEnabled, identitySecret);
+        this.verified = new VerifiedTokenCache<>(cacheSize, VerifiedToken::expiresAt);
+    }
+
+    // null - токен не прошёл проверку; запрос уходит дальше без заголовков личности, сервис ответит 401 сам
+    public VerifiedUser verify(String token) {
+        VerifiedToken verifiedToken = verified.get(token, this::parse);
+        return verifiedToken != null ? verifiedToken.user() : null;
+    }
+
+    private VerifiedToken parse(String token) {
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("[gateway.auth.fail] reason={}", e.getMessage());
+            return null;
+        }
+        if (claims.getSubject() == null || claims.getExpiration() == null) {
+            log.debug("[gateway.auth.fail] reason=missing_subject_or_exp");
+            return null;
+        }
+
+        Instant expiresAt = claims.getExpiration().toInstant();
+        String userId = claims.get("uid", String.class);
+        String role = claims.get("role", String.class);
+        VerifiedUser user = new VerifiedUser(userId, claims.getSubject(), role, identityHeaders.enabled()
+                ? identityHeaders.sign(userId, claims.getSubject(), role, expiresAt.getEpochSecond())
+                : Map.of());
+        return new VerifiedToken(user, expiresAt);
+    }
+
+    private record VerifiedToken(VerifiedUser user, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,7 @@
+package valentinakondr.gateway.security;
+
+import java.util.Map;
+
+// Результат проверки JWT на шлюзе. identityHeaders пуст, если подпись заголовков личности выключена
+public record VerifiedUser(String userId, String username, String role, Map<String, String> identityHeaders) {
+}
@@ -0,0 +1,50 @@
+package valentinakondr.gateway.trace;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+// Сквозной id запроса: берётся от клиента, если выглядит безопасно, иначе выдаётся новый на каждый запрос.
+// Время запроса и журнал доступа - в RouteMetricsFilter.
+@Component
+public class CorrelationIdFilter implements GlobalFilter, Ordered {
+
+    public static final String HEADER = "X-Correlation-Id";
+
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9._:-]{1,64}");
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        String correlationId = resolve(exchange.getRequest().getHeaders().getFirst(HEADER));
+
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(headers -> headers.set(HEADER, correlationId))
+                .build();
+        ServerWebExchange traced = exchange.mutate().request(request).build();
+
+        // set, а не add: сервис возвращает тот же заголовок, в ответе клиенту он должен быть один
+        traced.getResponse().beforeCommit(() -> {
+            traced.getResponse().getHeaders().set(HEADER, correlationId);
+            return Mono.empty();
+        });
+
+        return chain.filter(traced);
+    }
+
+    public static String resolve(String incoming) {
+        return incoming != null && VALID_ID.matcher(incoming).matches() ? incoming : UUID.randomUUID().toString();
+    }
+
+    // раньше фильтров маршрута: id есть и у ответов лимитера (429) и кэша
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
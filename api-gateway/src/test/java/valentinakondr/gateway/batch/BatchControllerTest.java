@@ -0,0 +1,159 @@
+package valentinakondr.gateway.batch;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import valentinakondr.gateway.trace.CorrelationIdFilter;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BatchControllerTest {
+
+    // запросы, которые контроллер отправил обратно в шлюз
+    private final List<ClientRequest> sent = Collections.synchronizedList(new ArrayList<>());
+
+    // путь определяет ответ "шлюза": /slow отвечает позже остальных, /hang не отвечает, /fail - обрыв
+    private final BatchController controller = new BatchController(WebClient.builder().exchangeFunction(request -> {
+        sent.add(request);
+        String path = request.url().getPath();
+        return switch (path) {
+            case "/hang" -> Mono.never();
+            case "/fail" -> Mono.error(new IllegalStateException("connection reset"));
+            case "/text" -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE)
+                    .body("plain \"text\"").build());
+            case "/empty" -> Mono.just(ClientResponse.create(HttpStatus.NO_CONTENT).build());
+            default -> Mono.just(ClientResponse.create(path.equals("/missing") ? HttpStatus.NOT_FOUND : HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .header("X-Cache", "HIT")
+                            .header("X-Internal", "secret")
+                            .body("{\"path\":\"" + path + "\"}").build())
+                    .delayElement(Duration.ofMillis(path.equals("/slow") ? 150 : 0));
+        };
+    }), "http://gateway", 3, Duration.ofSeconds(1), 1 << 20);
+
+    private static BatchRequest.Part get(String id, String path) {
+        return new BatchRequest.Part(id, "GET", path, null);
+    }
+
+    private BatchResponse run(BatchRequest.Part... parts) {
+        return run(MockServerHttpRequest.post("/batch"), parts);
+    }
+
+    private BatchResponse run(MockServerHttpRequest.BaseBuilder<?> request, BatchRequest.Part... parts) {
+        return controller.batch(new BatchRequest(List.of(parts)), request.build(), new MockServerHttpResponse()).block();
+    }
+
+    private void assertRejected(BatchRequest batch) {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> controller.batch(batch, MockServerHttpRequest.post("/batch").build(), new MockServerHttpResponse()));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+
+    // --------------------
+    // проверка запроса
+    // --------------------
+
+    @Test
+    void batch_shouldReject_emptyOrOversizedBatch() {
+        assertRejected(new BatchRequest(null));
+        assertRejected(new BatchRequest(List.of()));
+        assertRejected(new BatchRequest(IntStream.range(0, 4).mapToObj(i -> get(null, "/api/hotels")).toList()));
+    }
+
+    @Test
+    void batch_shouldReject_unsupportedMethod() {
+        assertRejected(new BatchRequest(List.of(new BatchRequest.Part(null, "TRACE", "/api/hotels", null))));
+        assertRejected(new BatchRequest(List.of(new BatchRequest.Part(null, null, "/api/hotels", null))));
+    }
+
+    @Test
+    void batch_shouldReject_pathsOutsideGateway() {
+        for (String path : List.of("http://evil/x", "//evil/x", "api/hotels", "/api/../actuator", "/api\\hotels",
+                "/batch", "/batch?x=1", "/actuator/health", "/api/hotels?q=a b")) {
+            assertRejected(new BatchRequest(List.of(get(null, path))));
+        }
+        assertRejected(new BatchRequest(Arrays.asList(get(null, "/api/hotels"), null)));
+        assertEquals(0, sent.size());
+    }
+
+    // --------------------
+    // выполнение
+    // --------------------
+
+    @Test
+    void batch_shouldReturnResponsesInRequestOrder() {
+        // /slow завершается последним, но в ответе остаётся первым
+        BatchResponse response = run(get("a", "/slow"), get(null, "/api/hotels?page=0"), get("c", "/missing"));
+
+        assertEquals(List.of("a", "1", "c"), response.responses().stream().map(BatchResponse.Part::id).toList());
+        assertEquals("{\"path\":\"/slow\"}", response.responses().get(0).body());
+        assertEquals("{\"path\":\"/api/hotels\"}", response.responses().get(1).body());
+        assertEquals(404, response.responses().get(2).status());
+    }
+
+    @Test
+    void batch_shouldReturnOnlyAllowedHeaders_andWrapNonJsonBodies() {
+        BatchResponse response = run(get(null, "/api/hotels"), get(null, "/text"), get(null, "/empty"));
+
+        BatchResponse.Part json = response.responses().get(0);
+        assertEquals("HIT", json.headers().get("X-Cache"));
+        assertNull(json.headers().get("X-Internal"));
+        assertEquals("\"plain \\\"text\\\"\"", response.responses().get(1).body());
+        assertEquals(204, response.responses().get(2).status());
+        assertNull(response.responses().get(2).body());
+    }
+
+    @Test
+    void batch_shouldForwardAuthClientIpAndCorrelationId_andBody() {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.post("/batch")
+                .remoteAddress(new InetSocketAddress("203.0.113.7", 5000))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token")
+                .header(HttpHeaders.COOKIE, "session=1")
+                .header(CorrelationIdFilter.HEADER, "batch-1");
+
+        run(request, get(null, "/api/hotels"),
+                new BatchRequest.Part(null, "post", "/booking", JsonNodeFactory.instance.objectNode().put("roomId", "r1")));
+
+        assertEquals(2, sent.size());
+        for (ClientRequest part : sent) {
+            assertEquals("Bearer token", part.headers().getFirst(HttpHeaders.AUTHORIZATION));
+            assertEquals("203.0.113.7", part.headers().getFirst("X-Forwarded-For"));
+            assertEquals("batch-1", part.headers().getFirst(CorrelationIdFilter.HEADER));
+            assertNull(part.headers().getFirst(HttpHeaders.COOKIE));
+            assertEquals("gateway", part.url().getHost());
+        }
+        ClientRequest post = sent.stream().filter(part -> part.url().getPath().equals("/booking")).findFirst().orElseThrow();
+        assertEquals("POST", post.method().name());
+        assertEquals(MediaType.APPLICATION_JSON, post.headers().getContentType());
+    }
+
+    // ошибка или таймаут одной части не отменяют остальные
+    @Test
+    void batch_shouldIsolateFailedAndTimedOutParts() {
+        BatchResponse response = run(get(null, "/fail"), get(null, "/hang"), get(null, "/api/hotels"));
+
+        assertEquals(List.of(502, 504, 200), response.responses().stream().map(BatchResponse.Part::status).toList());
+        assertEquals("\"upstream error\"", response.responses().get(0).body());
+        assertEquals("\"timeout\"", response.responses().get(1).body());
+    }
+}
@@ -0,0 +1,234 @@
+package valentinakondr.gateway.cache;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import valentinakondr.gateway.security.IdentityForwardingFilter;
+import valentinakondr.gateway.security.JwtVerifier;
+import valentinakondr.gateway.security.VerifiedUser;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ResponseCacheGatewayFilterFactoryTest {
+
+    private static final String JWT_SECRET = "1234567890123456789012345678901212345678";
+    private static final Route HOTELS = route("hotel-service-hotels", "lb://hotel-service");
+    private static final Route ROOMS = route("hotel-service-rooms", "lb://hotel-service");
+    private static final Route BOOKINGS = route("booking-service", "lb://booking-service");
+
+    private final ResponseCache cache = new ResponseCache(1 << 20);
+    private final GatewayFilter filter;
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    ResponseCacheGatewayFilterFactoryTest() {
+        ResponseCacheGatewayFilterFactory.Config config = new ResponseCacheGatewayFilterFactory.Config();
+        config.setTtl(Duration.ofSeconds(60));
+        filter = new ResponseCacheGatewayFilterFactory(cache).apply(config);
+    }
+
+    private static Route route(String id, String uri) {
+        return Route.async().id(id).uri(URI.create(uri)).predicate(exchange -> true).build();
+    }
+
+    // тело ответа сервиса - номер вызова
+    private GatewayFilterChain upstream(HttpStatus status, Consumer<HttpHeaders> headers) {
+        return exchange -> {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(status);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            headers.accept(response.getHeaders());
+            byte[] body = String.valueOf(upstreamCalls.incrementAndGet()).getBytes(StandardCharsets.UTF_8);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        };
+    }
+
+    private GatewayFilterChain upstream() {
+        return upstream(HttpStatus.OK, headers -> {
+        });
+    }
+
+    // role == null - запрос без проверенного токена
+    private MockServerWebExchange send(Route route, String role, MockServerHttpRequest.BaseBuilder<?> request,
+                                       GatewayFilterChain chain) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        if (role != null) {
+            exchange.getAttributes().put(IdentityForwardingFilter.VERIFIED_USER_ATTR,
+                    new VerifiedUser(null, "alex.petrov", role, Map.of()));
+        }
+        filter.filter(exchange, chain).block();
+        return exchange;
+    }
+
+    private MockServerWebExchange get(Route route, String path, String role) {
+        return send(route, role, MockServerHttpRequest.get(path), upstream());
+    }
+
+    private static String body(MockServerWebExchange exchange) {
+        return exchange.getResponse().getBodyAsString().block();
+    }
+
+    private static String xCache(MockServerWebExchange exchange) {
+        return exchange.getResponse().getHeaders().getFirst("X-Cache");
+    }
+
+    // --------------------
+    // ключ
+    // --------------------
+
+    @Test
+    void get_shouldServeRepeatedRequestFromCache() {
+        MockServerWebExchange first = get(HOTELS, "/api/hotels?page=1", "USER");
+        MockServerWebExchange second = get(HOTELS, "/api/hotels?page=1", "USER");
+
+        assertEquals("MISS", xCache(first));
+        assertEquals("HIT", xCache(second));
+        assertEquals("1", body(second));
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    void get_shouldSeparateEntriesByRoleAndAccept() {
+        get(HOTELS, "/api/hotels", "USER");
+
+        assertEquals("MISS", xCache(get(HOTELS, "/api/hotels", "ADMIN")));
+        assertEquals("MISS", xCache(send(HOTELS, "USER", MockServerHttpRequest.get("/api/hotels")
+                .accept(MediaType.APPLICATION_XML), upstream())));
+        assertEquals("HIT", xCache(get(HOTELS, "/api/hotels", "ADMIN")));
+        assertEquals(3, upstreamCalls.get());
+    }
+
+    @Test
+    void get_shouldNotCache_withoutVerifiedUser() {
+        send(HOTELS, null, MockServerHttpRequest.get("/api/hotels"), upstream());
+        send(HOTELS, null, MockServerHttpRequest.get("/api/hotels"), upstream());
+
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    // настройки по умолчанию: заголовки личности не подписываются, кэш работает по проверке JWT на шлюзе
+    @Test
+    void get_shouldServeFromCache_whenIdentityHeadersDisabled() {
+        IdentityForwardingFilter identity = new IdentityForwardingFilter(new JwtVerifier(JWT_SECRET, 100, false, ""));
+        String token = Jwts.builder()
+                .subject("alex.petrov")
+                .claim("role", "USER")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(JWT_SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        List<String> xCache = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/hotels")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+            exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, HOTELS);
+            identity.filter(exchange, next -> filter.filter(next, upstream())).block();
+            xCache.add(xCache(exchange));
+        }
+
+        assertEquals(List.of("MISS", "HIT"), xCache);
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    void get_shouldReturn304_whenEtagMatches() {
+        String etag = get(HOTELS, "/api/hotels", "USER").getResponse().getHeaders().getETag();
+
+        MockServerWebExchange revalidated = send(HOTELS, "USER", MockServerHttpRequest.get("/api/hotels")
+                .ifNoneMatch(etag), upstream());
+
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidated.getResponse().getStatusCode());
+    }
+
+    // --------------------
+    // Vary и Cache-Control
+    // --------------------
+
+    @Test
+    void get_shouldBypass_whenResponseVariesByUnkeyedHeader() {
+        GatewayFilterChain varies = upstream(HttpStatus.OK, headers -> headers.setVary(List.of("Accept-Language")));
+
+        assertEquals("BYPASS", xCache(send(HOTELS, "USER", MockServerHttpRequest.get("/api/hotels"), varies)));
+        assertEquals("BYPASS", xCache(send(HOTELS, "USER", MockServerHttpRequest.get("/api/hotels"), varies)));
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void get_shouldCache_whenResponseVariesByAcceptOrOrigin() {
+        GatewayFilterChain varies = upstream(HttpStatus.OK, headers -> headers.setVary(List.of("Accept", "Origin")));
+
+        send(HOTELS, "USER", MockServerHttpRequest.get("/api/hotels"), varies);
+
+        assertEquals("HIT", xCache(get(HOTELS, "/api/hotels", "USER")));
+    }
+
+    @Test
+    void get_shouldBypass_whenUpstreamForbidsSharedCaching() {
+        GatewayFilterChain personal = upstream(HttpStatus.OK, headers -> headers.setCacheControl("private, max-age=60"));
+
+        assertEquals("BYPASS", xCache(send(HOTELS, "USER", MockServerHttpRequest.get("/api/hotels"), personal)));
+        assertEquals("MISS", xCache(get(HOTELS, "/api/hotels", "USER")));
+    }
+
+    // --------------------
+    // сброс
+    // --------------------
+
+    @Test
+    void write_shouldPurgeAllRoutesOfSameUpstream() {
+        get(HOTELS, "/api/hotels", "USER");
+        get(ROOMS, "/api/rooms", "USER");
+        get(BOOKINGS, "/bookings", "USER");
+
+        send(HOTELS, "ADMIN", MockServerHttpRequest.post("/api/hotels"), upstream(HttpStatus.CREATED, headers -> {
+        }));
+
+        assertEquals("MISS", xCache(get(ROOMS, "/api/rooms", "USER")));
+        assertEquals("MISS", xCache(get(HOTELS, "/api/hotels", "USER")));
+        assertEquals("HIT", xCache(get(BOOKINGS, "/bookings", "USER")));
+    }
+
+    @Test
+    void write_shouldKeepCache_whenRejected() {
+        get(ROOMS, "/api/rooms", "USER");
+
+        send(HOTELS, "USER", MockServerHttpRequest.post("/api/hotels"), upstream(HttpStatus.FORBIDDEN, headers -> {
+        }));
+
+        assertEquals("HIT", xCache(get(ROOMS, "/api/rooms", "USER")));
+    }
+
+    @Test
+    void purge_shouldMatchRouteAndPathPrefix() {
+        get(HOTELS, "/api/hotels/1", "USER");
+        get(HOTELS, "/api/hotels/2", "ADMIN");
+        get(ROOMS, "/api/rooms/1", "USER");
+
+        assertEquals(2, cache.purge("hotel-service-hotels", "/api/hotels/"));
+        assertEquals(0, cache.purge(null, "/api/hotels"));
+        assertNull(cache.get(new CacheKey("lb://hotel-service", "hotel-service-hotels", "USER", null, "/api/hotels/1")));
+        assertEquals(1, cache.purge(null, null));
+    }
+}
@@ -0,0 +1,180 @@
+package valentinakondr.gateway.coalesce;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import valentinakondr.gateway.security.IdentityForwardingFilter;
+import valentinakondr.gateway.security.JwtVerifier;
+import valentinakondr.gateway.security.VerifiedUser;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestCoalescingGatewayFilterFactoryTest {
+
+    private static final String JWT_SECRET = "1234567890123456789012345678901212345678";
+
+    private final GatewayFilter filter;
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    // ответ ведущего запроса задерживается до release
+    private final Sinks.Empty<Void> release = Sinks.empty();
+
+    RequestCoalescingGatewayFilterFactoryTest() {
+        RequestCoalescingGatewayFilterFactory.Config config = new RequestCoalescingGatewayFilterFactory.Config();
+        config.setMaxWait(Duration.ofMillis(200));
+        filter = new RequestCoalescingGatewayFilterFactory().apply(config);
+    }
+
+    // тело ответа - номер вызова сервиса
+    private Mono<Void> respond(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().set("X-RateLimit-Remaining", "7");
+        byte[] body = String.valueOf(upstreamCalls.incrementAndGet()).getBytes(StandardCharsets.UTF_8);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private final GatewayFilterChain delayed = exchange -> release.asMono()
+            .then(Mono.defer(() -> respond(exchange.getResponse())));
+
+    private final GatewayFilterChain immediate = exchange -> respond(exchange.getResponse());
+
+    // запрос с JWT, проверенным IdentityForwardingFilter
+    private static MockServerWebExchange verified(MockServerHttpRequest.BaseBuilder<?> request, String role) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(IdentityForwardingFilter.VERIFIED_USER_ATTR,
+                new VerifiedUser(null, "alex.petrov", role, Map.of()));
+        return exchange;
+    }
+
+    private static MockServerWebExchange get(String path, String role) {
+        return verified(MockServerHttpRequest.get(path), role);
+    }
+
+    private CompletableFuture<Void> start(MockServerWebExchange exchange, GatewayFilterChain chain) {
+        return filter.filter(exchange, chain).toFuture();
+    }
+
+    private static String body(MockServerWebExchange exchange) {
+        return exchange.getResponse().getBodyAsString().block();
+    }
+
+    @Test
+    void filter_shouldShareLeaderResponse_withConcurrentFollowers() throws Exception {
+        MockServerWebExchange leader = get("/api/hotels?page=1", "USER");
+        MockServerWebExchange follower = get("/api/hotels?page=1", "USER");
+
+        CompletableFuture<Void> leading = start(leader, delayed);
+        CompletableFuture<Void> following = start(follower, immediate);
+        assertFalse(following.isDone());
+
+        release.tryEmitEmpty();
+        leading.get(1, TimeUnit.SECONDS);
+        following.get(1, TimeUnit.SECONDS);
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals("1", body(follower));
+        assertEquals(HttpStatus.OK, follower.getResponse().getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, follower.getResponse().getHeaders().getContentType());
+        // лимит ведущего запроса ожидающим не показывается
+        assertNull(follower.getResponse().getHeaders().getFirst("X-RateLimit-Remaining"));
+    }
+
+    @Test
+    void filter_shouldNotCoalesce_differentRoleOrUnverifiedOrWrite() throws Exception {
+        CompletableFuture<Void> leading = start(get("/api/hotels", "USER"), delayed);
+
+        start(get("/api/hotels", "ADMIN"), immediate).get(1, TimeUnit.SECONDS);
+        start(MockServerWebExchange.from(MockServerHttpRequest.get("/api/hotels")), immediate).get(1, TimeUnit.SECONDS);
+        start(verified(MockServerHttpRequest.post("/api/hotels"), "USER"), immediate).get(1, TimeUnit.SECONDS);
+
+        assertEquals(3, upstreamCalls.get());
+        release.tryEmitEmpty();
+        leading.get(1, TimeUnit.SECONDS);
+    }
+
+    // настройки по умолчанию: заголовки личности не подписываются, объединение работает по проверке JWT на шлюзе
+    @Test
+    void filter_shouldCoalesce_whenIdentityHeadersDisabled() throws Exception {
+        IdentityForwardingFilter identity = new IdentityForwardingFilter(new JwtVerifier(JWT_SECRET, 100, false, ""));
+        String token = Jwts.builder()
+                .subject("alex.petrov")
+                .claim("role", "USER")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(JWT_SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        MockServerWebExchange leader = MockServerWebExchange.from(MockServerHttpRequest.get("/api/hotels")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+        MockServerWebExchange follower = MockServerWebExchange.from(MockServerHttpRequest.get("/api/hotels")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+
+        CompletableFuture<Void> leading = identity.filter(leader, next -> filter.filter(next, delayed)).toFuture();
+        CompletableFuture<Void> following = identity.filter(follower, next -> filter.filter(next, immediate)).toFuture();
+        assertFalse(following.isDone());
+
+        release.tryEmitEmpty();
+        leading.get(1, TimeUnit.SECONDS);
+        following.get(1, TimeUnit.SECONDS);
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals("1", body(follower));
+    }
+
+    @Test
+    void filter_shouldCallUpstream_whenLeaderExceedsMaxWait() throws Exception {
+        CompletableFuture<Void> leading = start(get("/api/hotels", "USER"), delayed);
+        MockServerWebExchange follower = get("/api/hotels", "USER");
+
+        start(follower, immediate).get(1, TimeUnit.SECONDS);
+
+        assertEquals("1", body(follower));
+        release.tryEmitEmpty();
+        leading.get(1, TimeUnit.SECONDS);
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void filter_shouldCallUpstream_whenLeaderFails() throws Exception {
+        Sinks.Empty<Void> fail = Sinks.empty();
+        CompletableFuture<Void> leading = start(get("/api/hotels", "USER"),
+                exchange -> fail.asMono().then(Mono.error(new IllegalStateException("upstream reset"))));
+        MockServerWebExchange follower = get("/api/hotels", "USER");
+        CompletableFuture<Void> following = start(follower, immediate);
+
+        fail.tryEmitEmpty();
+        following.get(1, TimeUnit.SECONDS);
+
+        assertEquals("1", body(follower));
+        assertTrue(leading.isCompletedExceptionally());
+    }
+
+    // после ответа ведущий снимается: следующий запрос идёт в сервис заново
+    @Test
+    void filter_shouldStartNewFlight_afterLeaderCompletes() throws Exception {
+        start(get("/api/hotels", "USER"), immediate).get(1, TimeUnit.SECONDS);
+        MockServerWebExchange next = get("/api/hotels", "USER");
+        start(next, immediate).get(1, TimeUnit.SECONDS);
+
+        assertEquals("2", body(next));
+    }
+}
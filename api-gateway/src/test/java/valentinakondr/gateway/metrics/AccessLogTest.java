@@ -0,0 +1,50 @@
+package valentinakondr.gateway.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccessLogTest {
+
+    private static AccessLog.Entry entry() {
+        return new AccessLog.Entry("c-1", "hotels", "GET", "/api/hotels", 200,
+                TimeUnit.MICROSECONDS.toNanos(12_345), TimeUnit.MICROSECONDS.toNanos(10_060), 0, "MISS");
+    }
+
+    @Test
+    void entry_shouldFormatLineWithTenthsOfMillis() {
+        StringBuilder line = new StringBuilder();
+        entry().appendTo(line);
+
+        assertEquals("[gateway.access] correlationId=c-1 route=hotels method=GET path=/api/hotels status=200"
+                + " totalMs=12.3 upstreamMs=10.0 lbMs=0.0 cache=MISS", line.toString());
+    }
+
+    @Test
+    void submit_shouldDoNothing_whenDisabled() throws InterruptedException {
+        AccessLog accessLog = new AccessLog(false, 1);
+
+        for (int i = 0; i < 10; i++) {
+            accessLog.submit(entry());
+        }
+
+        assertEquals(0, accessLog.dropped());
+        accessLog.stop();
+    }
+
+    // event loop не ждёт писателя: переполнение очереди отбрасывает записи и считает их
+    @Test
+    void submit_shouldDropAndCount_whenQueueIsFull() throws InterruptedException {
+        AccessLog accessLog = new AccessLog(true, 1);
+
+        for (int i = 0; i < 100_000; i++) {
+            accessLog.submit(entry());
+        }
+
+        assertTrue(accessLog.dropped() > 0);
+        accessLog.stop();
+    }
+}
@@ -0,0 +1,83 @@
+package valentinakondr.gateway.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramsTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final LatencyHistograms histograms = new LatencyHistograms();
+
+    // запрос через сервис: lbMs на выбор экземпляра, upstreamMs в сервисе, всего totalMs
+    private void proxied(String route, int status, long lbMs, long upstreamMs, long totalMs) {
+        RouteTimings timings = new RouteTimings(1_000 * MS);
+        timings.loadBalancerStart = timings.start + MS;
+        timings.upstreamStart = timings.loadBalancerStart + lbMs * MS;
+        timings.upstreamEnd = timings.upstreamStart + upstreamMs * MS;
+        histograms.record(route, status, timings, timings.start + totalMs * MS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> segment(String route, int status, String name) {
+        Map<String, Object> segments = (Map<String, Object>) histograms.snapshot().get(route).get(String.valueOf(status));
+        return (Map<String, Object>) segments.get(name);
+    }
+
+    @Test
+    void record_shouldSplitTotalIntoUpstreamOverheadAndLoadBalancer() {
+        proxied("hotels", 200, 2, 40, 50);
+
+        assertEquals(50.0, (double) segment("hotels", 200, "total").get("p50"), 0.5);
+        assertEquals(40.0, (double) segment("hotels", 200, "upstream").get("p50"), 0.5);
+        assertEquals(10.0, (double) segment("hotels", 200, "gatewayOverhead").get("p50"), 0.1);
+        assertEquals(2.0, (double) segment("hotels", 200, "loadBalancer").get("p50"), 0.05);
+    }
+
+    @Test
+    void snapshot_shouldReportPercentilesPerRouteAndStatus() {
+        for (int i = 1; i <= 100; i++) {
+            proxied("hotels", 200, 1, i, i + 1);
+        }
+        proxied("hotels", 503, 1, 5, 6);
+
+        Map<String, Object> ok = segment("hotels", 200, "upstream");
+        assertEquals(100L, ok.get("count"));
+        assertEquals(50.0, (double) ok.get("p50"), 0.5);
+        assertEquals(99.0, (double) ok.get("p99"), 1.0);
+        assertEquals(100.0, (double) ok.get("max"), 1.0);
+        assertEquals(1L, segment("hotels", 503, "total").get("count"));
+    }
+
+    // ответ из кэша шлюза или 429: только total, участки сервиса пустые
+    @Test
+    void record_shouldCountOnlyTotal_whenUpstreamNotCalled() {
+        RouteTimings timings = new RouteTimings(0);
+        histograms.record("hotels", 200, timings, 3 * MS);
+
+        assertEquals(1L, segment("hotels", 200, "total").get("count"));
+        assertEquals(Map.of("count", 0L), segment("hotels", 200, "upstream"));
+        assertEquals(Map.of("count", 0L), segment("hotels", 200, "loadBalancer"));
+    }
+
+    @Test
+    void record_shouldClampToOneMinute() {
+        proxied("bookings", 504, 1, 10 * 60_000, 10 * 60_000 + 2);
+
+        assertTrue((double) segment("bookings", 504, "total").get("max") <= 60_000 * 1.01);
+    }
+
+    @Test
+    void reset_shouldDropAllRoutes() {
+        proxied("hotels", 200, 1, 1, 2);
+
+        histograms.reset();
+
+        assertTrue(histograms.snapshot().isEmpty());
+    }
+}
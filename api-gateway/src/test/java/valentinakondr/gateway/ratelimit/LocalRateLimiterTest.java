@@ -0,0 +1,71 @@
+package valentinakondr.gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalRateLimiterTest {
+
+    // по умолчанию 2 запроса, затем 20 в секунду (токен раз в 50 мс)
+    private final LocalRateLimiter limiter = new LocalRateLimiter(null, 2, 20, 1_000);
+
+    private RateLimiter.Response request(String routeId, String key) {
+        return limiter.isAllowed(routeId, key).block();
+    }
+
+    @Test
+    void isAllowed_shouldDenyAfterCapacity_andReportRemaining() {
+        RateLimiter.Response first = request("hotels", "user:alex");
+        RateLimiter.Response second = request("hotels", "user:alex");
+        RateLimiter.Response third = request("hotels", "user:alex");
+
+        assertTrue(first.isAllowed());
+        assertEquals("1", first.getHeaders().get(LocalRateLimiter.REMAINING_HEADER));
+        assertTrue(second.isAllowed());
+        assertEquals("0", second.getHeaders().get(LocalRateLimiter.REMAINING_HEADER));
+        assertFalse(third.isAllowed());
+        assertEquals("0", third.getHeaders().get(LocalRateLimiter.REMAINING_HEADER));
+        assertEquals("2", third.getHeaders().get(LocalRateLimiter.BURST_CAPACITY_HEADER));
+    }
+
+    @Test
+    void isAllowed_shouldRefillOverTime() throws InterruptedException {
+        request("hotels", "user:alex");
+        request("hotels", "user:alex");
+        assertFalse(request("hotels", "user:alex").isAllowed());
+
+        Thread.sleep(120);
+
+        assertTrue(request("hotels", "user:alex").isAllowed());
+    }
+
+    @Test
+    void isAllowed_shouldKeepSeparateBucketsPerKeyAndRoute() {
+        request("hotels", "user:alex");
+        request("hotels", "user:alex");
+
+        assertFalse(request("hotels", "user:alex").isAllowed());
+        assertTrue(request("hotels", "user:katya").isAllowed());
+        assertTrue(request("rooms", "user:alex").isAllowed());
+    }
+
+    @Test
+    void isAllowed_shouldUseRouteConfig_whenPresent() {
+        limiter.getConfig().put("bookings", new LocalRateLimiter.Config().setCapacity(1).setRefillPerSecond(0.1));
+
+        assertTrue(request("bookings", "user:alex").isAllowed());
+        assertFalse(request("bookings", "user:alex").isAllowed());
+        assertEquals("1", request("bookings", "user:alex").getHeaders().get(LocalRateLimiter.BURST_CAPACITY_HEADER));
+    }
+
+    @Test
+    void isAllowed_shouldRejectInvalidConfig() {
+        limiter.getConfig().put("broken", new LocalRateLimiter.Config().setCapacity(0).setRefillPerSecond(1));
+
+        assertThrows(IllegalArgumentException.class, () -> request("broken", "user:alex"));
+    }
+}
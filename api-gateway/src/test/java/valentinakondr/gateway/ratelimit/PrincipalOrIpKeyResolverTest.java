@@ -0,0 +1,84 @@
+package valentinakondr.gateway.ratelimit;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import valentinakondr.gateway.security.IdentityForwardingFilter;
+import valentinakondr.gateway.security.JwtVerifier;
+import valentinakondr.gateway.security.VerifiedUser;
+import valentinakondr.identity.IdentityHeaders;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PrincipalOrIpKeyResolverTest {
+
+    private static final String JWT_SECRET = "1234567890123456789012345678901212345678";
+
+    private final PrincipalOrIpKeyResolver resolver = new PrincipalOrIpKeyResolver();
+
+    private String resolve(MockServerHttpRequest.BaseBuilder<?> request) {
+        return resolver.resolve(MockServerWebExchange.from(request)).block();
+    }
+
+    @Test
+    void resolve_shouldUseVerifiedUsername() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/hotels")
+                .remoteAddress(new InetSocketAddress("203.0.113.7", 5000)));
+        exchange.getAttributes().put(IdentityForwardingFilter.VERIFIED_USER_ATTR,
+                new VerifiedUser(null, "alex.petrov", "USER", Map.of()));
+
+        assertEquals("user:alex.petrov", resolver.resolve(exchange).block());
+    }
+
+    // настройки по умолчанию: заголовки личности не подписываются, ключ берётся из проверки JWT на шлюзе
+    @Test
+    void resolve_shouldUseJwtSubject_whenIdentityHeadersDisabled() {
+        IdentityForwardingFilter identity = new IdentityForwardingFilter(new JwtVerifier(JWT_SECRET, 100, false, ""));
+        String token = Jwts.builder()
+                .subject("alex.petrov")
+                .claim("role", "USER")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(JWT_SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        AtomicReference<String> key = new AtomicReference<>();
+        identity.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/hotels")
+                        .remoteAddress(new InetSocketAddress("203.0.113.7", 5000))
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)),
+                next -> resolver.resolve(next).doOnNext(key::set).then()).block();
+
+        assertEquals("user:alex.petrov", key.get());
+    }
+
+    // клиентский X-Auth-User без проверенного токена ключом не становится
+    @Test
+    void resolve_shouldIgnoreClientIdentityHeader() {
+        assertEquals("ip:203.0.113.7", resolve(MockServerHttpRequest.get("/api/hotels")
+                .remoteAddress(new InetSocketAddress("203.0.113.7", 5000))
+                .header(IdentityHeaders.USERNAME, "alex.petrov")));
+    }
+
+    @Test
+    void resolve_shouldIgnoreForwardedFor_fromRemoteClient() {
+        assertEquals("ip:203.0.113.7", resolve(MockServerHttpRequest.get("/api/hotels")
+                .remoteAddress(new InetSocketAddress("203.0.113.7", 5000))
+                .header("X-Forwarded-For", "198.51.100.1")));
+    }
+
+    // части POST /batch приходят с loopback и несут IP исходного клиента последним
+    @Test
+    void resolve_shouldUseLastForwardedFor_fromLoopback() {
+        assertEquals("ip:198.51.100.2", resolve(MockServerHttpRequest.get("/api/hotels")
+                .remoteAddress(new InetSocketAddress("127.0.0.1", 5000))
+                .header("X-Forwarded-For", "10.1.1.1, 198.51.100.2")));
+    }
+}
@@ -0,0 +1,105 @@
+package valentinakondr.gateway.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import valentinakondr.identity.IdentityHeaders;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static valentinakondr.gateway.security.JwtVerifierTest.IDENTITY_SECRET;
+import static valentinakondr.gateway.security.JwtVerifierTest.JWT_SECRET;
+import static valentinakondr.gateway.security.JwtVerifierTest.token;
+
+class IdentityForwardingFilterTest {
+
+    private final IdentityForwardingFilter filter =
+            new IdentityForwardingFilter(new JwtVerifier(JWT_SECRET, 100, true, IDENTITY_SECRET));
+    private final IdentityHeaders identityHeaders = new IdentityHeaders(true, IDENTITY_SECRET);
+
+    // обмен, ушедший дальше по цепочке
+    private static ServerWebExchange next(IdentityForwardingFilter filter, MockServerHttpRequest.BaseBuilder<?> request) {
+        AtomicReference<ServerWebExchange> next = new AtomicReference<>();
+        filter.filter(MockServerWebExchange.from(request), exchange -> {
+            next.set(exchange);
+            return Mono.empty();
+        }).block();
+        return next.get();
+    }
+
+    private HttpHeaders forwarded(MockServerHttpRequest.BaseBuilder<?> request) {
+        return next(filter, request).getRequest().getHeaders();
+    }
+
+    // подделка от клиента: валидная по форме подпись, но не шлюза
+    private static MockServerHttpRequest.BaseBuilder<?> forged(MockServerHttpRequest.BaseBuilder<?> request) {
+        new IdentityHeaders(true, "client-guess-0123456789abcdef")
+                .sign(UUID.randomUUID().toString(), "intruder", "ADMIN", Long.MAX_VALUE / 1000)
+                .forEach(request::header);
+        return request;
+    }
+
+    @Test
+    void filter_shouldStripClientIdentityHeaders_withoutToken() {
+        HttpHeaders headers = forwarded(forged(MockServerHttpRequest.get("/api/hotels")));
+
+        IdentityHeaders.ALL.forEach(name -> assertNull(headers.get(name), name));
+    }
+
+    @Test
+    void filter_shouldNotSetVerifiedUser_whenTokenInvalid() {
+        String token = token("another-jwt-secret-0123456789abcdef0123", null, "intruder", 60_000);
+
+        ServerWebExchange exchange = next(filter, MockServerHttpRequest.get("/api/hotels")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+
+        assertNull(IdentityForwardingFilter.verifiedUser(exchange));
+    }
+
+    // подпись выключена: заголовков нет, но фильтрам маршрутов доступен проверенный пользователь
+    @Test
+    void filter_shouldSetVerifiedUser_whenIdentityDisabled() {
+        IdentityForwardingFilter unsigned = new IdentityForwardingFilter(new JwtVerifier(JWT_SECRET, 100, false, ""));
+
+        ServerWebExchange exchange = next(unsigned, forged(MockServerHttpRequest.get("/api/hotels")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token(JWT_SECRET, null, "alex.petrov", 60_000))));
+
+        IdentityHeaders.ALL.forEach(name -> assertNull(exchange.getRequest().getHeaders().get(name), name));
+        assertEquals("alex.petrov", IdentityForwardingFilter.verifiedUser(exchange).username());
+        assertEquals("USER", IdentityForwardingFilter.verifiedUser(exchange).role());
+    }
+
+    @Test
+    void filter_shouldStripClientIdentityHeaders_whenTokenInvalid() {
+        String token = token("another-jwt-secret-0123456789abcdef0123", null, "intruder", 60_000);
+
+        HttpHeaders headers = forwarded(forged(MockServerHttpRequest.get("/api/hotels")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)));
+
+        IdentityHeaders.ALL.forEach(name -> assertNull(headers.get(name), name));
+        // сервис сам ответит 401 по Authorization
+        assertEquals("Bearer " + token, headers.getFirst(HttpHeaders.AUTHORIZATION));
+    }
+
+    @Test
+    void filter_shouldReplaceClientIdentityHeaders_withSignedOnes() {
+        String uid = UUID.randomUUID().toString();
+
+        HttpHeaders headers = forwarded(forged(MockServerHttpRequest.get("/api/hotels")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token(JWT_SECRET, uid, "alex.petrov", 60_000))));
+
+        IdentityHeaders.ALL.forEach(name -> assertEquals(1, headers.get(name).size(), name));
+        IdentityHeaders.Identity identity = identityHeaders.verify(headers::getFirst);
+        assertNotNull(identity);
+        assertEquals(uid, identity.userId());
+        assertEquals("alex.petrov", identity.username());
+        assertEquals("USER", identity.role());
+    }
+}
@@ -0,0 +1,83 @@
+package valentinakondr.gateway.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import valentinakondr.identity.IdentityHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class JwtVerifierTest {
+
+    static final String JWT_SECRET = "1234567890123456789012345678901212345678";
+    static final String IDENTITY_SECRET = "identity-test-secret-0123456789abcdef";
+
+    private final JwtVerifier verifier = new JwtVerifier(JWT_SECRET, 100, true, IDENTITY_SECRET);
+    private final IdentityHeaders identityHeaders = new IdentityHeaders(true, IDENTITY_SECRET);
+
+    static String token(String secret, String uid, String subject, long ttlMillis) {
+        return Jwts.builder()
+                .claim("uid", uid)
+                .claim("role", "USER")
+                .subject(subject)
+                .expiration(new Date(System.currentTimeMillis() + ttlMillis))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    @Test
+    void verify_shouldReturnUserAndSignedHeaders_forValidToken() {
+        String uid = UUID.randomUUID().toString();
+
+        VerifiedUser user = verifier.verify(token(JWT_SECRET, uid, "алекс петров", 60_000));
+
+        assertEquals(new VerifiedUser(uid, "алекс петров", "USER", user.identityHeaders()), user);
+        IdentityHeaders.Identity identity = identityHeaders.verify(user.identityHeaders()::get);
+        assertNotNull(identity);
+        assertEquals(uid, identity.userId());
+        assertEquals("алекс петров", identity.username());
+        assertEquals("USER", identity.role());
+    }
+
+    // подпись сервисы проверяют своим ключом: заголовки, подписанные другим секретом, не принимаются
+    @Test
+    void verify_shouldSignWithConfiguredSecretOnly() {
+        Map<String, String> headers = verifier.verify(token(JWT_SECRET, null, "alex.petrov", 60_000)).identityHeaders();
+
+        assertNull(new IdentityHeaders(true, "other-secret-0123456789abcdef").verify(headers::get));
+        assertEquals("", headers.get(IdentityHeaders.USER_ID));
+    }
+
+    @Test
+    void verify_shouldReturnNull_forForeignSignatureExpiredOrGarbage() {
+        assertNull(verifier.verify(token("another-jwt-secret-0123456789abcdef0123", null, "alex.petrov", 60_000)));
+        assertNull(verifier.verify(token(JWT_SECRET, null, "alex.petrov", -1_000)));
+        assertNull(verifier.verify("not-a-jwt"));
+    }
+
+    @Test
+    void verify_shouldCacheResultByToken() {
+        String token = token(JWT_SECRET, UUID.randomUUID().toString(), "alex.petrov", 60_000);
+
+        assertSame(verifier.verify(token), verifier.verify(token));
+    }
+
+    // без подписи заголовков токен всё равно проверяется: кэш, объединение и лимиты шлюза работают по нему
+    @Test
+    void verify_shouldReturnUserWithoutHeaders_whenIdentityDisabled() {
+        JwtVerifier disabled = new JwtVerifier(JWT_SECRET, 100, false, "");
+
+        VerifiedUser user = disabled.verify(token(JWT_SECRET, null, "alex.petrov", 60_000));
+
+        assertEquals(new VerifiedUser(null, "alex.petrov", "USER", Map.of()), user);
+        assertNull(disabled.verify(token("another-jwt-secret-0123456789abcdef0123", null, "alex.petrov", 60_000)));
+    }
+}
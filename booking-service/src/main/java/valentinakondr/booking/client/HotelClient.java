@@ -15,6 +15,9 @@ public interface HotelClient {
             @RequestBody AvailabilityRequestDto request
     );
 
+    @GetMapping("/api/rooms")
+    List<RoomDto> getAllRooms();
+
     @GetMapping("/api/rooms/recommend")
     List<RoomDto> getRooms();
 
@@ -1,23 +1,55 @@
 package valentinakondr.booking.config.feign;
 
+import feign.Logger;
 import feign.RequestInterceptor;
+import org.slf4j.MDC;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import valentinakondr.booking.client.AvailabilityRequestDto;
+import valentinakondr.booking.client.RoomDto;
+import valentinakondr.identity.IdentityHeaders;
+import valentinakondr.websupport.CorrelationIdFilter;
 
+// тела вызовов HotelClient (де)сериализует Jackson: для native image их типы регистрируются явно
 @Configuration
+@RegisterReflectionForBinding({RoomDto.class, AvailabilityRequestDto.class})
 public class FeignAuthRequestInterceptor {
     @Bean
     public RequestInterceptor requestInterceptor() {
         return requestTemplate -> {
+            // из MDC, а не из запроса: в пуле групповых бронирований его переносит TaskDecorator
+            String correlationId = MDC.get(CorrelationIdFilter.MDC_KEY);
+            if (correlationId != null) {
+                requestTemplate.header(CorrelationIdFilter.HEADER, correlationId);
+            }
             ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
             if (attributes != null) {
                 String authHeader = attributes.getRequest().getHeader("Authorization");
                 if (authHeader != null && authHeader.startsWith("Bearer ")) {
                     requestTemplate.header("Authorization", authHeader);
                 }
+                // подписанная шлюзом личность: hotel-service примет её без повторной проверки JWT
+                for (String name : IdentityHeaders.ALL) {
+                    String value = attributes.getRequest().getHeader(name);
+                    if (value != null) {
+                        requestTemplate.header(name, value);
+                    }
+                }
             }
         };
     }
+
+    // BASIC: Feign замеряет каждый вызов, FeignSpanLogger пишет только итоговую строку с длительностью
+    @Bean
+    public Logger.Level feignLoggerLevel() {
+        return Logger.Level.BASIC;
+    }
+
+    @Bean
+    public Logger feignLogger() {
+        return new FeignSpanLogger();
+    }
 }
@@ -0,0 +1,34 @@
+package valentinakondr.booking.config.feign;
+
+import feign.Logger;
+import feign.Request;
+import feign.Response;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+
+// Одна строка на вызов hotel-service: метод клиента, статус и длительность. correlationId - из MDC.
+// Тело ответа не читается, ответ возвращается как есть.
+@Slf4j
+class FeignSpanLogger extends Logger {
+
+    @Override
+    protected void logRequest(String configKey, Level logLevel, Request request) {
+    }
+
+    @Override
+    protected Response logAndRebufferResponse(String configKey, Level logLevel, Response response, long elapsedTime) {
+        log.info("[feign.call.done] client={} status={} durationMs={}", configKey, response.status(), elapsedTime);
+        return response;
+    }
+
+    @Override
+    protected IOException logIOException(String configKey, Level logLevel, IOException ioe, long elapsedTime) {
+        log.warn("[feign.call.failed] client={} error={} durationMs={}", configKey, ioe.getMessage(), elapsedTime);
+        return ioe;
+    }
+
+    @Override
+    protected void log(String configKey, String format, Object... args) {
+    }
+}
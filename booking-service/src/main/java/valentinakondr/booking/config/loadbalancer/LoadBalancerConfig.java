@@ -0,0 +1,11 @@
+package valentinakondr.booking.config.loadbalancer;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+import valentinakondr.loadbalancer.PeakEwmaLoadBalancerConfiguration;
+
+// Feign-клиент hotel-service выбирает экземпляр по задержке вместо round-robin
+@Configuration
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
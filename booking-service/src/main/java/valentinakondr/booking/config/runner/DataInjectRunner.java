@@ -11,10 +11,12 @@ import valentinakondr.booking.domain.booking.Booking;
 import valentinakondr.booking.domain.booking.BookingStatus;
 import valentinakondr.booking.repo.BookingRepository;
 import valentinakondr.booking.repo.UserRepository;
+import valentinakondr.booking.service.availability.RoomAvailabilityIndex;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Component
 @Profile("!test")
@@ -25,6 +27,7 @@ public class DataInjectRunner implements CommandLineRunner {
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final PasswordEncoder passwordEncoder;
+    private final RoomAvailabilityIndex availabilityIndex;
 
     @Override
     public void run(String... args) {
@@ -155,6 +158,11 @@ public class DataInjectRunner implements CommandLineRunner {
         bookingRepository.save(booking4);
         bookingRepository.save(booking5);
 
+        // индекс занятости загружен до запуска раннера, записанные мимо сервиса брони добавляем в него сами
+        Stream.of(booking1, booking2, booking3, booking4, booking5)
+                .filter(booking -> booking.getStatus() != BookingStatus.CANCELLED)
+                .forEach(availabilityIndex::tryReserve);
+
         log.info("[data.inject.bookings] created bookings: {}",
                 bookingRepository.count());
 
@@ -0,0 +1,13 @@
+package valentinakondr.booking.config.security;
+
+import java.security.Principal;
+import java.util.UUID;
+
+// id берётся из claim "uid"; для токенов, выпущенных до его появления, id == null
+public record AuthenticatedUser(UUID id, String username) implements Principal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -0,0 +1,17 @@
+package valentinakondr.booking.config.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import valentinakondr.identity.IdentityHeaders;
+
+// заголовки личности, подписанные api-gateway; секрет приходит только из окружения (AUTH_IDENTITY_SECRET)
+@Configuration
+public class IdentityConfig {
+
+    @Bean
+    public IdentityHeaders identityHeaders(@Value("${auth.identity.enabled}") boolean enabled,
+                                           @Value("${auth.identity.secret:}") String secret) {
+        return new IdentityHeaders(enabled, secret);
+    }
+}
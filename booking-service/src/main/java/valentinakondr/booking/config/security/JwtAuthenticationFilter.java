@@ -1,49 +1,75 @@
 package valentinakondr.booking.config.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import valentinakondr.identity.IdentityHeaders;
+import valentinakondr.identity.VerifiedTokenCache;
 
-import javax.crypto.SecretKey;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
+import java.util.UUID;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private final IdentityHeaders identityHeaders;
+    private final JwtParser parser;
+    // проверенные claims по SHA-256 токена, не дольше exp токена
+    private final VerifiedTokenCache<VerifiedToken> verified;
+
+    public JwtAuthenticationFilter(IdentityHeaders identityHeaders,
+                                   @Value("${jwt.secret}") String secret,
+                                   @Value("${jwt.cache-size}") long cacheSize) {
+        this.identityHeaders = identityHeaders;
+        this.parser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                .build();
+        this.verified = new VerifiedTokenCache<>(cacheSize, VerifiedToken::expiresAt);
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        
+
+        // запрос пришёл через api-gateway: JWT там уже проверен
+        IdentityHeaders.Identity identity = identityHeaders.verify(request::getHeader);
+        if (identity != null) {
+            AuthenticatedUser user = new AuthenticatedUser(
+                    identity.userId() != null ? UUID.fromString(identity.userId()) : null,
+                    identity.username()
+            );
+            UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
+                    user, null, List.of(new SimpleGrantedAuthority("ROLE_" + identity.role()))
+            );
+            SecurityContextHolder.getContext().setAuthentication(auth);
+            filterChain.doFilter(request, response);
+            return;
+        }
+
         String header = request.getHeader("Authorization");
-        
+
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
             try {
-
-                SecretKey key = Keys.hmacShaKeyFor(token.getBytes());
-                Claims claims =  Jwts.parser()
-                        .verifyWith(key)
-                        .build()
-                        .parseSignedClaims(token)
-                        .getPayload();
-                String username = claims.getSubject();
-                String role = claims.get("role", String.class);
-
-                if (username != null) {
+                VerifiedToken jwt = verified.get(token, this::parse);
+                if (jwt.principal() != null) {
                     UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                            username, null, List.of(new SimpleGrantedAuthority("ROLE_" + role))
+                            jwt.principal(), null, jwt.authorities()
                     );
                     SecurityContextHolder.getContext().setAuthentication(auth);
                 }
@@ -51,9 +77,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 logger.error("JWT validation error", e);
             }
         }
-        
+
         filterChain.doFilter(request, response);
     }
-}
 
+    private VerifiedToken parse(String token) {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        String username = claims.getSubject();
+        String role = claims.get("role", String.class);
+        String userId = claims.get("uid", String.class);
 
+        AuthenticatedUser principal = username != null
+                ? new AuthenticatedUser(userId != null ? UUID.fromString(userId) : null, username)
+                : null;
+        // без exp запись не кэшируется: срок её жизни привязан к сроку токена
+        Instant expiresAt = claims.getExpiration() != null ? claims.getExpiration().toInstant() : null;
+        return new VerifiedToken(principal, List.of(new SimpleGrantedAuthority("ROLE_" + role)), expiresAt);
+    }
+
+    private record VerifiedToken(AuthenticatedUser principal, List<GrantedAuthority> authorities, Instant expiresAt) {
+    }
+}
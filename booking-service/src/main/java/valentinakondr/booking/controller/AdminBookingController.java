@@ -0,0 +1,65 @@
+package valentinakondr.booking.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import valentinakondr.booking.dto.BookingDto;
+import valentinakondr.booking.dto.BookingRollupDto;
+import valentinakondr.booking.service.BookingService;
+import valentinakondr.booking.service.export.ExportFormat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/admin/bookings")
+@RequiredArgsConstructor
+public class AdminBookingController {
+    private final BookingService bookingService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<BookingDto> getHotelBookings(
+            Authentication authentication,
+            @RequestParam(value = "hotelId", required = false) UUID hotelId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        return bookingService.findByHotel(authentication, hotelId, from, to, limit);
+    }
+
+    @GetMapping("/rollup")
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<BookingRollupDto> getRollup(
+            Authentication authentication,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return bookingService.rollup(authentication, from, to);
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            Authentication authentication,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "format", required = false) String format
+    ) {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        StreamingResponseBody body = bookingService.export(authentication, from, to, exportFormat);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"bookings-" + from + "-" + to + "." + exportFormat.extension() + "\"")
+                .body(body);
+    }
+}
@@ -1,14 +1,21 @@
 package valentinakondr.booking.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import valentinakondr.booking.dto.BookingDto;
+import valentinakondr.booking.dto.BookingFilterDto;
+import valentinakondr.booking.dto.BookingPageDto;
 import valentinakondr.booking.dto.CreateBookingRequestDto;
+import valentinakondr.booking.dto.CreateGroupBookingRequestDto;
+import valentinakondr.booking.dto.GroupBookingDto;
 import valentinakondr.booking.service.BookingService;
 
-import java.util.List;
+import java.time.LocalDate;
 import java.util.UUID;
 
 @RestController
@@ -25,9 +32,29 @@ public class BookingController {
         return bookingService.create(authentication, request);
     }
 
+    @PostMapping("/bookings/group")
+    @ResponseStatus(HttpStatus.CREATED)
+    public GroupBookingDto createGroupBooking(
+            Authentication authentication,
+            @RequestBody CreateGroupBookingRequestDto request) {
+        return bookingService.createGroup(authentication, request);
+    }
+
     @GetMapping("/bookings")
-    public List<BookingDto> getUserBookings(Authentication authentication) {
-        return bookingService.findAll(authentication);
+    public BookingPageDto getUserBookings(
+            Authentication authentication,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return bookingService.findAll(authentication, new BookingFilterDto(limit, after, status, from, to));
+    }
+
+    @GetMapping(value = "/bookings/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBookings(Authentication authentication) {
+        return bookingService.stream(authentication);
     }
 
     @GetMapping("/booking/{id}")
@@ -6,10 +6,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import valentinakondr.booking.dto.AuthDto;
+import valentinakondr.booking.dto.BulkUserResultDto;
+import valentinakondr.booking.dto.RefreshRequestDto;
 import valentinakondr.booking.dto.TokenDto;
 import valentinakondr.booking.dto.UserDto;
 import valentinakondr.booking.service.UserService;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -29,12 +32,23 @@ public class UserController {
         return userService.login(request);
     }
 
+    @PostMapping("/refresh")
+    public TokenDto refresh(@RequestBody RefreshRequestDto request) {
+        return userService.refresh(request);
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public UserDto createUser(@RequestBody UserDto userDto) {
         return userService.createUser(userDto);
     }
 
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public BulkUserResultDto createUsers(@RequestBody List<UserDto> users) {
+        return userService.createUsers(users);
+    }
+
     @PatchMapping
     @PreAuthorize("hasRole('ADMIN')")
     public UserDto updateUser(@RequestBody UserDto userDto) {
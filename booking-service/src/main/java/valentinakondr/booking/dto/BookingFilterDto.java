@@ -0,0 +1,12 @@
+package valentinakondr.booking.dto;
+
+import java.time.LocalDate;
+
+public record BookingFilterDto(
+        Integer limit,
+        String after,
+        String status,
+        LocalDate from,
+        LocalDate to
+) {
+}
@@ -0,0 +1,9 @@
+package valentinakondr.booking.dto;
+
+import java.util.List;
+
+public record BookingPageDto(
+        List<BookingDto> items,
+        String nextCursor
+) {
+}
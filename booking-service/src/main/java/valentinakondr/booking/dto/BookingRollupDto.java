@@ -0,0 +1,14 @@
+package valentinakondr.booking.dto;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public record BookingRollupDto(
+        LocalDate day,
+        UUID roomId,
+        long created,
+        long confirmed,
+        long cancelled,
+        long roomNights
+) {
+}
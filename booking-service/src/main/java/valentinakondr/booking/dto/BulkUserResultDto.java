@@ -0,0 +1,9 @@
+package valentinakondr.booking.dto;
+
+import java.util.List;
+
+public record BulkUserResultDto(
+        int created,
+        List<String> skipped
+) {
+}
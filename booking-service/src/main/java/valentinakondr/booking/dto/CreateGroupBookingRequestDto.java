@@ -0,0 +1,8 @@
+package valentinakondr.booking.dto;
+
+import java.util.List;
+
+public record CreateGroupBookingRequestDto(
+        List<CreateBookingRequestDto> bookings
+) {
+}
@@ -0,0 +1,9 @@
+package valentinakondr.booking.dto;
+
+import java.util.List;
+
+public record GroupBookingDto(
+        String status,
+        List<BookingDto> bookings
+) {
+}
@@ -0,0 +1,6 @@
+package valentinakondr.booking.dto;
+
+public record RefreshRequestDto(
+        String refreshToken
+) {
+}
@@ -1,6 +1,10 @@
 package valentinakondr.booking.dto;
 
 public record TokenDto(
-        String token
+        String token,
+        String refreshToken
 ) {
+    public TokenDto(String token) {
+        this(token, null);
+    }
 }
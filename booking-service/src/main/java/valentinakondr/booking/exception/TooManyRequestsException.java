@@ -0,0 +1,7 @@
+package valentinakondr.booking.exception;
+
+public class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
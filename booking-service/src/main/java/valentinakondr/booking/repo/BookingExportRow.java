@@ -0,0 +1,25 @@
+package valentinakondr.booking.repo;
+
+import valentinakondr.booking.domain.booking.BookingStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface BookingExportRow {
+    UUID getId();
+
+    UUID getUserId();
+
+    String getUsername();
+
+    UUID getRoomId();
+
+    LocalDate getStartDate();
+
+    LocalDate getEndDate();
+
+    BookingStatus getStatus();
+
+    LocalDateTime getCreatedAt();
+}
@@ -1,15 +1,60 @@
 package valentinakondr.booking.repo;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import valentinakondr.booking.domain.User;
 import valentinakondr.booking.domain.booking.Booking;
+import valentinakondr.booking.domain.booking.BookingStatus;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, UUID> {
-    List<Booking> findByUserOrderByCreatedAtDesc(User user);
-}
 
+    Optional<Booking> findByIdAndUserId(UUID id, UUID userId);
+
+    // курсор только вперёд: строки читаются порциями по fetch size и сразу пишутся в ответ
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT b.id AS id, u.id AS userId, u.username AS username, b.roomId AS roomId,
+                   b.startDate AS startDate, b.endDate AS endDate, b.status AS status, b.createdAt AS createdAt
+            FROM Booking b JOIN b.user u
+            WHERE b.createdAt >= :from AND b.createdAt < :to
+            ORDER BY b.createdAt, b.id
+            """)
+    Stream<BookingExportRow> streamCreatedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // кандидаты в архив: прошедшие по дате выезда и давно отменённые
+    @Query("""
+            SELECT b.id AS id, u.id AS userId, u.username AS username, b.roomId AS roomId,
+                   b.startDate AS startDate, b.endDate AS endDate, b.status AS status, b.createdAt AS createdAt
+            FROM Booking b JOIN b.user u
+            WHERE b.endDate < :endDate
+            """)
+    List<BookingExportRow> findArchivableByEndDate(@Param("endDate") LocalDate endDate, Limit limit);
+
+    @Query("""
+            SELECT b.id AS id, u.id AS userId, u.username AS username, b.roomId AS roomId,
+                   b.startDate AS startDate, b.endDate AS endDate, b.status AS status, b.createdAt AS createdAt
+            FROM Booking b JOIN b.user u
+            WHERE b.status = :status AND b.createdAt < :createdAt
+            """)
+    List<BookingExportRow> findArchivableByStatus(@Param("status") BookingStatus status,
+                                                  @Param("createdAt") LocalDateTime createdAt,
+                                                  Limit limit);
+
+    List<BookingSlot> findByStatusNotAndEndDateGreaterThanEqual(BookingStatus status, LocalDate endDate);
+}
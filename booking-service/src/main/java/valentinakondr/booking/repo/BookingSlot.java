@@ -0,0 +1,16 @@
+package valentinakondr.booking.repo;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public interface BookingSlot {
+    UUID getId();
+
+    UUID getRequestId();
+
+    UUID getRoomId();
+
+    LocalDate getStartDate();
+
+    LocalDate getEndDate();
+}
@@ -0,0 +1,79 @@
+package valentinakondr.booking.repo;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import valentinakondr.booking.domain.booking.BookingStatus;
+import valentinakondr.booking.domain.booking.BookingView;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface BookingViewRepository extends JpaRepository<BookingView, UUID> {
+
+    @Query("""
+            SELECT v FROM BookingView v
+            WHERE v.userId = :userId
+              AND (:status IS NULL OR v.status = :status)
+              AND (:from IS NULL OR v.endDate >= :from)
+              AND (:to IS NULL OR v.startDate <= :to)
+            ORDER BY v.createdAt DESC, v.id DESC
+            """)
+    List<BookingView> findFirstPage(@Param("userId") UUID userId,
+                                    @Param("status") BookingStatus status,
+                                    @Param("from") LocalDate from,
+                                    @Param("to") LocalDate to,
+                                    Limit limit);
+
+    @Query("""
+            SELECT v FROM BookingView v
+            WHERE v.userId = :userId
+              AND (v.createdAt < :createdAt OR (v.createdAt = :createdAt AND v.id < :id))
+              AND (:status IS NULL OR v.status = :status)
+              AND (:from IS NULL OR v.endDate >= :from)
+              AND (:to IS NULL OR v.startDate <= :to)
+            ORDER BY v.createdAt DESC, v.id DESC
+            """)
+    List<BookingView> findPageAfter(@Param("userId") UUID userId,
+                                    @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") UUID id,
+                                    @Param("status") BookingStatus status,
+                                    @Param("from") LocalDate from,
+                                    @Param("to") LocalDate to,
+                                    Limit limit);
+
+    Optional<BookingView> findByIdAndUserId(UUID id, UUID userId);
+
+    @Query("""
+            SELECT v FROM BookingView v
+            WHERE v.hotelId = :hotelId
+              AND v.startDate <= :to
+              AND v.endDate >= :from
+            ORDER BY v.startDate, v.id
+            """)
+    List<BookingView> findByHotel(@Param("hotelId") UUID hotelId,
+                                  @Param("from") LocalDate from,
+                                  @Param("to") LocalDate to,
+                                  Limit limit);
+
+    @Query("SELECT DISTINCT v.roomId FROM BookingView v WHERE v.hotelId IS NULL")
+    List<UUID> findRoomIdsWithoutHotel();
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE BookingView v SET v.hotelId = :hotelId WHERE v.roomId = :roomId AND v.hotelId IS NULL")
+    int assignHotel(@Param("roomId") UUID roomId, @Param("hotelId") UUID hotelId);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE BookingView v SET v.username = :username WHERE v.userId = :userId")
+    int renameUser(@Param("userId") UUID userId, @Param("username") String username);
+}
@@ -1,20 +1,31 @@
 package valentinakondr.booking.service;
 
 import org.springframework.security.core.Authentication;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import valentinakondr.booking.domain.booking.Booking;
+import valentinakondr.booking.domain.booking.BookingView;
 import valentinakondr.booking.dto.BookingDto;
+import valentinakondr.booking.dto.BookingFilterDto;
+import valentinakondr.booking.dto.BookingPageDto;
+import valentinakondr.booking.dto.BookingRollupDto;
 import valentinakondr.booking.dto.CreateBookingRequestDto;
+import valentinakondr.booking.dto.CreateGroupBookingRequestDto;
+import valentinakondr.booking.dto.GroupBookingDto;
+import valentinakondr.booking.service.export.ExportFormat;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
 public interface BookingService {
 
-    default BookingDto toDto(Booking booking) {
+    // бронирования отдаются только владельцу, поэтому username берём из аутентификации, не поднимая User
+    default BookingDto toDto(Booking booking, String username) {
         return new BookingDto(
                 booking.getId(),
                 booking.getUser().getId(),
-                booking.getUser().getUsername(),
+                username,
                 booking.getRoomId(),
                 booking.getStartDate(),
                 booking.getEndDate(),
@@ -23,11 +34,34 @@ public interface BookingService {
         );
     }
 
+    default BookingDto toDto(BookingView view) {
+        return new BookingDto(
+                view.getId(),
+                view.getUserId(),
+                view.getUsername(),
+                view.getRoomId(),
+                view.getStartDate(),
+                view.getEndDate(),
+                view.getStatus().name(),
+                view.getCreatedAt()
+        );
+    }
+
     BookingDto create(Authentication authentication, CreateBookingRequestDto bookingDto);
 
-    List<BookingDto> findAll(Authentication authentication);
+    GroupBookingDto createGroup(Authentication authentication, CreateGroupBookingRequestDto groupDto);
+
+    BookingPageDto findAll(Authentication authentication, BookingFilterDto filter);
 
     BookingDto findById(Authentication authentication, UUID id);
 
+    List<BookingDto> findByHotel(Authentication authentication, UUID hotelId, LocalDate from, LocalDate to, Integer limit);
+
+    List<BookingRollupDto> rollup(Authentication authentication, LocalDate from, LocalDate to);
+
+    StreamingResponseBody export(Authentication authentication, LocalDate from, LocalDate to, ExportFormat format);
+
     void cancel(Authentication authentication, UUID id);
+
+    SseEmitter stream(Authentication authentication);
 }
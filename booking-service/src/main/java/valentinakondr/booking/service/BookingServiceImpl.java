@@ -3,28 +3,61 @@ package valentinakondr.booking.service;
 import feign.FeignException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import valentinakondr.booking.client.AvailabilityRequestDto;
 import valentinakondr.booking.client.HotelClient;
 import valentinakondr.booking.client.RoomDto;
 import valentinakondr.booking.domain.User;
 import valentinakondr.booking.domain.booking.Booking;
 import valentinakondr.booking.domain.booking.BookingStatus;
+import valentinakondr.booking.domain.booking.BookingView;
 import valentinakondr.booking.dto.BookingDto;
+import valentinakondr.booking.dto.BookingFilterDto;
+import valentinakondr.booking.dto.BookingPageDto;
+import valentinakondr.booking.dto.BookingRollupDto;
 import valentinakondr.booking.dto.CreateBookingRequestDto;
+import valentinakondr.booking.dto.CreateGroupBookingRequestDto;
+import valentinakondr.booking.dto.GroupBookingDto;
 import valentinakondr.booking.exception.InvalidRequestException;
+import valentinakondr.booking.exception.ResourceAlreadyExistsException;
 import valentinakondr.booking.exception.ResourceNotFoundException;
 import valentinakondr.booking.repo.BookingRepository;
+import valentinakondr.booking.repo.BookingViewRepository;
 import valentinakondr.booking.repo.UserRepository;
+import valentinakondr.booking.service.archive.BookingArchive;
+import valentinakondr.booking.service.availability.RoomAvailabilityIndex;
+import valentinakondr.booking.service.export.BookingExporter;
+import valentinakondr.booking.service.export.ExportFormat;
+import valentinakondr.booking.service.rollup.BookingRollup;
+import valentinakondr.booking.service.stream.BookingEventBus;
+import valentinakondr.booking.service.view.BookingEvent;
+import valentinakondr.booking.service.view.BookingViewProjector;
+import valentinakondr.booking.service.view.RoomHotelDirectory;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -34,6 +67,32 @@ public class BookingServiceImpl implements BookingService {
     private final HotelClient hotel;
     private final UserRepository userRepo;
     private final BookingRepository bookingRepo;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final UserIdResolver userIdResolver;
+    private final BookingViewRepository viewRepo;
+    private final BookingViewProjector viewProjector;
+    private final RoomHotelDirectory roomHotels;
+    private final ApplicationEventPublisher events;
+    private final BookingEventBus eventBus;
+    private final BookingArchive archive;
+    private final BookingExporter exporter;
+    private final BookingRollup rollup;
+
+    @Autowired
+    @Qualifier("groupBookingExecutor")
+    private Executor groupBookingExecutor;
+
+    @Value("${booking.group.max-rooms}")
+    private int groupMaxRooms;
+
+    @Value("${booking.page.default-limit}")
+    private int pageDefaultLimit;
+
+    @Value("${booking.page.max-limit}")
+    private int pageMaxLimit;
+
+    @Value("${booking.export.max-days}")
+    private int exportMaxDays;
 
     @Override
     public BookingDto create(Authentication authentication, CreateBookingRequestDto bookingDto) {
@@ -53,16 +112,12 @@ public class BookingServiceImpl implements BookingService {
         }
 
         String username = authentication.getName();
-        User user = userRepo.findByUsername(username)
-                .orElseThrow(() -> {
-                    log.warn("[booking.create.fail] reason=user_not_found user={}", username);
-                    return new ResourceNotFoundException("User not found");
-                });
+        UUID userId = userIdResolver.resolve(authentication);
 
         UUID roomId = bookingDto.roomId();
         if (bookingDto.autoSelect()) {
             log.debug("[booking.create] user={} autoSelect=true", username);
-            roomId = autoSelect();
+            roomId = autoSelect(bookingDto.startDate(), bookingDto.endDate());
         }
 
         if (roomId == null) {
@@ -70,7 +125,25 @@ public class BookingServiceImpl implements BookingService {
             throw new ResourceNotFoundException("No available rooms");
         }
 
-        Booking createdBooking = bookingRepo.save(newBooking(user, bookingDto.startDate(), bookingDto.endDate(), roomId));
+        Booking newBooking = newBooking(userRepo.getReferenceById(userId), bookingDto.startDate(), bookingDto.endDate(), roomId);
+        if (!availabilityIndex.tryReserve(newBooking)) {
+            log.info("[booking.create.fail] user={} roomId={} reason=room_conflict startDate={} endDate={}",
+                    username, roomId, bookingDto.startDate(), bookingDto.endDate());
+            throw new ResourceAlreadyExistsException("Room is already booked for the selected dates");
+        }
+
+        Booking createdBooking;
+        try {
+            createdBooking = bookingRepo.save(newBooking);
+        } catch (DataIntegrityViolationException e) {
+            availabilityIndex.release(newBooking);
+            throw userGone("booking.create.fail", username, userId);
+        } catch (RuntimeException e) {
+            availabilityIndex.release(newBooking);
+            throw e;
+        }
+
+        publish(createdBooking, username, null);
 
         log.info("[booking.create.success] bookingId={} requestId={} user={} roomId={} status={}",
                 createdBooking.getId(), createdBooking.getRequestId(), username, createdBooking.getRoomId(), createdBooking.getStatus());
@@ -80,6 +153,7 @@ public class BookingServiceImpl implements BookingService {
 
             createdBooking.setStatus(BookingStatus.CONFIRMED);
             bookingRepo.save(createdBooking);
+            publish(createdBooking, username, BookingStatus.PENDING);
 
             log.info("[booking.confirm.success] bookingId={} requestId={} user={} roomId={}",
                     createdBooking.getId(), createdBooking.getRequestId(), username, createdBooking.getRoomId());
@@ -92,67 +166,184 @@ public class BookingServiceImpl implements BookingService {
 
             createdBooking.setStatus(BookingStatus.CANCELLED);
             bookingRepo.save(createdBooking);
+            availabilityIndex.release(createdBooking);
+            publish(createdBooking, username, BookingStatus.PENDING);
 
             log.info("[booking.cancel.auto] bookingId={} requestId={} user={} reason=confirm_failed",
                     createdBooking.getId(), createdBooking.getRequestId(), username);
         }
 
-        return this.toDto(createdBooking);
+        return toDto(createdBooking, username);
     }
 
     @Override
-    public List<BookingDto> findAll(Authentication authentication) {
+    public GroupBookingDto createGroup(Authentication authentication, CreateGroupBookingRequestDto groupDto) {
         String username = authentication.getName();
-        User user = userRepo.findByUsername(username)
-                .orElseThrow(() -> {
-                    log.warn("[booking.list.fail] reason=user_not_found user={}", username);
-                    return new ResourceNotFoundException("User not found");
-                });
+        validateGroup(username, groupDto);
 
-        log.debug("[booking.list] user={} sort=createdAt_desc", username);
+        User user = userRepo.getReferenceById(userIdResolver.resolve(authentication));
 
-        return bookingRepo.findByUserOrderByCreatedAtDesc(user).stream()
-                .map(this::toDto)
+        List<Booking> pending = groupDto.bookings().stream()
+                .map(item -> newBooking(user, item.startDate(), item.endDate(), item.roomId()))
                 .toList();
+        reserveGroup(username, pending);
+
+        List<Booking> bookings;
+        try {
+            bookings = bookingRepo.saveAll(pending);
+        } catch (DataIntegrityViolationException e) {
+            pending.forEach(availabilityIndex::release);
+            throw userGone("booking.group.fail", username, user.getId());
+        } catch (RuntimeException e) {
+            pending.forEach(availabilityIndex::release);
+            throw e;
+        }
+
+        bookings.forEach(booking -> publish(booking, username, null));
+
+        log.info("[booking.group.start] user={} size={}", username, bookings.size());
+
+        // дожидаемся всех подтверждений, иначе компенсация может обогнать ещё не завершённый confirm
+        List<Boolean> confirmed = bookings.stream()
+                .map(booking -> submit(() -> tryConfirm(booking, username)))
+                .toList()
+                .stream()
+                .map(CompletableFuture::join)
+                .toList();
+
+        if (!confirmed.contains(false)) {
+            bookings.forEach(booking -> booking.setStatus(BookingStatus.CONFIRMED));
+            bookingRepo.saveAll(bookings);
+            bookings.forEach(booking -> publish(booking, username, BookingStatus.PENDING));
+
+            log.info("[booking.group.success] user={} size={}", username, bookings.size());
+            return new GroupBookingDto(BookingStatus.CONFIRMED.name(), bookings.stream().map(booking -> toDto(booking, username)).toList());
+        }
+
+        // Освобождаем все номера группы: release идемпотентен по requestId, а подтверждение,
+        // упавшее по таймауту, могло успеть пройти на стороне hotel-service
+        List<CompletableFuture<Void>> releases = bookings.stream()
+                .map(this::submitRelease)
+                .toList();
+        releases.forEach(CompletableFuture::join);
+
+        bookings.forEach(booking -> booking.setStatus(BookingStatus.CANCELLED));
+        bookingRepo.saveAll(bookings);
+        bookings.forEach(availabilityIndex::release);
+        bookings.forEach(booking -> publish(booking, username, BookingStatus.PENDING));
+
+        log.info("[booking.group.cancel.auto] user={} size={} confirmed={} reason=confirm_failed",
+                username, bookings.size(), confirmed.stream().filter(Boolean::booleanValue).count());
+
+        return new GroupBookingDto(BookingStatus.CANCELLED.name(), bookings.stream().map(booking -> toDto(booking, username)).toList());
+    }
+
+    @Override
+    public BookingPageDto findAll(Authentication authentication, BookingFilterDto filter) {
+        String username = authentication.getName();
+        UUID userId = userIdResolver.resolve(authentication);
+
+        int limit = resolveLimit(username, filter.limit());
+        BookingStatus status = parseStatus(username, filter.status());
+        if (filter.from() != null && filter.to() != null && filter.from().isAfter(filter.to())) {
+            log.warn("[booking.list.fail] reason=from_after_to user={} from={} to={}", username, filter.from(), filter.to());
+            throw new InvalidRequestException("From date must be before to date");
+        }
+
+        log.debug("[booking.list] user={} limit={} after={} status={} from={} to={}",
+                username, limit, filter.after(), status, filter.from(), filter.to());
+
+        // запрашиваем на одну запись больше, чтобы понять, есть ли следующая страница
+        Limit fetch = Limit.of(limit + 1);
+        BookingCursor cursor = null;
+        List<BookingView> hot;
+        if (filter.after() == null || filter.after().isBlank()) {
+            hot = viewRepo.findFirstPage(userId, status, filter.from(), filter.to(), fetch);
+        } else {
+            cursor = BookingCursor.decode(filter.after());
+            hot = viewRepo.findPageAfter(userId, cursor.createdAt(), cursor.id(),
+                    status, filter.from(), filter.to(), fetch);
+        }
+
+        // архивные строки не обязательно старше горячих (давняя бронь на будущее vs прошедшая), поэтому сливаем по порядку
+        List<BookingView> cold = archive.findPage(userId, status, filter.from(), filter.to(), cursor, limit + 1);
+        List<BookingView> bookings = hot;
+        if (!cold.isEmpty()) {
+            Set<UUID> hotIds = new HashSet<>();
+            hot.forEach(view -> hotIds.add(view.getId()));
+            bookings = Stream.concat(hot.stream(), cold.stream().filter(view -> !hotIds.contains(view.getId())))
+                    .sorted(BookingArchive.NEWEST_FIRST)
+                    .limit(limit + 1)
+                    .toList();
+        }
+
+        String nextCursor = null;
+        if (bookings.size() > limit) {
+            bookings = bookings.subList(0, limit);
+            BookingView last = bookings.get(limit - 1);
+            nextCursor = new BookingCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return new BookingPageDto(bookings.stream().map(this::toDto).toList(), nextCursor);
     }
 
     @Override
     public BookingDto findById(Authentication authentication, UUID id) {
         String username = authentication.getName();
 
-        Booking booking = bookingRepo.findById(id)
+        UUID userId = userIdResolver.resolve(authentication);
+        BookingView booking = viewRepo.findByIdAndUserId(id, userId)
+                .or(() -> archive.find(userId, id))
                 .orElseThrow(() -> {
-                    log.info("[booking.get.fail] bookingId={} user={} reason=not_found", id, username);
-                    return new RuntimeException("Booking not found");
+                    if (!viewRepo.existsById(id) && archive.findOwner(id).isEmpty()) {
+                        log.info("[booking.get.fail] bookingId={} user={} reason=not_found", id, username);
+                        return new ResourceNotFoundException("Booking not found");
+                    }
+                    log.warn("[booking.get.fail] bookingId={} user={} reason=access_denied", id, username);
+                    return new AccessDeniedException("Access denied");
                 });
 
-        if (!booking.getUser().getUsername().equals(username)) {
-            log.warn("[booking.get.fail] bookingId={} user={} reason=access_denied owner={}",
-                    id, username, booking.getUser().getUsername());
-            throw new RuntimeException("Access denied");
-        }
-
         log.debug("[booking.get] bookingId={} user={} status={}", id, username, booking.getStatus());
 
         return toDto(booking);
     }
 
+    @Override
+    public List<BookingDto> findByHotel(Authentication authentication, UUID hotelId, LocalDate from, LocalDate to, Integer limit) {
+        if (hotelId == null || from == null || to == null) {
+            log.warn("[booking.hotel.list.fail] reason=missing_params hotelId={} from={} to={}", hotelId, from, to);
+            throw new InvalidRequestException("hotelId, from and to are required");
+        }
+        if (from.isAfter(to)) {
+            log.warn("[booking.hotel.list.fail] reason=from_after_to hotelId={} from={} to={}", hotelId, from, to);
+            throw new InvalidRequestException("From date must be before to date");
+        }
+        int resolvedLimit = resolveLimit(authentication.getName(), limit);
+
+        viewProjector.assignMissingHotels();
+
+        List<BookingView> bookings = viewRepo.findByHotel(hotelId, from, to, Limit.of(resolvedLimit));
+
+        log.debug("[booking.hotel.list] hotelId={} from={} to={} size={}", hotelId, from, to, bookings.size());
+
+        return bookings.stream().map(this::toDto).toList();
+    }
+
     @Override
     public void cancel(Authentication authentication, UUID id) {
         String username = authentication.getName();
 
-        Booking booking = bookingRepo.findById(id)
+        // владение проверяется тем же запросом по (id, user_id); existsById только на промахе, чтобы отличить 404 от 403
+        Booking booking = bookingRepo.findByIdAndUserId(id, userIdResolver.resolve(authentication))
                 .orElseThrow(() -> {
-                    log.info("[booking.cancel.fail] bookingId={} user={} reason=not_found", id, username);
-                    return new ResourceNotFoundException("Booking not found");
+                    if (!bookingRepo.existsById(id)) {
+                        log.info("[booking.cancel.fail] bookingId={} user={} reason=not_found", id, username);
+                        return new ResourceNotFoundException("Booking not found");
+                    }
+                    log.warn("[booking.cancel.fail] bookingId={} user={} reason=access_denied", id, username);
+                    return new AccessDeniedException("Access denied");
                 });
 
-        if (!booking.getUser().getUsername().equals(username)) {
-            log.warn("[booking.cancel.fail] bookingId={} user={} reason=access_denied owner={}",
-                    id, username, booking.getUser().getUsername());
-            throw new AccessDeniedException("Access denied");
-        }
-
         if (booking.getStatus() != BookingStatus.CONFIRMED) {
             log.warn("[booking.cancel.fail] bookingId={} user={} reason=invalid_status status={}",
                     id, username, booking.getStatus());
@@ -161,6 +352,8 @@ public class BookingServiceImpl implements BookingService {
 
         booking.setStatus(BookingStatus.CANCELLED);
         bookingRepo.save(booking);
+        availabilityIndex.release(booking);
+        publish(booking, username, BookingStatus.CONFIRMED);
 
         releaseRoom(booking);
 
@@ -168,6 +361,50 @@ public class BookingServiceImpl implements BookingService {
                 booking.getId(), booking.getRequestId(), username, booking.getRoomId());
     }
 
+    @Override
+    public List<BookingRollupDto> rollup(Authentication authentication, LocalDate from, LocalDate to) {
+        String username = authentication.getName();
+        if (from == null || to == null) {
+            log.warn("[booking.rollup.fail] reason=missing_dates user={} from={} to={}", username, from, to);
+            throw new InvalidRequestException("from and to are required");
+        }
+        if (from.isAfter(to)) {
+            log.warn("[booking.rollup.fail] reason=from_after_to user={} from={} to={}", username, from, to);
+            throw new InvalidRequestException("From date must be before to date");
+        }
+
+        List<BookingRollupDto> rows = rollup.read(from, to);
+        log.debug("[booking.rollup] user={} from={} to={} rows={}", username, from, to, rows.size());
+        return rows;
+    }
+
+    @Override
+    public StreamingResponseBody export(Authentication authentication, LocalDate from, LocalDate to, ExportFormat format) {
+        String username = authentication.getName();
+        if (from == null || to == null) {
+            log.warn("[booking.export.fail] reason=missing_dates user={} from={} to={}", username, from, to);
+            throw new InvalidRequestException("from and to are required");
+        }
+        if (from.isAfter(to)) {
+            log.warn("[booking.export.fail] reason=from_after_to user={} from={} to={}", username, from, to);
+            throw new InvalidRequestException("From date must be before to date");
+        }
+        if (from.plusDays(exportMaxDays).isBefore(to)) {
+            log.warn("[booking.export.fail] reason=range_too_long user={} from={} to={}", username, from, to);
+            throw new InvalidRequestException("Export range must not exceed " + exportMaxDays + " days");
+        }
+
+        log.info("[booking.export.start] user={} from={} to={} format={}", username, from, to, format);
+        return out -> exporter.export(from, to, format, out);
+    }
+
+    @Override
+    public SseEmitter stream(Authentication authentication) {
+        UUID userId = userIdResolver.resolve(authentication);
+        log.info("[booking.stream.open] user={} userId={}", authentication.getName(), userId);
+        return eventBus.subscribe(userId);
+    }
+
     @Retryable(
             retryFor = {FeignException.class, Exception.class},
             maxAttempts = 3,
@@ -190,6 +427,118 @@ public class BookingServiceImpl implements BookingService {
                 booking.getId(), booking.getRequestId(), booking.getRoomId());
     }
 
+    private void publish(Booking booking, String username, BookingStatus previousStatus) {
+        events.publishEvent(BookingEvent.of(booking, username, previousStatus));
+    }
+
+    // токен пережил удалённого пользователя: внешний ключ на users не дал сохранить бронирование
+    private ResourceNotFoundException userGone(String event, String username, UUID userId) {
+        log.warn("[{}] reason=user_not_found user={} userId={}", event, username, userId);
+        userIdResolver.evict(username);
+        return new ResourceNotFoundException("User not found");
+    }
+
+    private boolean tryConfirm(Booking booking, String username) {
+        try {
+            confirm(booking);
+            return true;
+        } catch (Exception e) {
+            log.error("[booking.confirm.fail] bookingId={} requestId={} user={} roomId={} error={}",
+                    booking.getId(), booking.getRequestId(), username, booking.getRoomId(), e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private CompletableFuture<Boolean> submit(Supplier<Boolean> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, groupBookingExecutor);
+        } catch (RejectedExecutionException e) {
+            log.warn("[booking.group.rejected] reason=executor_saturated");
+            return CompletableFuture.completedFuture(false);
+        }
+    }
+
+    // компенсацию терять нельзя: если пул переполнен, release выполняется на вызывающем потоке
+    private CompletableFuture<Void> submitRelease(Booking booking) {
+        try {
+            return CompletableFuture.runAsync(() -> releaseRoom(booking), groupBookingExecutor);
+        } catch (RejectedExecutionException e) {
+            log.warn("[booking.group.rejected] reason=executor_saturated action=release_inline bookingId={}", booking.getId());
+            releaseRoom(booking);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private void validateGroup(String username, CreateGroupBookingRequestDto groupDto) {
+        if (groupDto == null || groupDto.bookings() == null || groupDto.bookings().isEmpty()) {
+            log.warn("[booking.group.fail] reason=empty_request user={}", username);
+            throw new InvalidRequestException("Group booking must contain at least one room");
+        }
+        if (groupDto.bookings().size() > groupMaxRooms) {
+            log.warn("[booking.group.fail] reason=too_many_rooms user={} size={} max={}",
+                    username, groupDto.bookings().size(), groupMaxRooms);
+            throw new InvalidRequestException("Group booking must contain at most " + groupMaxRooms + " rooms");
+        }
+
+        Set<UUID> roomIds = new HashSet<>();
+        for (CreateBookingRequestDto item : groupDto.bookings()) {
+            if (item == null || item.roomId() == null || Boolean.TRUE.equals(item.autoSelect())) {
+                log.warn("[booking.group.fail] reason=missing_room user={}", username);
+                throw new InvalidRequestException("Every group booking item must specify roomId");
+            }
+            if (item.startDate() == null || item.endDate() == null) {
+                log.warn("[booking.group.fail] reason=missing_dates user={} roomId={}", username, item.roomId());
+                throw new InvalidRequestException("Start date or end date is null");
+            }
+            if (item.startDate().isAfter(item.endDate())) {
+                log.warn("[booking.group.fail] reason=start_after_end user={} roomId={} startDate={} endDate={}",
+                        username, item.roomId(), item.startDate(), item.endDate());
+                throw new InvalidRequestException("Start date must be before end date");
+            }
+            if (!roomIds.add(item.roomId())) {
+                log.warn("[booking.group.fail] reason=duplicate_room user={} roomId={}", username, item.roomId());
+                throw new InvalidRequestException("Room " + item.roomId() + " is listed more than once");
+            }
+        }
+    }
+
+    // либо заняты все номера группы, либо ни один
+    private void reserveGroup(String username, List<Booking> bookings) {
+        List<Booking> reserved = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            if (!availabilityIndex.tryReserve(booking)) {
+                reserved.forEach(availabilityIndex::release);
+                log.info("[booking.group.fail] reason=room_conflict user={} roomId={} startDate={} endDate={}",
+                        username, booking.getRoomId(), booking.getStartDate(), booking.getEndDate());
+                throw new ResourceAlreadyExistsException("Room " + booking.getRoomId() + " is already booked for the selected dates");
+            }
+            reserved.add(booking);
+        }
+    }
+
+    private int resolveLimit(String username, Integer limit) {
+        if (limit == null) {
+            return pageDefaultLimit;
+        }
+        if (limit < 1 || limit > pageMaxLimit) {
+            log.warn("[booking.list.fail] reason=invalid_limit user={} limit={}", username, limit);
+            throw new InvalidRequestException("Limit must be between 1 and " + pageMaxLimit);
+        }
+        return limit;
+    }
+
+    private BookingStatus parseStatus(String username, String status) {
+        if (status == null || status.isBlank()) {
+            return null;
+        }
+        try {
+            return BookingStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn("[booking.list.fail] reason=invalid_status user={} status={}", username, status);
+            throw new InvalidRequestException("Unknown booking status: " + status);
+        }
+    }
+
     private UUID selectRoomAutomatically() {
         List<RoomDto> rooms = hotel.getRooms();
         if (rooms.isEmpty()) {
@@ -212,14 +561,20 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
-    public UUID autoSelect() {
+    public UUID autoSelect(LocalDate startDate, LocalDate endDate) {
         List<RoomDto> rooms = hotel.getRooms();
+        roomHotels.remember(rooms);
         if (rooms.isEmpty()) {
             log.info("[booking.autoSelect.fail] reason=no_rooms");
             throw new ResourceNotFoundException("No rooms");
         }
-        UUID selected = rooms.get(0).id();
-        log.debug("[booking.autoSelect] selectedRoomId={} strategy=first_available", selected);
+        // порядок рекомендаций hotel-service сохраняем, пропуская номера, занятые на эти даты
+        UUID selected = rooms.stream()
+                .map(RoomDto::id)
+                .filter(roomId -> availabilityIndex.isFree(roomId, startDate, endDate))
+                .findFirst()
+                .orElse(null);
+        log.debug("[booking.autoSelect] selectedRoomId={} strategy=first_free", selected);
         return selected;
     }
 
@@ -0,0 +1,92 @@
+package valentinakondr.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Component;
+import valentinakondr.booking.domain.RefreshToken;
+import valentinakondr.booking.repo.RefreshTokenRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+// Refresh-токен - 256 случайных бит, в БД лежит только его SHA-256: BCrypt не нужен,
+// перебор по хэшу при такой энтропии бессмыслен. Каждый токен одноразовый, при продлении выдаётся новый.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenStore {
+
+    private final RefreshTokenRepository tokenRepo;
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${jwt.refresh-expiration}")
+    private Long refreshExpiration;
+
+    public String issue(UUID userId, String username, String role) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setUserId(userId);
+        refreshToken.setUsername(username);
+        refreshToken.setRole(role);
+        refreshToken.setExpiresAt(LocalDateTime.now().plusNanos(refreshExpiration * 1_000_000));
+        tokenRepo.save(refreshToken);
+
+        log.debug("[auth.refresh.issued] userId={}", userId);
+        return token;
+    }
+
+    // находит токен по хэшу и гасит его; повторное предъявление того же токена получает 401
+    public RefreshToken consume(String token) {
+        RefreshToken refreshToken = tokenRepo.findByTokenHash(hash(token))
+                .orElseThrow(() -> {
+                    log.info("[auth.refresh.fail] reason=unknown_token");
+                    return new BadCredentialsException("Invalid refresh token");
+                });
+
+        if (tokenRepo.consume(refreshToken.getId()) == 0) {
+            log.warn("[auth.refresh.fail] userId={} reason=already_used", refreshToken.getUserId());
+            throw new BadCredentialsException("Invalid refresh token");
+        }
+
+        if (refreshToken.getExpiresAt().isBefore(LocalDateTime.now())) {
+            log.info("[auth.refresh.fail] userId={} reason=expired", refreshToken.getUserId());
+            throw new BadCredentialsException("Refresh token expired");
+        }
+        return refreshToken;
+    }
+
+    public void revoke(UUID userId) {
+        int revoked = tokenRepo.revokeByUserId(userId);
+        log.debug("[auth.refresh.revoke] userId={} revoked={}", userId, revoked);
+    }
+
+    @Scheduled(initialDelayString = "${jwt.refresh-purge-interval}", fixedDelayString = "${jwt.refresh-purge-interval}")
+    public void purgeExpired() {
+        int purged = tokenRepo.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("[auth.refresh.purge] purged={}", purged);
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
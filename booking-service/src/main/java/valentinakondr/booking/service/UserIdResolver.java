@@ -0,0 +1,47 @@
+package valentinakondr.booking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import valentinakondr.booking.config.security.AuthenticatedUser;
+import valentinakondr.booking.exception.ResourceNotFoundException;
+import valentinakondr.booking.repo.UserRepository;
+
+import java.util.UUID;
+
+// id пользователя берём из токена, а для старых токенов без claim "uid" - из ограниченного кэша username -> id
+@Component
+@Slf4j
+public class UserIdResolver {
+
+    private final UserRepository userRepo;
+    private final Cache<String, UUID> ids;
+
+    public UserIdResolver(UserRepository userRepo, @Value("${booking.users.cache-size}") long cacheSize) {
+        this.userRepo = userRepo;
+        this.ids = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    public UUID resolve(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user && user.id() != null) {
+            return user.id();
+        }
+
+        String username = authentication.getName();
+        UUID id = ids.get(username, name -> userRepo.findIdByUsername(name).orElse(null));
+        if (id == null) {
+            log.warn("[user.resolve.fail] user={} reason=user_not_found", username);
+            throw new ResourceNotFoundException("User not found");
+        }
+        return id;
+    }
+
+    public void evict(String username) {
+        ids.invalidate(username);
+    }
+}
@@ -2,9 +2,12 @@ package valentinakondr.booking.service;
 
 import valentinakondr.booking.domain.User;
 import valentinakondr.booking.dto.AuthDto;
+import valentinakondr.booking.dto.BulkUserResultDto;
+import valentinakondr.booking.dto.RefreshRequestDto;
 import valentinakondr.booking.dto.TokenDto;
 import valentinakondr.booking.dto.UserDto;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface UserService {
@@ -29,8 +32,12 @@ public interface UserService {
 
     TokenDto login(AuthDto userDto);
 
+    TokenDto refresh(RefreshRequestDto request);
+
     UserDto createUser(UserDto userDto);
 
+    BulkUserResultDto createUsers(List<UserDto> users);
+
     UserDto updateUser(UserDto userDto);
 
     void deleteUser(UUID id);
@@ -5,24 +5,40 @@ import io.jsonwebtoken.security.Keys;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import valentinakondr.booking.domain.RefreshToken;
 import valentinakondr.booking.domain.User;
 import valentinakondr.booking.dto.AuthDto;
+import valentinakondr.booking.dto.BulkUserResultDto;
+import valentinakondr.booking.dto.RefreshRequestDto;
 import valentinakondr.booking.dto.TokenDto;
 import valentinakondr.booking.dto.UserDto;
 import valentinakondr.booking.exception.InvalidRequestException;
 import valentinakondr.booking.exception.ResourceAlreadyExistsException;
 import valentinakondr.booking.exception.ResourceNotFoundException;
 import valentinakondr.booking.repo.UserRepository;
+import valentinakondr.booking.service.auth.AuthThrottle;
+import valentinakondr.booking.service.view.BookingViewProjector;
 
 import javax.crypto.SecretKey;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Service
 @RequiredArgsConstructor
@@ -30,10 +46,26 @@ import java.util.UUID;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepo;
+    private final UserIdResolver userIdResolver;
+    private final BookingViewProjector bookingViewProjector;
+    private final RefreshTokenStore refreshTokens;
+    private final AuthThrottle authThrottle;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    @Qualifier("passwordHashExecutor")
+    private Executor passwordHashExecutor;
+
+    @Value("${booking.users.bulk.max-size}")
+    private int bulkMaxSize;
+
+    @Value("${booking.users.bulk.batch-size}")
+    private int bulkBatchSize;
+
     @Value("${jwt.secret}")
     private String secret;
 
@@ -57,6 +89,8 @@ public class UserServiceImpl implements UserService {
             throw new InvalidRequestException("Password is null or blank");
         }
 
+        authThrottle.acquire(authDto.username());
+
         if (userRepo.existsByUsername(authDto.username())) {
             log.info("[auth.register.fail] user={} reason=already_exists", authDto.username());
             throw new ResourceAlreadyExistsException(
@@ -66,7 +100,7 @@ public class UserServiceImpl implements UserService {
 
         User user = new User();
         user.setUsername(authDto.username());
-        user.setPassword(passwordEncoder.encode(authDto.password()));
+        user.setPassword(authThrottle.hash(() -> passwordEncoder.encode(authDto.password())));
         user.setRole("USER");
 
         User saved = userRepo.save(user);
@@ -74,11 +108,11 @@ public class UserServiceImpl implements UserService {
         log.info("[auth.register.success] userId={} username={} role={}",
                 saved.getId(), saved.getUsername(), saved.getRole());
 
-        String token = generateToken(saved.getUsername(), saved.getRole());
+        String token = generateToken(saved.getId(), saved.getUsername(), saved.getRole());
 
         log.debug("[auth.token.issued] username={} purpose=register", saved.getUsername());
 
-        return new TokenDto(token);
+        return new TokenDto(token, refreshTokens.issue(saved.getId(), saved.getUsername(), saved.getRole()));
     }
 
     @Override
@@ -88,25 +122,47 @@ public class UserServiceImpl implements UserService {
             throw new InvalidRequestException("Request body is null");
         }
 
+        // лимиты проверяются до поиска пользователя: несуществующие username тоже тратят попытки
+        authThrottle.acquire(authDto.username());
+
         User user = userRepo.findByUsername(authDto.username())
                 .orElseThrow(() -> {
                     log.info("[auth.login.fail] username={} reason=invalid_credentials", authDto.username());
-                    return new RuntimeException("Invalid credentials");
+                    return new BadCredentialsException("Invalid credentials");
                 });
 
-        if (!passwordEncoder.matches(authDto.password(), user.getPassword())) {
+        if (!authThrottle.hash(() -> passwordEncoder.matches(authDto.password(), user.getPassword()))) {
             log.info("[auth.login.fail] username={} reason=invalid_credentials", user.getUsername());
-            throw new RuntimeException("Invalid credentials");
+            throw new BadCredentialsException("Invalid credentials");
         }
 
-        String token = generateToken(user.getUsername(), user.getRole());
+        String token = generateToken(user.getId(), user.getUsername(), user.getRole());
 
         log.info("[auth.login.success] userId={} username={} role={}",
                 user.getId(), user.getUsername(), user.getRole());
 
         log.debug("[auth.token.issued] username={} purpose=login", user.getUsername());
 
-        return new TokenDto(token);
+        return new TokenDto(token, refreshTokens.issue(user.getId(), user.getUsername(), user.getRole()));
+    }
+
+    @Override
+    public TokenDto refresh(RefreshRequestDto request) {
+        if (request == null || request.refreshToken() == null || request.refreshToken().isBlank()) {
+            log.warn("[auth.refresh.fail] reason=blank_token");
+            throw new InvalidRequestException("Refresh token is null or blank");
+        }
+
+        // продление сессии: поиск по хэшу и подпись нового JWT, без BCrypt и без чтения users
+        RefreshToken consumed = refreshTokens.consume(request.refreshToken());
+        String token = generateToken(consumed.getUserId(), consumed.getUsername(), consumed.getRole());
+        String refreshToken = refreshTokens.issue(consumed.getUserId(), consumed.getUsername(), consumed.getRole());
+
+        log.info("[auth.refresh.success] userId={} username={}", consumed.getUserId(), consumed.getUsername());
+
+        log.debug("[auth.token.issued] username={} purpose=refresh", consumed.getUsername());
+
+        return new TokenDto(token, refreshToken);
     }
 
     @Transactional
@@ -130,6 +186,88 @@ public class UserServiceImpl implements UserService {
         return fromDomain(user);
     }
 
+    @Override
+    public BulkUserResultDto createUsers(List<UserDto> users) {
+        if (users == null || users.isEmpty()) {
+            log.warn("[user.bulk.fail] reason=empty_request");
+            throw new InvalidRequestException("Users list is null or empty");
+        }
+        if (users.size() > bulkMaxSize) {
+            log.warn("[user.bulk.fail] reason=too_many size={} max={}", users.size(), bulkMaxSize);
+            throw new InvalidRequestException("Too many users: max " + bulkMaxSize);
+        }
+        for (int i = 0; i < users.size(); i++) {
+            UserDto dto = users.get(i);
+            if (dto == null || dto.username() == null || dto.username().isBlank()
+                    || dto.password() == null || dto.password().isBlank()) {
+                log.warn("[user.bulk.fail] reason=blank_credentials index={}", i);
+                throw new InvalidRequestException("User #" + i + ": username and password are required");
+            }
+        }
+
+        // уже существующие и повторяющиеся в запросе username пропускаются и возвращаются в skipped
+        List<String> usernames = users.stream().map(UserDto::username).distinct().toList();
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < usernames.size(); from += bulkBatchSize) {
+            existing.addAll(userRepo.findExistingUsernames(
+                    usernames.subList(from, Math.min(from + bulkBatchSize, usernames.size()))));
+        }
+
+        List<UserDto> toCreate = new ArrayList<>();
+        List<String> skipped = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (UserDto dto : users) {
+            if (existing.contains(dto.username()) || !seen.add(dto.username())) {
+                skipped.add(dto.username());
+            } else {
+                toCreate.add(dto);
+            }
+        }
+
+        List<String> hashes = hashPasswords(toCreate);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int from = 0; from < toCreate.size(); from += bulkBatchSize) {
+                    List<Object[]> batch = new ArrayList<>();
+                    for (int i = from; i < Math.min(from + bulkBatchSize, toCreate.size()); i++) {
+                        UserDto dto = toCreate.get(i);
+                        batch.add(new Object[]{UUID.randomUUID(), dto.username(), hashes.get(i),
+                                dto.role() != null ? dto.role() : "USER"});
+                    }
+                    jdbcTemplate.batchUpdate("insert into users (id, username, password, role) values (?, ?, ?, ?)", batch);
+                }
+            });
+        } catch (DuplicateKeyException e) {
+            log.info("[user.bulk.fail] reason=concurrent_duplicate size={}", toCreate.size());
+            throw new ResourceAlreadyExistsException("Some users were created concurrently, retry the import");
+        }
+
+        log.info("[user.bulk.success] requested={} created={} skipped={}", users.size(), toCreate.size(), skipped.size());
+
+        return new BulkUserResultDto(toCreate.size(), skipped);
+    }
+
+    // BCrypt по срезам на пуле по числу ядер; порядок хэшей совпадает с порядком пользователей
+    private List<String> hashPasswords(List<UserDto> users) {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+        int slices = Math.min(users.size(), Runtime.getRuntime().availableProcessors());
+        int sliceSize = (users.size() + slices - 1) / slices;
+
+        List<CompletableFuture<List<String>>> futures = new ArrayList<>();
+        for (int from = 0; from < users.size(); from += sliceSize) {
+            List<UserDto> slice = users.subList(from, Math.min(from + sliceSize, users.size()));
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> slice.stream().map(dto -> passwordEncoder.encode(dto.password())).toList(),
+                    passwordHashExecutor));
+        }
+        return futures.stream()
+                .flatMap(future -> future.join().stream())
+                .toList();
+    }
+
     @Transactional
     @Override
     public UserDto updateUser(UserDto userDto) {
@@ -149,6 +287,9 @@ public class UserServiceImpl implements UserService {
         log.info("[user.update.start] userId={} usernameOld={} usernameNew={}",
                 existingUser.getId(), existingUser.getUsername(), userDto.username());
 
+        userIdResolver.evict(existingUser.getUsername());
+        // username и role в refresh-токенах устарели, пусть пользователь войдёт заново
+        refreshTokens.revoke(existingUser.getId());
         existingUser.setUsername(userDto.username());
 
         if (userDto.password() != null && !userDto.password().isBlank()) {
@@ -161,6 +302,7 @@ public class UserServiceImpl implements UserService {
         existingUser.setRole(userDto.role());
 
         User updatedUser = userRepo.save(existingUser);
+        bookingViewProjector.renameUser(updatedUser.getId(), updatedUser.getUsername());
 
         log.info("[user.update.success] userId={} username={} role={}",
                 updatedUser.getId(), updatedUser.getUsername(), updatedUser.getRole());
@@ -176,21 +318,24 @@ public class UserServiceImpl implements UserService {
             throw new InvalidRequestException("User ID must not be null");
         }
 
-        if (!userRepo.existsById(id)) {
-            log.info("[user.delete.fail] userId={} reason=not_found", id);
-            throw new ResourceNotFoundException("User not found with id: " + id);
-        }
+        User user = userRepo.findById(id)
+                .orElseThrow(() -> {
+                    log.info("[user.delete.fail] userId={} reason=not_found", id);
+                    return new ResourceNotFoundException("User not found with id: " + id);
+                });
 
-        userRepo.deleteById(id);
+        userRepo.delete(user);
+        userIdResolver.evict(user.getUsername());
 
         log.info("[user.delete.success] userId={}", id);
     }
 
-    public String generateToken(String username, String role) {
-        log.debug("[auth.token.generate] username={} role={}", username, role);
+    public String generateToken(UUID userId, String username, String role) {
+        log.debug("[auth.token.generate] userId={} username={} role={}", userId, username, role);
 
         Map<String, Object> claims = new HashMap<>();
         claims.put("role", role);
+        claims.put("uid", userId.toString());
 
         SecretKey key = Keys.hmacShaKeyFor(secret.getBytes());
 
@@ -0,0 +1,300 @@
+package valentinakondr.booking.service.archive;
+
+import valentinakondr.booking.domain.booking.BookingStatus;
+import valentinakondr.booking.domain.booking.BookingView;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Формат сегмента (gzip): строки отсортированы по userId, каждая колонка пишется целиком подряд.
+// Все построчные колонки фиксированной ширины, поэтому строки пользователя читаются пропуском байтов
+// в каждой колонке; username хранится один раз на пользователя в индексе.
+// Статус пишется номером в словаре имён из заголовка сегмента, а не ordinal(): перестановка констант
+// BookingStatus не меняет смысл уже записанных сегментов.
+final class ArchiveSegment {
+
+    private static final int SEGMENT_MAGIC = 0x42415347;
+    private static final int INDEX_MAGIC = 0x42415349;
+    private static final int VERSION = 2;
+
+    private static final UUID NO_HOTEL = new UUID(0, 0);
+
+    private static final String SEGMENT_SUFFIX = ".seg.gz";
+    private static final String INDEX_SUFFIX = ".idx";
+
+    private ArchiveSegment() {
+    }
+
+    static SegmentIndex write(Path dir, long sequence, List<BookingView> bookings) throws IOException {
+        List<BookingView> rows = new ArrayList<>(bookings);
+        rows.sort(Comparator.comparing(BookingView::getUserId, ArchiveSegment::compareUuid));
+
+        Map<UUID, SegmentIndex.UserBlock> users = new LinkedHashMap<>();
+        IdFilter ids = IdFilter.forRows(rows.size());
+        LocalDate minStart = LocalDate.MAX;
+        LocalDate maxEnd = LocalDate.MIN;
+        for (int i = 0; i < rows.size(); i++) {
+            BookingView row = rows.get(i);
+            int first = i;
+            users.compute(row.getUserId(), (id, block) -> block == null
+                    ? new SegmentIndex.UserBlock(row.getUsername(), first, 1)
+                    : new SegmentIndex.UserBlock(block.username(), block.firstRow(), block.rowCount() + 1));
+            ids.add(row.getId());
+            minStart = min(minStart, row.getStartDate());
+            maxEnd = max(maxEnd, row.getEndDate());
+        }
+
+        Path segment = dir.resolve(name(sequence) + SEGMENT_SUFFIX);
+        Path index = dir.resolve(name(sequence) + INDEX_SUFFIX);
+        Path segmentTmp = dir.resolve(segment.getFileName() + ".tmp");
+        Path indexTmp = dir.resolve(index.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(segmentTmp), 1 << 16)))) {
+            out.writeInt(SEGMENT_MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(rows.size());
+            BookingStatus[] statuses = BookingStatus.values();
+            out.writeByte(statuses.length);
+            for (BookingStatus status : statuses) {
+                out.writeUTF(status.name());
+            }
+            for (BookingView row : rows) {
+                writeUuid(out, row.getId());
+            }
+            for (BookingView row : rows) {
+                writeUuid(out, row.getRoomId());
+            }
+            for (BookingView row : rows) {
+                writeUuid(out, row.getHotelId() != null ? row.getHotelId() : NO_HOTEL);
+            }
+            for (BookingView row : rows) {
+                out.writeInt((int) row.getStartDate().toEpochDay());
+            }
+            for (BookingView row : rows) {
+                out.writeInt((int) row.getEndDate().toEpochDay());
+            }
+            for (BookingView row : rows) {
+                out.writeByte(statusCode(statuses, row.getStatus()));
+            }
+            for (BookingView row : rows) {
+                out.writeLong(toMicros(row.getCreatedAt()));
+            }
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexTmp)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(rows.size());
+            out.writeLong(minStart.toEpochDay());
+            out.writeLong(maxEnd.toEpochDay());
+            out.writeInt(users.size());
+            for (Map.Entry<UUID, SegmentIndex.UserBlock> user : users.entrySet()) {
+                writeUuid(out, user.getKey());
+                out.writeUTF(user.getValue().username());
+                out.writeInt(user.getValue().firstRow());
+                out.writeInt(user.getValue().rowCount());
+            }
+            ids.write(out);
+        }
+
+        // индекс появляется последним: сегмент без индекса считается недописанным и игнорируется
+        Files.move(segmentTmp, segment, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(indexTmp, index, StandardCopyOption.ATOMIC_MOVE);
+
+        return new SegmentIndex(sequence, segment, rows.size(), minStart, maxEnd, users, ids);
+    }
+
+    static boolean isIndex(Path path) {
+        return path.getFileName().toString().endsWith(INDEX_SUFFIX);
+    }
+
+    static SegmentIndex readIndex(Path index) throws IOException {
+        String file = index.getFileName().toString();
+        long sequence = Long.parseLong(file.substring(0, file.length() - INDEX_SUFFIX.length()));
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(index)))) {
+            checkHeader(in, INDEX_MAGIC, index);
+            int rows = in.readInt();
+            LocalDate minStart = LocalDate.ofEpochDay(in.readLong());
+            LocalDate maxEnd = LocalDate.ofEpochDay(in.readLong());
+            int userCount = in.readInt();
+            Map<UUID, SegmentIndex.UserBlock> users = new HashMap<>(userCount * 2);
+            for (int i = 0; i < userCount; i++) {
+                UUID userId = readUuid(in);
+                users.put(userId, new SegmentIndex.UserBlock(in.readUTF(), in.readInt(), in.readInt()));
+            }
+            return new SegmentIndex(sequence, index.resolveSibling(name(sequence) + SEGMENT_SUFFIX),
+                    rows, minStart, maxEnd, users, IdFilter.read(in));
+        }
+    }
+
+    static List<BookingView> readUser(SegmentIndex index, UUID userId) throws IOException {
+        SegmentIndex.UserBlock block = index.users().get(userId);
+        if (block == null) {
+            return List.of();
+        }
+        int n = block.rowCount();
+        int before = block.firstRow();
+        int after = index.rows() - before - n;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(index.segment()), 1 << 16)))) {
+            checkHeader(in, SEGMENT_MAGIC, index.segment());
+            in.readInt();
+            BookingStatus[] statusNames = readStatuses(in);
+
+            UUID[] ids = readUuids(in, before, n, after);
+            UUID[] roomIds = readUuids(in, before, n, after);
+            UUID[] hotelIds = readUuids(in, before, n, after);
+
+            int[] startDays = readInts(in, before, n, after);
+            int[] endDays = readInts(in, before, n, after);
+
+            in.skipNBytes(before);
+            byte[] statuses = in.readNBytes(n);
+            in.skipNBytes(after);
+
+            in.skipNBytes(8L * before);
+            long[] created = new long[n];
+            for (int i = 0; i < n; i++) {
+                created[i] = in.readLong();
+            }
+
+            List<BookingView> rows = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                rows.add(new BookingView(
+                        ids[i],
+                        userId,
+                        block.username(),
+                        roomIds[i],
+                        NO_HOTEL.equals(hotelIds[i]) ? null : hotelIds[i],
+                        LocalDate.ofEpochDay(startDays[i]),
+                        LocalDate.ofEpochDay(endDays[i]),
+                        statusNames[statuses[i]],
+                        fromMicros(created[i])
+                ));
+            }
+            return rows;
+        }
+    }
+
+    // владелец строки с данным id; читается только колонка id, остальные не распаковываются
+    static Optional<UUID> findOwner(SegmentIndex index, UUID id) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(index.segment()), 1 << 16)))) {
+            checkHeader(in, SEGMENT_MAGIC, index.segment());
+            int rows = in.readInt();
+            readStatuses(in);
+            for (int row = 0; row < rows; row++) {
+                if (readUuid(in).equals(id)) {
+                    int position = row;
+                    return index.users().entrySet().stream()
+                            .filter(user -> position >= user.getValue().firstRow()
+                                    && position < user.getValue().firstRow() + user.getValue().rowCount())
+                            .map(Map.Entry::getKey)
+                            .findFirst();
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    // тот же порядок, что у UUID в H2: беззнаковое сравнение старшей, затем младшей половины
+    static int compareUuid(UUID a, UUID b) {
+        int cmp = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return cmp != 0 ? cmp : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    private static UUID[] readUuids(DataInputStream in, int before, int n, int after) throws IOException {
+        in.skipNBytes(16L * before);
+        UUID[] values = new UUID[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = readUuid(in);
+        }
+        in.skipNBytes(16L * after);
+        return values;
+    }
+
+    private static int[] readInts(DataInputStream in, int before, int n, int after) throws IOException {
+        in.skipNBytes(4L * before);
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = in.readInt();
+        }
+        in.skipNBytes(4L * after);
+        return values;
+    }
+
+    private static int statusCode(BookingStatus[] statuses, BookingStatus status) {
+        for (int i = 0; i < statuses.length; i++) {
+            if (statuses[i] == status) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown status " + status);
+    }
+
+    private static BookingStatus[] readStatuses(DataInputStream in) throws IOException {
+        BookingStatus[] statuses = new BookingStatus[in.readUnsignedByte()];
+        for (int i = 0; i < statuses.length; i++) {
+            statuses[i] = BookingStatus.valueOf(in.readUTF());
+        }
+        return statuses;
+    }
+
+    private static void checkHeader(DataInputStream in, int magic, Path file) throws IOException {
+        if (in.readInt() != magic || in.readInt() != VERSION) {
+            throw new IOException("Unsupported archive file: " + file);
+        }
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID value) throws IOException {
+        out.writeLong(value.getMostSignificantBits());
+        out.writeLong(value.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private static long toMicros(LocalDateTime value) {
+        return value.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + value.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static String name(long sequence) {
+        return String.format("%012d", sequence);
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,147 @@
+package valentinakondr.booking.service.archive;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import valentinakondr.booking.domain.booking.BookingStatus;
+import valentinakondr.booking.domain.booking.BookingView;
+import valentinakondr.booking.service.BookingCursor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Холодный архив бронирований: append-only сегменты на диске и их разреженные индексы в памяти
+@Component
+@Slf4j
+public class BookingArchive {
+
+    // порядок выдачи истории: createdAt DESC, id DESC - как в keyset-запросах к booking_view
+    public static final Comparator<BookingView> NEWEST_FIRST = Comparator
+            .comparing(BookingView::getCreatedAt)
+            .thenComparing(BookingView::getId, ArchiveSegment::compareUuid)
+            .reversed();
+
+    private final Path dir;
+    private final List<SegmentIndex> segments = new CopyOnWriteArrayList<>();
+    private final Cache<UUID, List<BookingView>> users;
+
+    public BookingArchive(@Value("${booking.archive.dir}") Path dir,
+                          @Value("${booking.archive.cache-size}") long cacheSize) {
+        this.dir = dir;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    @PostConstruct
+    public void load() throws IOException {
+        if (!Files.isDirectory(dir)) {
+            log.info("[booking.archive.load] dir={} segments=0", dir);
+            return;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.filter(ArchiveSegment::isIndex).sorted().toList()) {
+                segments.add(ArchiveSegment.readIndex(file));
+            }
+        }
+        log.info("[booking.archive.load] dir={} segments={} rows={}",
+                dir, segments.size(), segments.stream().mapToLong(SegmentIndex::rows).sum());
+    }
+
+    // вызывается только архиватором, поэтому между собой вызовы не конкурируют
+    public void append(List<BookingView> bookings) throws IOException {
+        Files.createDirectories(dir);
+        long sequence = segments.stream().mapToLong(SegmentIndex::sequence).max().orElse(0) + 1;
+
+        SegmentIndex segment = ArchiveSegment.write(dir, sequence, bookings);
+        segments.add(segment);
+        users.invalidateAll(segment.users().keySet());
+
+        log.info("[booking.archive.segment] sequence={} rows={} users={}", sequence, segment.rows(), segment.users().size());
+    }
+
+    public List<BookingView> findPage(UUID userId, BookingStatus status, LocalDate from, LocalDate to,
+                                      BookingCursor after, int limit) {
+        if (!contains(userId, from, to)) {
+            return List.of();
+        }
+        return rows(userId).stream()
+                .filter(row -> status == null || row.getStatus() == status)
+                .filter(row -> from == null || !row.getEndDate().isBefore(from))
+                .filter(row -> to == null || !row.getStartDate().isAfter(to))
+                .filter(row -> after == null || isAfter(row, after))
+                .limit(limit)
+                .toList();
+    }
+
+    public Optional<BookingView> find(UUID userId, UUID id) {
+        if (!contains(userId, null, null)) {
+            return Optional.empty();
+        }
+        return rows(userId).stream()
+                .filter(row -> row.getId().equals(id))
+                .findFirst();
+    }
+
+    // владелец заархивированного бронирования - чтобы чужая бронь давала 403, а не 404, как в горячей таблице
+    public Optional<UUID> findOwner(UUID id) {
+        for (SegmentIndex segment : segments) {
+            if (!segment.ids().mightContain(id)) {
+                continue;
+            }
+            try {
+                Optional<UUID> owner = ArchiveSegment.findOwner(segment, id);
+                if (owner.isPresent()) {
+                    return owner;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read archive segment " + segment.segment(), e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private boolean contains(UUID userId, LocalDate from, LocalDate to) {
+        return segments.stream().anyMatch(segment -> segment.users().containsKey(userId) && segment.overlaps(from, to));
+    }
+
+    // строки пользователя из всех сегментов, уже в порядке выдачи; повторно заархивированные после сбоя схлопываются по id
+    private List<BookingView> rows(UUID userId) {
+        return users.get(userId, id -> {
+            List<BookingView> rows = new ArrayList<>();
+            for (SegmentIndex segment : segments) {
+                if (segment.users().containsKey(id)) {
+                    try {
+                        rows.addAll(ArchiveSegment.readUser(segment, id));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Failed to read archive segment " + segment.segment(), e);
+                    }
+                }
+            }
+            return rows.stream()
+                    .collect(Collectors.toMap(BookingView::getId, row -> row, (a, b) -> b))
+                    .values().stream()
+                    .sorted(NEWEST_FIRST)
+                    .toList();
+        });
+    }
+
+    private static boolean isAfter(BookingView row, BookingCursor cursor) {
+        int cmp = row.getCreatedAt().compareTo(cursor.createdAt());
+        return cmp < 0 || (cmp == 0 && ArchiveSegment.compareUuid(row.getId(), cursor.id()) < 0);
+    }
+}
@@ -0,0 +1,113 @@
+package valentinakondr.booking.service.archive;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import valentinakondr.booking.domain.booking.BookingStatus;
+import valentinakondr.booking.domain.booking.BookingView;
+import valentinakondr.booking.repo.BookingExportRow;
+import valentinakondr.booking.repo.BookingRepository;
+import valentinakondr.booking.repo.BookingViewRepository;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Переносит отменённые и прошедшие бронирования старше booking.archive.max-age из bookings/booking_view в архив.
+// Кандидаты и их статус берутся из bookings: строка booking_view могла отстать или отсутствовать, из проекции
+// берётся только уже известный отель.
+// Сначала пишется сегмент, потом удаляются строки: при сбое между шагами запись окажется и там и там,
+// чтение отдаёт горячую копию, а архив схлопывает повторы по id.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingArchiver {
+
+    private final BookingArchive archive;
+    private final BookingViewRepository viewRepo;
+    private final BookingRepository bookingRepo;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${booking.archive.enabled}")
+    private boolean enabled;
+
+    @Value("${booking.archive.max-age}")
+    private Duration maxAge;
+
+    @Value("${booking.archive.batch-size}")
+    private int batchSize;
+
+    @Scheduled(initialDelayString = "${booking.archive.initial-delay}", fixedDelayString = "${booking.archive.interval}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(maxAge);
+        int archived = 0;
+        List<BookingView> batch;
+        do {
+            batch = nextBatch(cutoff);
+            if (batch.isEmpty()) {
+                break;
+            }
+            try {
+                archive.append(batch);
+            } catch (IOException e) {
+                log.error("[booking.archive.fail] rows={} error={}", batch.size(), e.getMessage(), e);
+                return;
+            }
+            List<UUID> ids = batch.stream().map(BookingView::getId).toList();
+            transactionTemplate.executeWithoutResult(status -> {
+                viewRepo.deleteAllByIdInBatch(ids);
+                bookingRepo.deleteAllByIdInBatch(ids);
+            });
+            archived += batch.size();
+        } while (batch.size() == batchSize);
+
+        if (archived > 0) {
+            log.info("[booking.archive.run] archived={} cutoff={}", archived, cutoff);
+        }
+    }
+
+    private List<BookingView> nextBatch(LocalDateTime cutoff) {
+        Map<UUID, BookingExportRow> batch = new LinkedHashMap<>();
+        bookingRepo.findArchivableByEndDate(cutoff.toLocalDate(), Limit.of(batchSize))
+                .forEach(row -> batch.put(row.getId(), row));
+        if (batch.size() < batchSize) {
+            bookingRepo.findArchivableByStatus(BookingStatus.CANCELLED, cutoff, Limit.of(batchSize - batch.size()))
+                    .forEach(row -> batch.putIfAbsent(row.getId(), row));
+        }
+        if (batch.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, UUID> hotels = new HashMap<>();
+        viewRepo.findAllById(batch.keySet()).forEach(view -> {
+            if (view.getHotelId() != null) {
+                hotels.put(view.getId(), view.getHotelId());
+            }
+        });
+        return batch.values().stream()
+                .map(row -> new BookingView(
+                        row.getId(),
+                        row.getUserId(),
+                        row.getUsername(),
+                        row.getRoomId(),
+                        hotels.get(row.getId()),
+                        row.getStartDate(),
+                        row.getEndDate(),
+                        row.getStatus(),
+                        row.getCreatedAt()
+                ))
+                .toList();
+    }
+}
@@ -0,0 +1,72 @@
+package valentinakondr.booking.service.archive;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.UUID;
+
+// Фильтр Блума по id бронирований сегмента: ~10 бит на строку, ложных срабатываний около 1%.
+// Отвечает "точно нет" без чтения сегмента; "возможно" проверяется по колонке id.
+final class IdFilter {
+
+    private static final int BITS_PER_ROW = 10;
+    private static final int HASHES = 7;
+
+    private final long[] bits;
+
+    private IdFilter(long[] bits) {
+        this.bits = bits;
+    }
+
+    static IdFilter forRows(int rows) {
+        return new IdFilter(new long[Math.max(1, (rows * BITS_PER_ROW + 63) / 64)]);
+    }
+
+    static IdFilter read(DataInputStream in) throws IOException {
+        long[] bits = new long[in.readInt()];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = in.readLong();
+        }
+        return new IdFilter(bits);
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(bits.length);
+        for (long word : bits) {
+            out.writeLong(word);
+        }
+    }
+
+    void add(UUID id) {
+        long h1 = mix(id.getMostSignificantBits());
+        long h2 = mix(id.getLeastSignificantBits()) | 1;
+        long size = bits.length * 64L;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, size);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(UUID id) {
+        long h1 = mix(id.getMostSignificantBits());
+        long h2 = mix(id.getLeastSignificantBits()) | 1;
+        long size = bits.length * 64L;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, size);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // финализатор murmur3: id вида v7/последовательные не дают коррелированных позиций
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,25 @@
+package valentinakondr.booking.service.archive;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+
+// Разреженный индекс сегмента: по строке на пользователя, общий диапазон дат и фильтр Блума по id бронирований.
+// Хранится рядом с сегментом несжатым, поэтому при старте сами сегменты не читаются.
+record SegmentIndex(
+        long sequence,
+        Path segment,
+        int rows,
+        LocalDate minStartDate,
+        LocalDate maxEndDate,
+        Map<UUID, UserBlock> users,
+        IdFilter ids
+) {
+    record UserBlock(String username, int firstRow, int rowCount) {
+    }
+
+    boolean overlaps(LocalDate from, LocalDate to) {
+        return (from == null || !maxEndDate.isBefore(from)) && (to == null || !minStartDate.isAfter(to));
+    }
+}
@@ -0,0 +1,109 @@
+package valentinakondr.booking.service.auth;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import valentinakondr.booking.exception.TooManyRequestsException;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Защита CPU от перебора паролей: лимиты попыток по IP и по username до BCrypt,
+// а сам BCrypt - только на authExecutor, который занимает не больше booking.auth.cpu-share ядер.
+@Component
+@Slf4j
+public class AuthThrottle {
+
+    private final TokenBucketLimiter byIp;
+    private final TokenBucketLimiter byUsername;
+    private final Executor authExecutor;
+    private final Set<InetAddress> trustedProxies;
+
+    public AuthThrottle(@Value("${booking.auth.rate-limit.ip-capacity}") double ipCapacity,
+                        @Value("${booking.auth.rate-limit.ip-refill-per-second}") double ipRefill,
+                        @Value("${booking.auth.rate-limit.username-capacity}") double usernameCapacity,
+                        @Value("${booking.auth.rate-limit.username-refill-per-second}") double usernameRefill,
+                        @Value("${booking.auth.rate-limit.max-keys}") long maxKeys,
+                        @Value("${booking.auth.rate-limit.trusted-proxies}") List<String> trustedProxies,
+                        @Qualifier("authExecutor") Executor authExecutor) {
+        this.byIp = new TokenBucketLimiter(ipCapacity, ipRefill, maxKeys);
+        this.byUsername = new TokenBucketLimiter(usernameCapacity, usernameRefill, maxKeys);
+        this.authExecutor = authExecutor;
+        this.trustedProxies = trustedProxies.stream()
+                .filter(proxy -> !proxy.isBlank())
+                .map(proxy -> address(proxy.trim()))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public void acquire(String username) {
+        String ip = clientIp();
+        if (ip != null && !byIp.tryAcquire(ip)) {
+            log.warn("[auth.throttle.reject] key=ip ip={}", ip);
+            throw new TooManyRequestsException("Too many authentication attempts, retry later");
+        }
+        if (username != null && !byUsername.tryAcquire(username)) {
+            log.warn("[auth.throttle.reject] key=username username={} ip={}", username, ip);
+            throw new TooManyRequestsException("Too many authentication attempts, retry later");
+        }
+    }
+
+    // поток Tomcat ждёт результат, но CPU под BCrypt выделяет только authExecutor; переполнение очереди - 429
+    public <T> T hash(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, authExecutor).join();
+        } catch (TaskRejectedException e) {
+            log.warn("[auth.throttle.reject] key=executor reason=queue_full");
+            throw new TooManyRequestsException("Authentication is overloaded, retry later");
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // за api-gateway remoteAddr - адрес шлюза; шлюз дописывает адрес клиента последним в X-Forwarded-For.
+    // Заголовку верим только от loopback и booking.auth.rate-limit.trusted-proxies: иначе клиент
+    // подставлял бы новый "IP" в каждую попытку и обходил лимит по IP
+    private String clientIp() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return null;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        String remote = request.getRemoteAddr();
+        String forwarded = request.getHeader("X-Forwarded-For");
+        if (forwarded != null && !forwarded.isBlank() && isTrustedProxy(remote)) {
+            return forwarded.substring(forwarded.lastIndexOf(',') + 1).trim();
+        }
+        return remote;
+    }
+
+    private boolean isTrustedProxy(String remote) {
+        if (remote == null) {
+            return false;
+        }
+        InetAddress address = address(remote);
+        return address.isLoopbackAddress() || trustedProxies.contains(address);
+    }
+
+    // remoteAddr - всегда литерал IP, DNS не запрашивается
+    private static InetAddress address(String host) {
+        try {
+            return InetAddress.getByName(host);
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Unknown address: " + host, e);
+        }
+    }
+}
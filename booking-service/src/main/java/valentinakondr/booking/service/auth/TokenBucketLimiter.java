@@ -0,0 +1,42 @@
+package valentinakondr.booking.service.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+// Token bucket на ключ с ленивым пополнением: токены досчитываются при обращении, фоновых задач нет.
+// Caffeine ограничивает число ключей, compute атомарен по ключу и не блокирует остальную карту.
+class TokenBucketLimiter {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private final Cache<String, Bucket> buckets;
+
+    TokenBucketLimiter(double capacity, double refillPerSecond, long maxKeys) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        // за это время ведро без обращений всё равно наполняется целиком, хранить его дальше незачем
+        long fullRefillNanos = (long) Math.ceil(capacity / refillPerNano);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(fullRefillNanos))
+                .build();
+    }
+
+    boolean tryAcquire(String key) {
+        long now = System.nanoTime();
+        Bucket bucket = buckets.asMap().compute(key, (k, current) -> {
+            double tokens = current == null
+                    ? capacity
+                    : Math.min(capacity, current.tokens() + (now - current.updatedAt()) * refillPerNano);
+            return tokens >= 1
+                    ? new Bucket(tokens - 1, now, true)
+                    : new Bucket(tokens, now, false);
+        });
+        return bucket.granted();
+    }
+
+    private record Bucket(double tokens, long updatedAt, boolean granted) {
+    }
+}
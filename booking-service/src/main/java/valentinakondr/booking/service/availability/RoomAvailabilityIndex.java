@@ -0,0 +1,100 @@
+package valentinakondr.booking.service.availability;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import valentinakondr.booking.domain.booking.Booking;
+import valentinakondr.booking.domain.booking.BookingStatus;
+import valentinakondr.booking.repo.BookingRepository;
+import valentinakondr.booking.repo.BookingSlot;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Занятость номеров в памяти: по дереву интервалов на каждый roomId.
+// Конфликт по датам отсекается до записи в БД и до вызова hotel-service.
+// Загружается после создания бинов, до старта Tomcat: первый же запрос видит полный индекс.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RoomAvailabilityIndex implements SmartInitializingSingleton {
+
+    private final BookingRepository bookingRepo;
+
+    private final Map<UUID, RoomIntervalTree> rooms = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        load();
+    }
+
+    void load() {
+        List<BookingSlot> slots = bookingRepo.findByStatusNotAndEndDateGreaterThanEqual(BookingStatus.CANCELLED, LocalDate.now());
+        for (BookingSlot slot : slots) {
+            RoomIntervalTree tree = tree(slot.getRoomId());
+            synchronized (tree) {
+                tree.insert(key(slot.getRequestId(), slot.getId()), start(slot.getStartDate()), end(slot.getStartDate(), slot.getEndDate()));
+            }
+        }
+        log.info("[booking.availability.load] bookings={} rooms={}", slots.size(), rooms.size());
+    }
+
+    public boolean isFree(UUID roomId, LocalDate startDate, LocalDate endDate) {
+        RoomIntervalTree tree = rooms.get(roomId);
+        if (tree == null) {
+            return true;
+        }
+        synchronized (tree) {
+            return !tree.overlaps(start(startDate), end(startDate, endDate));
+        }
+    }
+
+    // проверка и занятие атомарны в пределах номера
+    public boolean tryReserve(Booking booking) {
+        RoomIntervalTree tree = tree(booking.getRoomId());
+        long start = start(booking.getStartDate());
+        long end = end(booking.getStartDate(), booking.getEndDate());
+        synchronized (tree) {
+            if (tree.overlaps(start, end)) {
+                log.info("[booking.availability.conflict] requestId={} roomId={} startDate={} endDate={}",
+                        booking.getRequestId(), booking.getRoomId(), booking.getStartDate(), booking.getEndDate());
+                return false;
+            }
+            tree.insert(key(booking.getRequestId(), booking.getId()), start, end);
+            return true;
+        }
+    }
+
+    public void release(Booking booking) {
+        RoomIntervalTree tree = rooms.get(booking.getRoomId());
+        if (tree == null) {
+            return;
+        }
+        synchronized (tree) {
+            if (tree.remove(key(booking.getRequestId(), booking.getId()), start(booking.getStartDate()))) {
+                log.debug("[booking.availability.release] requestId={} roomId={}", booking.getRequestId(), booking.getRoomId());
+            }
+        }
+    }
+
+    private RoomIntervalTree tree(UUID roomId) {
+        return rooms.computeIfAbsent(roomId, id -> new RoomIntervalTree());
+    }
+
+    private static UUID key(UUID requestId, UUID id) {
+        return requestId != null ? requestId : id;
+    }
+
+    private static long start(LocalDate startDate) {
+        return startDate.toEpochDay();
+    }
+
+    // даты выезда не занимают номер: [startDate, endDate), однодневная бронь занимает сутки
+    private static long end(LocalDate startDate, LocalDate endDate) {
+        return Math.max(endDate.toEpochDay(), startDate.toEpochDay() + 1);
+    }
+}
@@ -0,0 +1,130 @@
+package valentinakondr.booking.service.availability;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Дерево интервалов [start, end) по одному номеру: декартово дерево по (start, key),
+// в каждом узле хранится максимальный end поддерева. Не потокобезопасно, синхронизацию делает RoomAvailabilityIndex.
+class RoomIntervalTree {
+
+    private Node root;
+    private int size;
+
+    boolean overlaps(long start, long end) {
+        return findOverlap(root, start, end) != null;
+    }
+
+    void insert(UUID key, long start, long end) {
+        Node node = new Node(key, start, end);
+        Node[] parts = split(root, start, key);
+        root = merge(merge(parts[0], node), parts[1]);
+        size++;
+    }
+
+    boolean remove(UUID key, long start) {
+        int before = size;
+        root = remove(root, key, start);
+        return size < before;
+    }
+
+    private Node remove(Node node, UUID key, long start) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, key, node);
+        if (cmp == 0) {
+            size--;
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = remove(node.left, key, start);
+        } else {
+            node.right = remove(node.right, key, start);
+        }
+        return update(node);
+    }
+
+    private static Node findOverlap(Node node, long start, long end) {
+        while (node != null && node.maxEnd > start) {
+            if (node.start < end && node.end > start) {
+                return node;
+            }
+            if (node.left != null && node.left.maxEnd > start) {
+                Node found = findOverlap(node.left, start, end);
+                if (found != null) {
+                    return found;
+                }
+            }
+            if (node.start >= end) {
+                // правее лежат только интервалы, начинающиеся ещё позже
+                return null;
+            }
+            node = node.right;
+        }
+        return null;
+    }
+
+    // [узлы меньше (start, key), узлы не меньше (start, key)]
+    private static Node[] split(Node node, long start, UUID key) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (compare(start, key, node) > 0) {
+            Node[] parts = split(node.right, start, key);
+            node.right = parts[0];
+            return new Node[]{update(node), parts[1]};
+        }
+        Node[] parts = split(node.left, start, key);
+        node.left = parts[1];
+        return new Node[]{parts[0], update(node)};
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        }
+        right.left = merge(left, right.left);
+        return update(right);
+    }
+
+    private static int compare(long start, UUID key, Node node) {
+        int cmp = Long.compare(start, node.start);
+        return cmp != 0 ? cmp : key.compareTo(node.key);
+    }
+
+    private static Node update(Node node) {
+        long maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+        return node;
+    }
+
+    private static final class Node {
+        private final UUID key;
+        private final long start;
+        private final long end;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private long maxEnd;
+        private Node left;
+        private Node right;
+
+        private Node(UUID key, long start, long end) {
+            this.key = key;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package valentinakondr.booking.service.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import valentinakondr.booking.dto.BookingDto;
+import valentinakondr.booking.repo.BookingExportRow;
+import valentinakondr.booking.repo.BookingRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Выгрузка пишет строки в ответ по мере чтения курсора; в памяти одновременно только порция fetch size
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingExporter {
+
+    private static final String CSV_HEADER = "id,userId,username,roomId,startDate,endDate,status,createdAt";
+
+    private final BookingRepository bookingRepo;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    public long export(LocalDate from, LocalDate to, ExportFormat format, OutputStream out) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        // поток ответа работает вне запроса, поэтому курсору нужна своя транзакция
+        Long rows = readOnly.execute(status -> {
+            try (Stream<BookingExportRow> stream = bookingRepo.streamCreatedBetween(from.atStartOfDay(), to.plusDays(1).atStartOfDay())) {
+                return format == ExportFormat.CSV ? writeCsv(stream.iterator(), out) : writeNdjson(stream.iterator(), out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        log.info("[booking.export.success] from={} to={} format={} rows={}", from, to, format, rows);
+        return rows;
+    }
+
+    private long writeCsv(Iterator<BookingExportRow> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        long count = 0;
+        while (rows.hasNext()) {
+            BookingExportRow row = rows.next();
+            writer.write(row.getId().toString());
+            writer.write(',');
+            writer.write(row.getUserId().toString());
+            writer.write(',');
+            writer.write(csv(row.getUsername()));
+            writer.write(',');
+            writer.write(row.getRoomId().toString());
+            writer.write(',');
+            writer.write(row.getStartDate().toString());
+            writer.write(',');
+            writer.write(row.getEndDate().toString());
+            writer.write(',');
+            writer.write(row.getStatus().name());
+            writer.write(',');
+            writer.write(row.getCreatedAt().toString());
+            writer.write('\n');
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    private long writeNdjson(Iterator<BookingExportRow> rows, OutputStream out) throws IOException {
+        long count = 0;
+        try (SequenceWriter writer = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(out)) {
+            while (rows.hasNext()) {
+                BookingExportRow row = rows.next();
+                writer.write(new BookingDto(
+                        row.getId(),
+                        row.getUserId(),
+                        row.getUsername(),
+                        row.getRoomId(),
+                        row.getStartDate(),
+                        row.getEndDate(),
+                        row.getStatus().name(),
+                        row.getCreatedAt()
+                ));
+                count++;
+            }
+        }
+        if (count > 0) {
+            out.write('\n');
+        }
+        out.flush();
+        return count;
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
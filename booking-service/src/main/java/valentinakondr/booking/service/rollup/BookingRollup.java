@@ -0,0 +1,140 @@
+package valentinakondr.booking.service.rollup;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import valentinakondr.booking.domain.booking.BookingStatus;
+import valentinakondr.booking.dto.BookingRollupDto;
+import valentinakondr.booking.service.view.BookingEvent;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Дневные счётчики по номерам. Изменения копятся в памяти (compute атомарен по ключу)
+// и периодически досчитываются в booking_daily_rollup; день - дата изменения статуса.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingRollup {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Key, Counters> pending = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void on(BookingEvent event) {
+        long nights = nights(event);
+        Key key = new Key(LocalDate.now(), event.roomId());
+        pending.compute(key, (k, counters) -> {
+            Counters c = counters != null ? counters : new Counters();
+            if (event.previousStatus() == null) {
+                c.created++;
+            }
+            if (event.status() == BookingStatus.CONFIRMED) {
+                c.confirmed++;
+                c.roomNights += nights;
+            } else if (event.status() == BookingStatus.CANCELLED) {
+                c.cancelled++;
+                // ночи считаются при подтверждении, отмена подтверждённой брони их возвращает
+                if (event.previousStatus() == BookingStatus.CONFIRMED) {
+                    c.roomNights -= nights;
+                }
+            }
+            return c;
+        });
+    }
+
+    @Scheduled(initialDelayString = "${booking.rollup.flush-interval}", fixedDelayString = "${booking.rollup.flush-interval}")
+    @PreDestroy
+    public void flush() {
+        // забираем счётчики атомарно: события после этого момента попадут в новую запись и следующий flush
+        Map<Key, Counters> batch = new HashMap<>();
+        for (Key key : pending.keySet()) {
+            pending.computeIfPresent(key, (k, counters) -> {
+                batch.put(k, counters);
+                return null;
+            });
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> batch.forEach(this::upsert));
+            log.info("[booking.rollup.flush] keys={}", batch.size());
+        } catch (RuntimeException e) {
+            // возвращаем несохранённое, чтобы досчитать при следующем flush
+            batch.forEach((key, counters) -> pending.merge(key, counters, Counters::add));
+            log.error("[booking.rollup.flush.fail] keys={} error={}", batch.size(), e.getMessage(), e);
+        }
+    }
+
+    public List<BookingRollupDto> read(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query("""
+                        select rollup_date, room_id, created, confirmed, cancelled, room_nights
+                        from booking_daily_rollup
+                        where rollup_date between ? and ?
+                        order by rollup_date, room_id
+                        """,
+                (rs, rowNum) -> new BookingRollupDto(
+                        rs.getObject("rollup_date", LocalDate.class),
+                        rs.getObject("room_id", UUID.class),
+                        rs.getLong("created"),
+                        rs.getLong("confirmed"),
+                        rs.getLong("cancelled"),
+                        rs.getLong("room_nights")
+                ),
+                from, to);
+    }
+
+    private void upsert(Key key, Counters counters) {
+        int updated = jdbcTemplate.update("""
+                        update booking_daily_rollup
+                        set created = created + ?, confirmed = confirmed + ?, cancelled = cancelled + ?, room_nights = room_nights + ?
+                        where rollup_date = ? and room_id = ?
+                        """,
+                counters.created, counters.confirmed, counters.cancelled, counters.roomNights, key.day(), key.roomId());
+        if (updated == 0) {
+            jdbcTemplate.update("""
+                            insert into booking_daily_rollup (rollup_date, room_id, created, confirmed, cancelled, room_nights)
+                            values (?, ?, ?, ?, ?, ?)
+                            """,
+                    key.day(), key.roomId(), counters.created, counters.confirmed, counters.cancelled, counters.roomNights);
+        }
+    }
+
+    // однодневная бронь занимает номер на одну ночь, как и в индексе занятости
+    private static long nights(BookingEvent event) {
+        return Math.max(1, ChronoUnit.DAYS.between(event.startDate(), event.endDate()));
+    }
+
+    private record Key(LocalDate day, UUID roomId) {
+    }
+
+    // меняется только внутри compute/merge, под блокировкой ключа
+    private static final class Counters {
+        private long created;
+        private long confirmed;
+        private long cancelled;
+        private long roomNights;
+
+        private Counters add(Counters other) {
+            created += other.created;
+            confirmed += other.confirmed;
+            cancelled += other.cancelled;
+            roomNights += other.roomNights;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package valentinakondr.booking.service.stream;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import valentinakondr.booking.domain.booking.BookingView;
+import valentinakondr.booking.dto.BookingDto;
+import valentinakondr.booking.repo.BookingViewRepository;
+import valentinakondr.booking.service.view.BookingEvent;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Раздача изменений бронирований подписчикам SSE внутри процесса.
+// Запись в сокет идёт на отдельном пуле: медленный клиент не задерживает поток, изменивший бронирование.
+// Запись блокирующая, поэтому клиент, который не принял событие за send-timeout, отключается и освобождает поток пула.
+@Component
+@Slf4j
+public class BookingEventBus {
+
+    private final Executor executor;
+    private final BookingViewRepository viewRepo;
+    private final int bufferSize;
+    private final long timeout;
+    private final long sendTimeoutNanos;
+
+    private final Map<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    public BookingEventBus(@Qualifier("bookingStreamExecutor") Executor executor,
+                           BookingViewRepository viewRepo,
+                           @Value("${booking.stream.buffer-size}") int bufferSize,
+                           @Value("${booking.stream.timeout}") long timeout,
+                           @Value("${booking.stream.send-timeout}") long sendTimeout) {
+        this.executor = executor;
+        this.viewRepo = viewRepo;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.sendTimeoutNanos = sendTimeout * 1_000_000;
+    }
+
+    public SseEmitter subscribe(UUID userId) {
+        return subscribe(userId, new SseEmitter(timeout));
+    }
+
+    SseEmitter subscribe(UUID userId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(userId, emitter);
+
+        subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        // текущее состояние активных бронирований, старые первыми; читается после регистрации,
+        // поэтому изменение, случившееся между подпиской и чтением, не теряется
+        List<BookingView> current = viewRepo.findFirstPage(userId, null, LocalDate.now(), null, Limit.of(bufferSize));
+        for (int i = current.size() - 1; i >= 0; i--) {
+            subscriber.offer(toDto(current.get(i)));
+        }
+
+        log.debug("[booking.stream.subscribe] userId={} current={}", userId, current.size());
+        return emitter;
+    }
+
+    // повторяет отправку, отклонённую переполненным пулом, и отключает клиентов, застрявших на записи
+    @Scheduled(initialDelayString = "${booking.stream.sweep-interval}", fixedDelayString = "${booking.stream.sweep-interval}")
+    public void sweep() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.sweep(now)));
+    }
+
+    @EventListener
+    public void on(BookingEvent event) {
+        Set<Subscriber> targets = subscribers.get(event.userId());
+        if (targets == null) {
+            return;
+        }
+        BookingDto booking = new BookingDto(
+                event.bookingId(),
+                event.userId(),
+                event.username(),
+                event.roomId(),
+                event.startDate(),
+                event.endDate(),
+                event.status().name(),
+                event.createdAt()
+        );
+        targets.forEach(subscriber -> subscriber.offer(booking));
+    }
+
+    private static BookingDto toDto(BookingView view) {
+        return new BookingDto(
+                view.getId(),
+                view.getUserId(),
+                view.getUsername(),
+                view.getRoomId(),
+                view.getStartDate(),
+                view.getEndDate(),
+                view.getStatus().name(),
+                view.getCreatedAt()
+        );
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+        log.debug("[booking.stream.unsubscribe] userId={}", subscriber.userId);
+    }
+
+    private final class Subscriber {
+        private final UUID userId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<BookingDto> buffer = new ArrayDeque<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // System.nanoTime() начала текущей записи, 0 - запись не идёт
+        private volatile long sendStartedAt;
+
+        private Subscriber(UUID userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        private void offer(BookingDto booking) {
+            synchronized (buffer) {
+                // клиенту важен последний статус, поэтому при переполнении теряем самое старое событие
+                if (buffer.size() == bufferSize) {
+                    BookingDto dropped = buffer.pollFirst();
+                    log.warn("[booking.stream.drop] userId={} bookingId={} status={}", userId, dropped.id(), dropped.status());
+                }
+                buffer.addLast(booking);
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // события остаются в буфере, отправку повторит sweep
+                draining.set(false);
+                log.warn("[booking.stream.rejected] userId={} reason=executor_saturated", userId);
+            }
+        }
+
+        private void drain() {
+            try {
+                BookingDto booking;
+                while ((booking = poll()) != null) {
+                    sendStartedAt = System.nanoTime();
+                    emitter.send(SseEmitter.event()
+                            .id(booking.id().toString())
+                            .name("booking")
+                            .data(booking));
+                    sendStartedAt = 0;
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("[booking.stream.closed] userId={} error={}", userId, e.getMessage());
+                unsubscribe(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                sendStartedAt = 0;
+                draining.set(false);
+            }
+            // событие могло прийти между последним poll и сбросом флага
+            if (!isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void sweep(long now) {
+            long startedAt = sendStartedAt;
+            if (startedAt != 0 && now - startedAt > sendTimeoutNanos) {
+                // завершение асинхронного запроса закрывает соединение, и зависшая запись выходит с ошибкой
+                log.warn("[booking.stream.slow] userId={} reason=send_timeout", userId);
+                unsubscribe(this);
+                emitter.completeWithError(new TimeoutException("SSE send timed out"));
+                return;
+            }
+            if (!draining.get() && !isEmpty()) {
+                schedule();
+            }
+        }
+
+        private BookingDto poll() {
+            synchronized (buffer) {
+                return buffer.pollFirst();
+            }
+        }
+
+        private boolean isEmpty() {
+            synchronized (buffer) {
+                return buffer.isEmpty();
+            }
+        }
+    }
+}
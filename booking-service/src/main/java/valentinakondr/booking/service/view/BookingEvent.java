@@ -0,0 +1,36 @@
+package valentinakondr.booking.service.view;
+
+import valentinakondr.booking.domain.booking.Booking;
+import valentinakondr.booking.domain.booking.BookingStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// снимок бронирования после записи; публикуется при каждом изменении статуса
+public record BookingEvent(
+        UUID bookingId,
+        UUID userId,
+        String username,
+        UUID roomId,
+        LocalDate startDate,
+        LocalDate endDate,
+        BookingStatus status,
+        BookingStatus previousStatus,
+        LocalDateTime createdAt
+) {
+    // previousStatus == null - бронирование только что создано
+    public static BookingEvent of(Booking booking, String username, BookingStatus previousStatus) {
+        return new BookingEvent(
+                booking.getId(),
+                booking.getUser().getId(),
+                username,
+                booking.getRoomId(),
+                booking.getStartDate(),
+                booking.getEndDate(),
+                booking.getStatus(),
+                previousStatus,
+                booking.getCreatedAt()
+        );
+    }
+}
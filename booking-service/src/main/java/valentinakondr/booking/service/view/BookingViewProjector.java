@@ -0,0 +1,122 @@
+package valentinakondr.booking.service.view;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import valentinakondr.booking.domain.booking.BookingView;
+import valentinakondr.booking.repo.BookingViewRepository;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Поддерживает booking_view в актуальном состоянии. Слушатель синхронный: ответ на запись
+// уходит клиенту уже после обновления проекции, поэтому следующий GET видит свои изменения.
+// Строки, которые не удалось записать, сверяются с bookings повторно, пока не сойдутся.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingViewProjector {
+
+    // строки booking_view, расходящиеся с bookings по статусу, датам или имени пользователя
+    private static final String DIVERGED = """
+            select b.id from bookings b
+            join users u on u.id = b.user_id
+            join booking_view v on v.id = b.id
+            where (v.status <> b.status or v.start_date <> b.start_date or v.end_date <> b.end_date or v.username <> u.username)
+            """;
+
+    private final BookingViewRepository viewRepo;
+    private final RoomHotelDirectory rooms;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Set<UUID> stale = ConcurrentHashMap.newKeySet();
+
+    @EventListener
+    public void on(BookingEvent event) {
+        try {
+            viewRepo.save(new BookingView(
+                    event.bookingId(),
+                    event.userId(),
+                    event.username(),
+                    event.roomId(),
+                    rooms.hotelOf(event.roomId()),
+                    event.startDate(),
+                    event.endDate(),
+                    event.status(),
+                    event.createdAt()
+            ));
+        } catch (Exception e) {
+            // запись в bookings уже прошла; строка будет пересобрана из bookings в reconcileStale
+            stale.add(event.bookingId());
+            log.error("[booking.view.fail] bookingId={} status={} error={}",
+                    event.bookingId(), event.status(), e.getMessage(), e);
+        }
+    }
+
+    // бронирования, записанные мимо сервиса (предзаполнение, старые данные) или с упавшей проекцией до рестарта,
+    // добираем и сверяем одним проходом
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int inserted = insertMissing("");
+        int updated = updateDiverged(DIVERGED);
+        log.info("[booking.view.backfill] inserted={} updated={}", inserted, updated);
+    }
+
+    @Scheduled(initialDelayString = "${booking.view.reconcile-interval}", fixedDelayString = "${booking.view.reconcile-interval}")
+    public void reconcileStale() {
+        for (UUID bookingId : List.copyOf(stale)) {
+            try {
+                int inserted = insertMissing("and b.id = ?", bookingId);
+                int updated = updateDiverged(DIVERGED + " and b.id = ?", bookingId);
+                stale.remove(bookingId);
+                log.info("[booking.view.reconcile] bookingId={} inserted={} updated={}", bookingId, inserted, updated);
+            } catch (Exception e) {
+                log.warn("[booking.view.reconcile.fail] bookingId={} error={}", bookingId, e.getMessage());
+            }
+        }
+    }
+
+    private int insertMissing(String condition, Object... args) {
+        return jdbcTemplate.update("""
+                insert into booking_view (id, user_id, username, room_id, start_date, end_date, status, created_at)
+                select b.id, b.user_id, u.username, b.room_id, b.start_date, b.end_date, b.status, b.created_at
+                from bookings b
+                join users u on u.id = b.user_id
+                where not exists (select 1 from booking_view v where v.id = b.id)
+                """ + condition, args);
+    }
+
+    private int updateDiverged(String diverged, Object... args) {
+        return jdbcTemplate.update("""
+                update booking_view v
+                set (status, start_date, end_date, username) = (
+                    select b.status, b.start_date, b.end_date, u.username
+                    from bookings b
+                    join users u on u.id = b.user_id
+                    where b.id = v.id)
+                where v.id in (%s)
+                """.formatted(diverged), args);
+    }
+
+    // отель для строк из backfill определяется в контексте запроса, когда hotel-service доступен с токеном
+    public void assignMissingHotels() {
+        List<UUID> roomIds = viewRepo.findRoomIdsWithoutHotel();
+        if (roomIds.isEmpty()) {
+            return;
+        }
+        rooms.hotelsOf(roomIds).forEach((roomId, hotelId) -> {
+            int updated = viewRepo.assignHotel(roomId, hotelId);
+            log.debug("[booking.view.hotel.assign] roomId={} hotelId={} rows={}", roomId, hotelId, updated);
+        });
+    }
+
+    public void renameUser(UUID userId, String username) {
+        viewRepo.renameUser(userId, username);
+    }
+}
@@ -0,0 +1,85 @@
+package valentinakondr.booking.service.view;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import valentinakondr.booking.client.HotelClient;
+import valentinakondr.booking.client.RoomDto;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// номер не переезжает между отелями, поэтому roomId -> hotelId кэшируется без срока жизни.
+// Номера, которых не оказалось в hotel-service, помнятся ограниченное время, чтобы не перезапрашивать список на каждый промах.
+@Component
+@Slf4j
+public class RoomHotelDirectory {
+
+    private final HotelClient hotel;
+    private final Map<UUID, UUID> hotels = new ConcurrentHashMap<>();
+    private final Cache<UUID, Boolean> unknown;
+
+    public RoomHotelDirectory(HotelClient hotel,
+                              @Value("${booking.view.unknown-room-ttl}") Duration unknownTtl,
+                              @Value("${booking.view.unknown-room-cache-size}") long unknownCacheSize) {
+        this.hotel = hotel;
+        this.unknown = Caffeine.newBuilder()
+                .expireAfterWrite(unknownTtl)
+                .maximumSize(unknownCacheSize)
+                .build();
+    }
+
+    // только кэш: вызывается на пути записи, где нельзя ждать hotel-service; промахи добирает hotelsOf
+    public UUID hotelOf(UUID roomId) {
+        return hotels.get(roomId);
+    }
+
+    public Map<UUID, UUID> hotelsOf(Collection<UUID> roomIds) {
+        List<UUID> missing = roomIds.stream()
+                .filter(roomId -> !hotels.containsKey(roomId) && unknown.getIfPresent(roomId) == null)
+                .toList();
+        if (!missing.isEmpty() && refresh()) {
+            missing.stream()
+                    .filter(roomId -> !hotels.containsKey(roomId))
+                    .forEach(roomId -> unknown.put(roomId, Boolean.TRUE));
+        }
+        Map<UUID, UUID> result = new HashMap<>();
+        roomIds.forEach(roomId -> {
+            UUID hotelId = hotels.get(roomId);
+            if (hotelId != null) {
+                result.put(roomId, hotelId);
+            }
+        });
+        return result;
+    }
+
+    public void remember(List<RoomDto> rooms) {
+        rooms.stream()
+                .filter(room -> room.hotelId() != null)
+                .forEach(room -> {
+                    hotels.put(room.id(), room.hotelId());
+                    unknown.invalidate(room.id());
+                });
+    }
+
+    // false - список не получен; промахи тогда не запоминаются как неизвестные
+    private synchronized boolean refresh() {
+        try {
+            List<RoomDto> rooms = hotel.getAllRooms();
+            remember(rooms);
+            log.debug("[booking.view.rooms.refresh] rooms={}", rooms.size());
+            return true;
+        } catch (Exception e) {
+            // без токена запроса (старт, фоновые задачи) hotel-service не ответит; отель проставится позже
+            log.warn("[booking.view.rooms.refresh.fail] error={}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+create table users (
+    id       uuid         not null,
+    username varchar(255) not null,
+    password varchar(255) not null,
+    role     varchar(255) not null,
+    primary key (id),
+    constraint uk_users_username unique (username)
+);
+
+create table bookings (
+    id         uuid         not null,
+    user_id    uuid         not null,
+    room_id    uuid         not null,
+    start_date date         not null,
+    end_date   date         not null,
+    status     varchar(32)  not null,
+    created_at timestamp(6) not null,
+    request_id uuid,
+    primary key (id),
+    constraint uk_bookings_request_id unique (request_id),
+    constraint fk_bookings_user foreign key (user_id) references users (id),
+    constraint ck_bookings_status check (status in ('PENDING', 'CONFIRMED', 'CANCELLED'))
+);
+
+-- история пользователя: keyset-пагинация по (created_at DESC, id DESC) внутри user_id
+create index idx_bookings_user_created on bookings (user_id, created_at, id);
+
+-- поиск пересечений по номеру
+create index idx_bookings_room_dates on bookings (room_id, start_date, end_date);
+
+-- выборки по периоду создания (выгрузки, архивирование)
+create index idx_bookings_created on bookings (created_at);
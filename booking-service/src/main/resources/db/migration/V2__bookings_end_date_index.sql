@@ -0,0 +1,2 @@
+-- загрузка актуальных бронирований в индекс занятости номеров при старте
+create index idx_bookings_end_date on bookings (end_date, status);
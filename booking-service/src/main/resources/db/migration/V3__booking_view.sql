@@ -0,0 +1,22 @@
+-- денормализованная проекция бронирований для чтения (CQRS), пишется из BookingViewProjector
+create table booking_view (
+    id         uuid         not null,
+    user_id    uuid         not null,
+    username   varchar(255) not null,
+    room_id    uuid         not null,
+    hotel_id   uuid,
+    start_date date         not null,
+    end_date   date         not null,
+    status     varchar(32)  not null,
+    created_at timestamp(6) not null,
+    primary key (id)
+);
+
+-- история пользователя: keyset-пагинация по (created_at DESC, id DESC) внутри user_id
+create index idx_booking_view_user_created on booking_view (user_id, created_at, id);
+
+-- бронирования отеля за период; hotel_id is null - строки, для которых отель ещё не определён
+create index idx_booking_view_hotel_dates on booking_view (hotel_id, start_date, end_date);
+
+-- проставление отеля по номеру
+create index idx_booking_view_room on booking_view (room_id);
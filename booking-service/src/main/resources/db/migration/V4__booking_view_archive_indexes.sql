@@ -0,0 +1,3 @@
+-- отбор кандидатов в архив: прошедшие по дате выезда и давно отменённые
+create index idx_booking_view_end_date on booking_view (end_date);
+create index idx_booking_view_status_created on booking_view (status, created_at);
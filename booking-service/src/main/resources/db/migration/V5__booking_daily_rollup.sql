@@ -0,0 +1,10 @@
+-- дневные агрегаты по номерам; пополняются BookingRollup инкрементально, GROUP BY по bookings не нужен
+create table booking_daily_rollup (
+    rollup_date date   not null,
+    room_id     uuid   not null,
+    created     bigint not null,
+    confirmed   bigint not null,
+    cancelled   bigint not null,
+    room_nights bigint not null,
+    primary key (rollup_date, room_id)
+);
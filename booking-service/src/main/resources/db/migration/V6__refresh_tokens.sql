@@ -0,0 +1,18 @@
+-- refresh-токены хранятся только как SHA-256, поиск по хэшу - через уникальный индекс
+create table refresh_tokens (
+    id         uuid         not null,
+    token_hash varchar(64)  not null,
+    user_id    uuid         not null,
+    username   varchar(255) not null,
+    role       varchar(255) not null,
+    expires_at timestamp(6) not null,
+    primary key (id),
+    constraint uk_refresh_tokens_hash unique (token_hash),
+    constraint fk_refresh_tokens_user foreign key (user_id) references users (id) on delete cascade
+);
+
+-- отзыв всех токенов пользователя
+create index idx_refresh_tokens_user on refresh_tokens (user_id);
+
+-- очистка истёкших
+create index idx_refresh_tokens_expires on refresh_tokens (expires_at);
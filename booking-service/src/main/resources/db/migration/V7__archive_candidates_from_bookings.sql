@@ -0,0 +1,5 @@
+-- кандидаты в архив отбираются из bookings: по end_date работает idx_bookings_end_date, для отменённых нужен (status, created_at)
+create index idx_bookings_status_created on bookings (status, created_at);
+
+drop index idx_booking_view_end_date;
+drop index idx_booking_view_status_created;
@@ -0,0 +1,188 @@
+package valentinakondr.booking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import valentinakondr.testsupport.nativeimage.NativeApplication;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Контроллеры booking-service против native image: jjwt (выдача и проверка токенов), Hibernate (lazy User через
+// enhancement), Feign в hotel-service - вместо него заглушка, адрес передаётся через simple discovery.
+class BookingNativeIT {
+
+    private static final String ADMIN_USERNAME = "valentinakondr.admin";
+    private static final String ADMIN_PASSWORD = "Admin123!";
+    private static final UUID ROOM_ID = UUID.randomUUID();
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final AtomicInteger confirmCalls = new AtomicInteger();
+    private static final AtomicInteger releaseCalls = new AtomicInteger();
+
+    private static HttpServer hotelStub;
+    private static NativeApplication app;
+
+    @BeforeAll
+    static void start() throws Exception {
+        hotelStub = HttpServer.create(new InetSocketAddress("localhost", NativeApplication.freePort()), 0);
+        hotelStub.createContext("/api/rooms", BookingNativeIT::handleHotel);
+        hotelStub.start();
+
+        app = NativeApplication.start(
+                "--spring.cloud.discovery.client.simple.instances.hotel-service[0].uri=http://localhost:"
+                        + hotelStub.getAddress().getPort(),
+                "--booking.archive.dir=" + Files.createTempDirectory("booking-native-archive"));
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        if (app != null) {
+            app.close();
+        }
+        if (hotelStub != null) {
+            hotelStub.stop(0);
+        }
+    }
+
+    private static void handleHotel(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (path.endsWith("/confirm-availability")) {
+            confirmCalls.incrementAndGet();
+            exchange.sendResponseHeaders(204, -1);
+        } else if (path.endsWith("/release")) {
+            releaseCalls.incrementAndGet();
+            exchange.sendResponseHeaders(204, -1);
+        } else {
+            byte[] body = objectMapper.writeValueAsBytes(new Object[]{Map.of(
+                    "id", ROOM_ID, "hotelId", UUID.randomUUID(), "number", "101",
+                    "available", true, "timesBooked", 0)});
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        }
+        exchange.close();
+    }
+
+    private static HttpRequest.Builder json(String path, Object body) throws IOException {
+        return HttpRequest.newBuilder(app.uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body), StandardCharsets.UTF_8));
+    }
+
+    private static String login(String username, String password) throws Exception {
+        HttpResponse<String> response = app.send(json("/user/auth", Map.of("username", username, "password", password)));
+        assertEquals(200, response.statusCode(), response.body());
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    // --------------------
+    // GET /actuator/health/readiness
+    // --------------------
+
+    @Test
+    void readinessProbe_shouldReturnUp_withoutToken() throws Exception {
+        HttpResponse<String> response = app.send(HttpRequest.newBuilder(app.uri("/actuator/health/readiness")));
+
+        assertEquals(200, response.statusCode());
+        assertEquals("UP", objectMapper.readTree(response.body()).get("status").asText());
+    }
+
+    // --------------------
+    // /user (jjwt)
+    // --------------------
+
+    @Test
+    void register_thenRefresh_shouldIssueTokens() throws Exception {
+        String username = "native-" + UUID.randomUUID();
+        HttpResponse<String> registered = app.send(json("/user/register",
+                Map.of("username", username, "password", "Native123!")));
+        assertEquals(201, registered.statusCode(), registered.body());
+        JsonNode tokens = objectMapper.readTree(registered.body());
+        assertFalse(tokens.get("token").asText().isBlank());
+
+        HttpResponse<String> refreshed = app.send(json("/user/refresh",
+                Map.of("refreshToken", tokens.get("refreshToken").asText())));
+        assertEquals(200, refreshed.statusCode(), refreshed.body());
+        assertFalse(objectMapper.readTree(refreshed.body()).get("token").asText().isBlank());
+    }
+
+    @Test
+    void getUserBookings_shouldReturn403_whenNoToken() throws Exception {
+        HttpResponse<String> response = app.send(HttpRequest.newBuilder(app.uri("/bookings")));
+
+        assertEquals(403, response.statusCode());
+    }
+
+    // --------------------
+    // /booking (Hibernate + Feign)
+    // --------------------
+
+    @Test
+    void createBooking_thenGetAndCancel_shouldGoThroughHotelService() throws Exception {
+        String token = login(ADMIN_USERNAME, ADMIN_PASSWORD);
+        LocalDate start = LocalDate.now().plusYears(1).plusDays(confirmCalls.get());
+
+        HttpResponse<String> created = app.send(json("/booking", Map.of(
+                "autoSelect", true, "startDate", start.toString(), "endDate", start.plusDays(2).toString()))
+                .header("Authorization", "Bearer " + token));
+        assertEquals(201, created.statusCode(), created.body());
+        JsonNode booking = objectMapper.readTree(created.body());
+        assertEquals(ROOM_ID.toString(), booking.get("roomId").asText());
+        assertEquals(ADMIN_USERNAME, booking.get("username").asText());
+        assertTrue(confirmCalls.get() > 0);
+
+        String id = booking.get("id").asText();
+        HttpResponse<String> fetched = app.send(HttpRequest.newBuilder(app.uri("/booking/" + id))
+                .header("Authorization", "Bearer " + token));
+        assertEquals(200, fetched.statusCode(), fetched.body());
+
+        HttpResponse<String> cancelled = app.send(HttpRequest.newBuilder(app.uri("/booking/" + id))
+                .header("Authorization", "Bearer " + token)
+                .DELETE());
+        assertEquals(204, cancelled.statusCode(), cancelled.body());
+        assertTrue(releaseCalls.get() > 0);
+    }
+
+    @Test
+    void getUserBookings_shouldReturnPage_withIssuedToken() throws Exception {
+        String token = login(ADMIN_USERNAME, ADMIN_PASSWORD);
+
+        HttpResponse<String> response = app.send(HttpRequest.newBuilder(app.uri("/bookings"))
+                .header("Authorization", "Bearer " + token)
+                .header("X-Correlation-Id", "native-it-1"));
+
+        assertEquals(200, response.statusCode(), response.body());
+        assertNotNull(objectMapper.readTree(response.body()).get("items"));
+        assertEquals("native-it-1", response.headers().firstValue("X-Correlation-Id").orElse(null));
+    }
+
+    @Test
+    void getAdminBookings_shouldReturn200_forAdmin() throws Exception {
+        String token = login(ADMIN_USERNAME, ADMIN_PASSWORD);
+
+        LocalDate from = LocalDate.now();
+        HttpResponse<String> response = app.send(HttpRequest.newBuilder(app.uri("/admin/bookings?hotelId="
+                        + UUID.randomUUID() + "&from=" + from + "&to=" + from.plusDays(30)))
+                .header("Authorization", "Bearer " + token));
+
+        assertEquals(200, response.statusCode(), response.body());
+    }
+}
@@ -0,0 +1,216 @@
+package valentinakondr.booking.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import valentinakondr.booking.dto.BookingDto;
+import valentinakondr.booking.dto.BookingRollupDto;
+import valentinakondr.booking.exception.InvalidRequestException;
+import valentinakondr.booking.service.BookingService;
+import valentinakondr.booking.service.export.ExportFormat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "eureka.client.register-with-eureka=false",
+        "eureka.client.fetch-registry=false",
+        "spring.cloud.discovery.enabled=false"
+})
+@AutoConfigureMockMvc
+class AdminBookingControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private BookingService bookingService;
+
+    private static SecurityMockMvcRequestPostProcessors.JwtRequestPostProcessor jwtRole(String role) {
+        return jwt().authorities(List.of(new SimpleGrantedAuthority("ROLE_" + role)));
+    }
+
+    // --------------------
+    // GET /admin/bookings (ADMIN)
+    // --------------------
+
+    @Test
+    void getHotelBookings_shouldReturn4xx_whenNoAuth() throws Exception {
+        mockMvc.perform(get("/admin/bookings")
+                        .param("hotelId", UUID.randomUUID().toString())
+                        .param("from", "2026-01-01")
+                        .param("to", "2026-01-07"))
+                .andExpect(status().is4xxClientError());
+    }
+
+    @Test
+    void getHotelBookings_shouldReturn403_whenNotAdmin() throws Exception {
+        mockMvc.perform(get("/admin/bookings")
+                        .with(jwtRole("USER"))
+                        .param("hotelId", UUID.randomUUID().toString())
+                        .param("from", "2026-01-01")
+                        .param("to", "2026-01-07"))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.status").value(403));
+
+        verify(bookingService, never()).findByHotel(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void getHotelBookings_shouldReturn200_whenAdmin() throws Exception {
+        UUID hotelId = UUID.randomUUID();
+        UUID bookingId = UUID.randomUUID();
+        LocalDate from = LocalDate.of(2026, 1, 1);
+        LocalDate to = LocalDate.of(2026, 1, 7);
+
+        BookingDto booking = new BookingDto(
+                bookingId,
+                UUID.randomUUID(),
+                "user1",
+                UUID.randomUUID(),
+                from.plusDays(1),
+                from.plusDays(3),
+                "CONFIRMED",
+                LocalDateTime.now()
+        );
+
+        when(bookingService.findByHotel(any(), eq(hotelId), eq(from), eq(to), eq(50))).thenReturn(List.of(booking));
+
+        mockMvc.perform(get("/admin/bookings")
+                        .with(jwtRole("ADMIN"))
+                        .param("hotelId", hotelId.toString())
+                        .param("from", "2026-01-01")
+                        .param("to", "2026-01-07")
+                        .param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(bookingId.toString()))
+                .andExpect(jsonPath("$[0].username").value("user1"));
+
+        verify(bookingService).findByHotel(any(), eq(hotelId), eq(from), eq(to), eq(50));
+    }
+
+    @Test
+    void getHotelBookings_shouldReturn400_withErrorBody_whenInvalidRequest() throws Exception {
+        when(bookingService.findByHotel(any(), any(), any(), any(), any()))
+                .thenThrow(new InvalidRequestException("hotelId, from and to are required"));
+
+        mockMvc.perform(get("/admin/bookings")
+                        .with(jwtRole("ADMIN")))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.message").value("hotelId, from and to are required"));
+    }
+
+    // --------------------
+    // GET /admin/bookings/rollup (ADMIN)
+    // --------------------
+
+    @Test
+    void getRollup_shouldReturn403_whenNotAdmin() throws Exception {
+        mockMvc.perform(get("/admin/bookings/rollup")
+                        .with(jwtRole("USER"))
+                        .param("from", "2026-01-01")
+                        .param("to", "2026-01-31"))
+                .andExpect(status().isForbidden());
+
+        verify(bookingService, never()).rollup(any(), any(), any());
+    }
+
+    @Test
+    void getRollup_shouldReturn200_whenAdmin() throws Exception {
+        LocalDate day = LocalDate.of(2026, 1, 5);
+        UUID roomId = UUID.randomUUID();
+
+        when(bookingService.rollup(any(), eq(day), eq(day)))
+                .thenReturn(List.of(new BookingRollupDto(day, roomId, 3, 2, 1, 5)));
+
+        mockMvc.perform(get("/admin/bookings/rollup")
+                        .with(jwtRole("ADMIN"))
+                        .param("from", "2026-01-05")
+                        .param("to", "2026-01-05"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].day").value("2026-01-05"))
+                .andExpect(jsonPath("$[0].roomId").value(roomId.toString()))
+                .andExpect(jsonPath("$[0].created").value(3))
+                .andExpect(jsonPath("$[0].confirmed").value(2))
+                .andExpect(jsonPath("$[0].cancelled").value(1))
+                .andExpect(jsonPath("$[0].roomNights").value(5));
+    }
+
+    // --------------------
+    // GET /admin/bookings/export (ADMIN)
+    // --------------------
+
+    @Test
+    void exportBookings_shouldReturn403_whenNotAdmin() throws Exception {
+        mockMvc.perform(get("/admin/bookings/export")
+                        .with(jwtRole("USER"))
+                        .param("from", "2026-01-01")
+                        .param("to", "2026-01-31"))
+                .andExpect(status().isForbidden());
+
+        verify(bookingService, never()).export(any(), any(), any(), any());
+    }
+
+    @Test
+    void exportBookings_shouldStreamCsv_whenAdmin() throws Exception {
+        LocalDate from = LocalDate.of(2026, 1, 1);
+        LocalDate to = LocalDate.of(2026, 1, 31);
+        StreamingResponseBody body = out -> out.write("id,userId\n".getBytes(StandardCharsets.UTF_8));
+
+        when(bookingService.export(any(), eq(from), eq(to), eq(ExportFormat.CSV))).thenReturn(body);
+
+        MvcResult result = mockMvc.perform(get("/admin/bookings/export")
+                        .with(jwtRole("ADMIN"))
+                        .param("from", "2026-01-01")
+                        .param("to", "2026-01-31")
+                        .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"bookings-2026-01-01-2026-01-31.csv\""))
+                .andExpect(content().string("id,userId\n"));
+    }
+
+    @Test
+    void exportBookings_shouldReturn400_withErrorBody_whenUnknownFormat() throws Exception {
+        mockMvc.perform(get("/admin/bookings/export")
+                        .with(jwtRole("ADMIN"))
+                        .param("from", "2026-01-01")
+                        .param("to", "2026-01-31")
+                        .param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.message").value("Unknown export format: xml"));
+
+        verify(bookingService, never()).export(any(), any(), any(), any());
+    }
+}
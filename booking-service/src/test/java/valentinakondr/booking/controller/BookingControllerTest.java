@@ -1,28 +1,49 @@
 package valentinakondr.booking.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import valentinakondr.booking.dto.BookingDto;
+import valentinakondr.booking.dto.BookingFilterDto;
+import valentinakondr.booking.dto.BookingPageDto;
 import valentinakondr.booking.dto.CreateBookingRequestDto;
+import valentinakondr.booking.dto.CreateGroupBookingRequestDto;
+import valentinakondr.booking.dto.GroupBookingDto;
 import valentinakondr.booking.exception.InvalidRequestException;
+import valentinakondr.booking.exception.ResourceAlreadyExistsException;
 import valentinakondr.booking.exception.ResourceNotFoundException;
 import valentinakondr.booking.service.BookingService;
+import valentinakondr.identity.IdentityHeaders;
+import valentinakondr.websupport.CorrelationIdFilter;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
@@ -36,7 +57,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
         "eureka.client.enabled=false",
         "eureka.client.register-with-eureka=false",
         "eureka.client.fetch-registry=false",
-        "spring.cloud.discovery.enabled=false"
+        "spring.cloud.discovery.enabled=false",
+        "auth.identity.enabled=true",
+        "auth.identity.secret=identity-test-secret-0123456789abcdef"
 })
 @AutoConfigureMockMvc
 class BookingControllerTest {
@@ -47,9 +70,33 @@ class BookingControllerTest {
     @Autowired
     ObjectMapper objectMapper;
 
+    @Value("${jwt.secret}")
+    String secret;
+
+    @Autowired
+    IdentityHeaders identityHeaders;
+
     @MockBean
     BookingService bookingService;
 
+    private String token(String key) {
+        return Jwts.builder()
+                .claim("role", "USER")
+                .claim("uid", "8f9c2a6e-0d7b-4a51-9a3e-2b1c4d5e6f70")
+                .subject("user1")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(key.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    // заголовки личности в том виде, в каком их выставляет api-gateway
+    private HttpHeaders gatewayIdentity(String role) {
+        HttpHeaders headers = new HttpHeaders();
+        identityHeaders.sign("8f9c2a6e-0d7b-4a51-9a3e-2b1c4d5e6f70", "user1", role,
+                Instant.now().plusSeconds(60).getEpochSecond()).forEach(headers::set);
+        return headers;
+    }
+
     // --------------------
     // POST /booking
     // --------------------
@@ -137,6 +184,97 @@ class BookingControllerTest {
         verify(bookingService).create(any(), any());
     }
 
+    @Test
+    void createBooking_shouldReturn409_withErrorBody_whenRoomAlreadyBooked() throws Exception {
+        CreateBookingRequestDto request = new CreateBookingRequestDto(
+                UUID.randomUUID(),
+                false,
+                LocalDate.now().plusDays(1),
+                LocalDate.now().plusDays(3)
+        );
+
+        when(bookingService.create(any(), any()))
+                .thenThrow(new ResourceAlreadyExistsException("Room is already booked for the selected dates"));
+
+        mockMvc.perform(post("/booking")
+                        .with(user("user1"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409))
+                .andExpect(jsonPath("$.message").value("Room is already booked for the selected dates"));
+
+        verify(bookingService).create(any(), any());
+    }
+
+    // --------------------
+    // POST /bookings/group
+    // --------------------
+
+    @Test
+    void createGroupBooking_shouldReturn4xx_whenNoAuth() throws Exception {
+        CreateGroupBookingRequestDto request = new CreateGroupBookingRequestDto(List.of(
+                new CreateBookingRequestDto(UUID.randomUUID(), false, LocalDate.now().plusDays(1), LocalDate.now().plusDays(3))
+        ));
+
+        mockMvc.perform(post("/bookings/group")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().is4xxClientError());
+    }
+
+    @Test
+    void createGroupBooking_shouldReturn201_whenOk() throws Exception {
+        UUID userId = UUID.randomUUID();
+        LocalDate startDate = LocalDate.now().plusDays(1);
+        LocalDate endDate = LocalDate.now().plusDays(3);
+        UUID room1 = UUID.randomUUID();
+        UUID room2 = UUID.randomUUID();
+
+        CreateGroupBookingRequestDto request = new CreateGroupBookingRequestDto(List.of(
+                new CreateBookingRequestDto(room1, false, startDate, endDate),
+                new CreateBookingRequestDto(room2, false, startDate, endDate)
+        ));
+
+        GroupBookingDto response = new GroupBookingDto("CONFIRMED", List.of(
+                new BookingDto(UUID.randomUUID(), userId, "user1", room1, startDate, endDate, "CONFIRMED", LocalDateTime.now()),
+                new BookingDto(UUID.randomUUID(), userId, "user1", room2, startDate, endDate, "CONFIRMED", LocalDateTime.now())
+        ));
+
+        when(bookingService.createGroup(any(), any())).thenReturn(response);
+
+        mockMvc.perform(post("/bookings/group")
+                        .with(user("user1"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.status").value("CONFIRMED"))
+                .andExpect(jsonPath("$.bookings.length()").value(2))
+                .andExpect(jsonPath("$.bookings[0].roomId").value(room1.toString()))
+                .andExpect(jsonPath("$.bookings[1].roomId").value(room2.toString()));
+
+        verify(bookingService).createGroup(any(), any());
+    }
+
+    @Test
+    void createGroupBooking_shouldReturn400_withErrorBody_whenInvalidRequest() throws Exception {
+        CreateGroupBookingRequestDto request = new CreateGroupBookingRequestDto(List.of());
+
+        when(bookingService.createGroup(any(), any()))
+                .thenThrow(new InvalidRequestException("Group booking must contain at least one room"));
+
+        mockMvc.perform(post("/bookings/group")
+                        .with(user("user1"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.error").value("Bad Request"))
+                .andExpect(jsonPath("$.message").value("Group booking must contain at least one room"));
+
+        verify(bookingService).createGroup(any(), any());
+    }
+
     // --------------------
     // GET /bookings
     // --------------------
@@ -171,20 +309,139 @@ class BookingControllerTest {
                 LocalDateTime.now()
         );
 
-        when(bookingService.findAll(any())).thenReturn(List.of(b1, b2));
+        when(bookingService.findAll(any(), any())).thenReturn(new BookingPageDto(List.of(b1, b2), "next-cursor"));
 
         mockMvc.perform(get("/bookings")
                         .with(user("user1")))
                 .andExpect(status().isOk())
                 .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
 
-                .andExpect(jsonPath("$.length()").value(2))
-                .andExpect(jsonPath("$[0].id").value(b1.id().toString()))
-                .andExpect(jsonPath("$[0].username").value("user1"))
-                .andExpect(jsonPath("$[1].id").value(b2.id().toString()))
-                .andExpect(jsonPath("$[1].status").value("CANCELLED"));
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].id").value(b1.id().toString()))
+                .andExpect(jsonPath("$.items[0].username").value("user1"))
+                .andExpect(jsonPath("$.items[1].id").value(b2.id().toString()))
+                .andExpect(jsonPath("$.items[1].status").value("CANCELLED"))
+                .andExpect(jsonPath("$.nextCursor").value("next-cursor"));
+
+        verify(bookingService).findAll(any(), any());
+    }
+
+    @Test
+    void getUserBookings_shouldPutCorrelationIdIntoMdc_andEchoIt() throws Exception {
+        AtomicReference<String> seen = new AtomicReference<>();
+        when(bookingService.findAll(any(), any())).thenAnswer(invocation -> {
+            seen.set(MDC.get(CorrelationIdFilter.MDC_KEY));
+            return new BookingPageDto(List.of(), null);
+        });
+
+        mockMvc.perform(get("/bookings")
+                        .header(CorrelationIdFilter.HEADER, "req-42")
+                        .with(user("user1")))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CorrelationIdFilter.HEADER, "req-42"));
+
+        assertEquals("req-42", seen.get());
+        assertNull(MDC.get(CorrelationIdFilter.MDC_KEY));
+    }
+
+    @Test
+    void getUserBookings_shouldReturn200_whenBearerTokenValid() throws Exception {
+        when(bookingService.findAll(any(), any())).thenReturn(new BookingPageDto(List.of(), null));
+
+        mockMvc.perform(get("/bookings")
+                        .header("Authorization", "Bearer " + token(secret)))
+                .andExpect(status().isOk());
+
+        // повторный запрос с тем же токеном обслуживается из кэша проверенных токенов
+        mockMvc.perform(get("/bookings")
+                        .header("Authorization", "Bearer " + token(secret)))
+                .andExpect(status().isOk());
+
+        verify(bookingService, times(2)).findAll(any(), any());
+    }
+
+    @Test
+    void getUserBookings_shouldReturn4xx_whenBearerTokenSignedWithOtherKey() throws Exception {
+        mockMvc.perform(get("/bookings")
+                        .header("Authorization", "Bearer " + token("another-secret-another-secret-another-secret")))
+                .andExpect(status().is4xxClientError());
+
+        verify(bookingService, never()).findAll(any(), any());
+    }
+
+    @Test
+    void getUserBookings_shouldReturn200_whenGatewayIdentityValid() throws Exception {
+        when(bookingService.findAll(any(), any())).thenReturn(new BookingPageDto(List.of(), null));
+
+        mockMvc.perform(get("/bookings").headers(gatewayIdentity("USER")))
+                .andExpect(status().isOk());
+
+        verify(bookingService).findAll(any(), any());
+    }
+
+    @Test
+    void getUserBookings_shouldReturn4xx_whenGatewayIdentityForged() throws Exception {
+        HttpHeaders forged = gatewayIdentity("USER");
+        forged.set(IdentityHeaders.ROLE, "ADMIN");
+        mockMvc.perform(get("/bookings").headers(forged))
+                .andExpect(status().is4xxClientError());
+
+        verify(bookingService, never()).findAll(any(), any());
+    }
+
+    @Test
+    void getUserBookings_shouldPassPagingAndFilters() throws Exception {
+        when(bookingService.findAll(any(), any())).thenReturn(new BookingPageDto(List.of(), null));
+
+        mockMvc.perform(get("/bookings")
+                        .param("limit", "10")
+                        .param("after", "cursor-1")
+                        .param("status", "CONFIRMED")
+                        .param("from", "2025-01-01")
+                        .param("to", "2025-01-31")
+                        .with(user("user1")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(bookingService).findAll(any(), eq(new BookingFilterDto(
+                10, "cursor-1", "CONFIRMED", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31))));
+    }
+
+    @Test
+    void getUserBookings_shouldReturn400_withErrorBody_whenInvalidCursor() throws Exception {
+        when(bookingService.findAll(any(), any()))
+                .thenThrow(new InvalidRequestException("Invalid cursor"));
+
+        mockMvc.perform(get("/bookings")
+                        .param("after", "broken")
+                        .with(user("user1")))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+    }
+
+    // --------------------
+    // GET /bookings/stream
+    // --------------------
+
+    @Test
+    void streamBookings_shouldReturn4xx_whenNoAuth() throws Exception {
+        mockMvc.perform(get("/bookings/stream"))
+                .andExpect(status().is4xxClientError());
+    }
+
+    @Test
+    void streamBookings_shouldStartEventStream_whenOk() throws Exception {
+        when(bookingService.stream(any())).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/bookings/stream")
+                        .with(user("user1"))
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
 
-        verify(bookingService).findAll(any());
+        verify(bookingService).stream(any());
     }
 
     // --------------------
@@ -0,0 +1,187 @@
+package valentinakondr.booking.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import valentinakondr.booking.client.HotelClient;
+import valentinakondr.booking.domain.User;
+import valentinakondr.booking.dto.CreateBookingRequestDto;
+import valentinakondr.booking.repo.UserRepository;
+import valentinakondr.booking.service.UserService;
+import valentinakondr.booking.service.UserServiceImpl;
+import valentinakondr.booking.service.availability.RoomAvailabilityIndex;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Владелец бронирования берётся из claim "uid"; токены без него (выпущенные раньше) разрешаются по username.
+// Реальные сервисы и БД, hotel-service замокан.
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "eureka.client.register-with-eureka=false",
+        "eureka.client.fetch-registry=false",
+        "spring.cloud.discovery.enabled=false"
+})
+@AutoConfigureMockMvc
+class BookingOwnerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    UserRepository userRepo;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    UserServiceImpl tokens;
+
+    @Autowired
+    RoomAvailabilityIndex availabilityIndex;
+
+    @Value("${jwt.secret}")
+    String secret;
+
+    @MockBean
+    HotelClient hotel;
+
+    private User newUser() {
+        return userRepo.save(new User(null, "owner-" + UUID.randomUUID(), "{noop}secret", "USER"));
+    }
+
+    // как generateToken до появления claim "uid"
+    private String legacyToken(String username) {
+        return Jwts.builder()
+                .claim("role", "USER")
+                .subject(username)
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    private ResultActions book(String token, UUID roomId, LocalDate start) throws Exception {
+        CreateBookingRequestDto request = new CreateBookingRequestDto(roomId, false, start, start.plusDays(2));
+        return mockMvc.perform(post("/booking")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)));
+    }
+
+    private static LocalDate farFuture() {
+        return LocalDate.now().plusYears(3).plusDays(ThreadLocalRandom.current().nextInt(1000));
+    }
+
+    // --------------------
+    // токен с uid
+    // --------------------
+
+    @Test
+    void createBooking_shouldUseUidClaim() throws Exception {
+        User user = newUser();
+
+        book(tokens.generateToken(user.getId(), user.getUsername(), "USER"), UUID.randomUUID(), farFuture())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.userId").value(user.getId().toString()));
+    }
+
+    @Test
+    void createBooking_shouldReturn404AndFreeRoom_whenTokenOutlivedDeletedUser() throws Exception {
+        User user = newUser();
+        String token = tokens.generateToken(user.getId(), user.getUsername(), "USER");
+        userService.deleteUser(user.getId());
+        UUID roomId = UUID.randomUUID();
+        LocalDate start = farFuture();
+
+        book(token, roomId, start)
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("User not found"));
+
+        // нарушение внешнего ключа откатывает занятие номера в индексе
+        assertTrue(availabilityIndex.isFree(roomId, start, start.plusDays(2)));
+    }
+
+    // чужая бронь ищется по (id, user_id) и для удалённого пользователя: 403, а не 404 или 500
+    @Test
+    void cancelBooking_shouldReturn403_whenTokenOutlivedDeletedUser() throws Exception {
+        String owner = tokens.generateToken(newUser().getId(), "owner", "USER");
+        String body = book(owner, UUID.randomUUID(), farFuture())
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String bookingId = objectMapper.readTree(body).get("id").asText();
+
+        User deleted = newUser();
+        String token = tokens.generateToken(deleted.getId(), deleted.getUsername(), "USER");
+        userService.deleteUser(deleted.getId());
+
+        mockMvc.perform(delete("/booking/" + bookingId).header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    // --------------------
+    // токен без uid
+    // --------------------
+
+    @Test
+    void createBooking_shouldResolveOwnerByUsername_whenTokenHasNoUid() throws Exception {
+        User user = newUser();
+
+        book(legacyToken(user.getUsername()), UUID.randomUUID(), farFuture())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.userId").value(user.getId().toString()));
+    }
+
+    @Test
+    void createBooking_shouldReturn404_whenTokenHasNoUidAndUserDeleted() throws Exception {
+        User user = newUser();
+        String token = legacyToken(user.getUsername());
+        // у удаляемого пользователя не должно быть броней (FK), кэш прогреваем чтением списка
+        mockMvc.perform(get("/bookings").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        userService.deleteUser(user.getId());
+
+        book(token, UUID.randomUUID(), farFuture())
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("User not found"));
+    }
+
+    // удаление сбрасывает закэшированный username -> id: старый токен не привязан к удалённому id
+    @Test
+    void createBooking_shouldResolveRecreatedUser_whenTokenHasNoUid() throws Exception {
+        User user = newUser();
+        String token = legacyToken(user.getUsername());
+        // у удаляемого пользователя не должно быть броней (FK), кэш прогреваем чтением списка
+        mockMvc.perform(get("/bookings").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        userService.deleteUser(user.getId());
+        User recreated = userRepo.save(new User(null, user.getUsername(), "{noop}secret", "USER"));
+
+        book(token, UUID.randomUUID(), farFuture())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.userId").value(recreated.getId().toString()));
+    }
+}
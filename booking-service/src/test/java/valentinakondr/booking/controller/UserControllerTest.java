@@ -8,22 +8,27 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.web.servlet.MockMvc;
 import valentinakondr.booking.dto.AuthDto;
+import valentinakondr.booking.dto.BulkUserResultDto;
+import valentinakondr.booking.dto.RefreshRequestDto;
 import valentinakondr.booking.dto.TokenDto;
 import valentinakondr.booking.dto.UserDto;
 import valentinakondr.booking.exception.InvalidRequestException;
 import valentinakondr.booking.exception.ResourceAlreadyExistsException;
 import valentinakondr.booking.exception.ResourceNotFoundException;
+import valentinakondr.booking.exception.TooManyRequestsException;
 import valentinakondr.booking.service.UserService;
 
 import java.util.List;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
@@ -149,6 +154,22 @@ class UserControllerTest {
         verify(userService).login(any());
     }
 
+    @Test
+    void auth_shouldReturn429_withErrorBody_whenThrottled() throws Exception {
+        AuthDto request = new AuthDto("user1", "guess");
+
+        when(userService.login(any()))
+                .thenThrow(new TooManyRequestsException("Too many authentication attempts, retry later"));
+
+        mockMvc.perform(post("/user/auth")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.status").value(429))
+                .andExpect(jsonPath("$.error").value("Too Many Requests"))
+                .andExpect(jsonPath("$.message").value("Too many authentication attempts, retry later"));
+    }
+
     @Test
     void auth_shouldReturn400_withErrorBody_whenInvalidRequest() throws Exception {
         AuthDto request = new AuthDto(" ", "pass1");
@@ -167,6 +188,41 @@ class UserControllerTest {
         verify(userService).login(any());
     }
 
+    // --------------------
+    // POST /user/refresh (permitAll)
+    // --------------------
+
+    @Test
+    void refresh_shouldReturn200_whenOk() throws Exception {
+        RefreshRequestDto request = new RefreshRequestDto("refresh-1");
+
+        when(userService.refresh(any())).thenReturn(new TokenDto("token-new", "refresh-2"));
+
+        mockMvc.perform(post("/user/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("token-new"))
+                .andExpect(jsonPath("$.refreshToken").value("refresh-2"));
+
+        verify(userService).refresh(eq(request));
+    }
+
+    @Test
+    void refresh_shouldReturn401_withErrorBody_whenTokenInvalid() throws Exception {
+        RefreshRequestDto request = new RefreshRequestDto("used-or-unknown");
+
+        when(userService.refresh(any()))
+                .thenThrow(new BadCredentialsException("Invalid refresh token"));
+
+        mockMvc.perform(post("/user/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.status").value(401))
+                .andExpect(jsonPath("$.message").value("Invalid refresh token"));
+    }
+
     // --------------------
     // ADMIN endpoints: /user, PATCH /user, DELETE /user/{id}
     // --------------------
@@ -233,6 +289,56 @@ class UserControllerTest {
         verify(userService).createUser(any());
     }
 
+    @Test
+    void createUsers_shouldReturn403_whenNotAdmin() throws Exception {
+        List<UserDto> request = List.of(new UserDto(null, "employee1", "pass", "USER"));
+
+        mockMvc.perform(post("/user/bulk")
+                        .with(jwtRole("USER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void createUsers_shouldReturn200_whenOk() throws Exception {
+        List<UserDto> request = List.of(
+                new UserDto(null, "employee1", "pass", "USER"),
+                new UserDto(null, "employee2", "pass", "USER"),
+                new UserDto(null, "alex.petrov", "pass", "USER")
+        );
+
+        when(userService.createUsers(any())).thenReturn(new BulkUserResultDto(2, List.of("alex.petrov")));
+
+        mockMvc.perform(post("/user/bulk")
+                        .with(jwtRole("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.skipped[0]").value("alex.petrov"));
+
+        verify(userService).createUsers(eq(request));
+    }
+
+    @Test
+    void createUsers_shouldReturn400_withErrorBody_whenInvalidRequest() throws Exception {
+        List<UserDto> request = List.of(new UserDto(null, " ", "pass", "USER"));
+
+        when(userService.createUsers(any()))
+                .thenThrow(new InvalidRequestException("User #0: username and password are required"));
+
+        mockMvc.perform(post("/user/bulk")
+                        .with(jwtRole("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.message").value("User #0: username and password are required"));
+    }
+
     @Test
     void updateUser_shouldReturn403_whenNoToken() throws Exception {
         UserDto request = new UserDto(UUID.randomUUID(), "updUser", "newpass", "ADMIN");
@@ -0,0 +1,98 @@
+package valentinakondr.booking.repo;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import valentinakondr.booking.domain.booking.BookingStatus;
+import valentinakondr.testsupport.queryplan.QueryPlans;
+import valentinakondr.testsupport.queryplan.SqlCapture;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "eureka.client.register-with-eureka=false",
+        "eureka.client.fetch-registry=false",
+        "spring.cloud.discovery.enabled=false"
+})
+@Import(SqlCapture.Config.class)
+class RepositoryQueryPlanTest {
+
+    @Autowired
+    BookingRepository bookingRepo;
+
+    @Autowired
+    BookingViewRepository viewRepo;
+
+    @Autowired
+    UserRepository userRepo;
+
+    @Autowired
+    RefreshTokenRepository refreshTokenRepo;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    // Каждый объявленный в репозиториях метод должен быть здесь, иначе тест упадёт на проверке покрытия
+    private Map<String, Runnable> queries() {
+        UUID id = UUID.randomUUID();
+        LocalDate from = LocalDate.now();
+        LocalDate to = from.plusDays(7);
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("BookingRepository.findByIdAndUserId", () -> bookingRepo.findByIdAndUserId(id, id));
+        queries.put("BookingRepository.streamCreatedBetween", () -> transactionTemplate.executeWithoutResult(status -> {
+            try (var rows = bookingRepo.streamCreatedBetween(LocalDateTime.now().minusDays(30), LocalDateTime.now())) {
+                rows.forEach(row -> { });
+            }
+        }));
+        queries.put("BookingRepository.findArchivableByEndDate",
+                () -> bookingRepo.findArchivableByEndDate(from, Limit.of(20)));
+        queries.put("BookingRepository.findArchivableByStatus",
+                () -> bookingRepo.findArchivableByStatus(BookingStatus.CANCELLED, LocalDateTime.now(), Limit.of(20)));
+        queries.put("BookingRepository.findByStatusNotAndEndDateGreaterThanEqual",
+                () -> bookingRepo.findByStatusNotAndEndDateGreaterThanEqual(BookingStatus.CANCELLED, from));
+        queries.put("BookingViewRepository.findFirstPage",
+                () -> viewRepo.findFirstPage(id, BookingStatus.CONFIRMED, from, to, Limit.of(20)));
+        queries.put("BookingViewRepository.findPageAfter",
+                () -> viewRepo.findPageAfter(id, LocalDateTime.now(), id, BookingStatus.CONFIRMED, from, to, Limit.of(20)));
+        queries.put("BookingViewRepository.findByIdAndUserId", () -> viewRepo.findByIdAndUserId(id, id));
+        queries.put("BookingViewRepository.findByHotel", () -> viewRepo.findByHotel(id, from, to, Limit.of(20)));
+        queries.put("BookingViewRepository.findRoomIdsWithoutHotel", () -> viewRepo.findRoomIdsWithoutHotel());
+        queries.put("BookingViewRepository.assignHotel", () -> viewRepo.assignHotel(id, id));
+        queries.put("BookingViewRepository.renameUser", () -> viewRepo.renameUser(id, "alex.petrov"));
+        queries.put("UserRepository.existsByUsername", () -> userRepo.existsByUsername("alex.petrov"));
+        queries.put("UserRepository.findByUsername", () -> userRepo.findByUsername("alex.petrov"));
+        queries.put("UserRepository.findIdByUsername", () -> userRepo.findIdByUsername("alex.petrov"));
+        queries.put("UserRepository.findExistingUsernames",
+                () -> userRepo.findExistingUsernames(List.of("alex.petrov", "maria.ivanova")));
+        queries.put("RefreshTokenRepository.findByTokenHash", () -> refreshTokenRepo.findByTokenHash("0".repeat(64)));
+        queries.put("RefreshTokenRepository.consume", () -> refreshTokenRepo.consume(id));
+        queries.put("RefreshTokenRepository.revokeByUserId", () -> refreshTokenRepo.revokeByUserId(id));
+        queries.put("RefreshTokenRepository.deleteExpired", () -> refreshTokenRepo.deleteExpired(LocalDateTime.now().minusYears(1)));
+        return queries;
+    }
+
+    @Test
+    void everyRepositoryQuery_shouldBeCovered() {
+        QueryPlans.assertCovered(queries(), BookingRepository.class, BookingViewRepository.class, UserRepository.class,
+                RefreshTokenRepository.class);
+    }
+
+    @Test
+    void everyRepositoryQuery_shouldUseIndex() {
+        QueryPlans.assertIndexed(jdbcTemplate, queries());
+    }
+}
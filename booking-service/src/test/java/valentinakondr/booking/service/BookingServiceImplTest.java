@@ -0,0 +1,134 @@
+package valentinakondr.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import valentinakondr.booking.client.HotelClient;
+import valentinakondr.booking.domain.booking.BookingStatus;
+import valentinakondr.booking.dto.BookingDto;
+import valentinakondr.booking.dto.CreateBookingRequestDto;
+import valentinakondr.booking.dto.CreateGroupBookingRequestDto;
+import valentinakondr.booking.dto.GroupBookingDto;
+import valentinakondr.booking.repo.BookingRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// Пул групповых подтверждений из двух потоков без очереди: третья одновременная задача отклоняется
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "eureka.client.register-with-eureka=false",
+        "eureka.client.fetch-registry=false",
+        "spring.cloud.discovery.enabled=false",
+        "booking.group.pool-size=2",
+        "booking.group.queue-capacity=0"
+})
+class BookingServiceImplTest {
+
+    private static final Authentication ADMIN = new TestingAuthenticationToken("valentinakondr.admin", null, "ROLE_ADMIN");
+
+    @Autowired
+    BookingService bookingService;
+
+    @Autowired
+    BookingRepository bookingRepo;
+
+    @MockBean
+    HotelClient hotel;
+
+    private static CreateBookingRequestDto item(UUID roomId, LocalDate start) {
+        return new CreateBookingRequestDto(roomId, false, start, start.plusDays(2));
+    }
+
+    private static LocalDate farFuture() {
+        return LocalDate.now().plusYears(5).plusDays(ThreadLocalRandom.current().nextInt(1000));
+    }
+
+    // --------------------
+    // createGroup: частичный отказ и компенсация
+    // --------------------
+
+    @Test
+    void createGroup_shouldReleaseAfterAllConfirmsFinish_whenOneConfirmFails() {
+        UUID slowRoom = UUID.randomUUID();
+        UUID failingRoom = UUID.randomUUID();
+        LocalDate start = farFuture();
+        Map<String, Long> finishedAt = new ConcurrentHashMap<>();
+
+        doAnswer(invocation -> {
+            Thread.sleep(300);
+            finishedAt.put("confirm", System.nanoTime());
+            return null;
+        }).when(hotel).confirm(eq(slowRoom), any());
+        doThrow(new IllegalStateException("hotel-service down")).when(hotel).confirm(eq(failingRoom), any());
+        doAnswer(invocation -> {
+            finishedAt.putIfAbsent("release", System.nanoTime());
+            return null;
+        }).when(hotel).release(any(), any());
+
+        GroupBookingDto result = bookingService.createGroup(ADMIN,
+                new CreateGroupBookingRequestDto(List.of(item(slowRoom, start), item(failingRoom, start))));
+
+        assertEquals(BookingStatus.CANCELLED.name(), result.status());
+        verify(hotel).release(eq(slowRoom), any());
+        verify(hotel).release(eq(failingRoom), any());
+        // компенсация не обгоняет подтверждение, которое ещё выполняется
+        assertTrue(finishedAt.get("release") > finishedAt.get("confirm"));
+        for (BookingDto booking : result.bookings()) {
+            assertEquals(BookingStatus.CANCELLED, bookingRepo.findById(booking.id()).orElseThrow().getStatus());
+        }
+    }
+
+    @Test
+    void createGroup_shouldRunEveryRelease_whenExecutorRejectsThem() {
+        UUID failingRoom = UUID.randomUUID();
+        List<UUID> rooms = List.of(failingRoom, UUID.randomUUID(), UUID.randomUUID());
+        LocalDate start = farFuture();
+
+        doThrow(new IllegalStateException("hotel-service down")).when(hotel).confirm(eq(failingRoom), any());
+        // два release занимают оба потока пула, третий отклоняется и должен выполниться на вызывающем потоке
+        doAnswer(invocation -> {
+            Thread.sleep(100);
+            return null;
+        }).when(hotel).release(any(), any());
+
+        GroupBookingDto result = bookingService.createGroup(ADMIN,
+                new CreateGroupBookingRequestDto(rooms.stream().map(room -> item(room, start)).toList()));
+
+        assertEquals(BookingStatus.CANCELLED.name(), result.status());
+        rooms.forEach(room -> verify(hotel, times(1)).release(eq(room), any()));
+    }
+
+    @Test
+    void createGroup_shouldFreeRooms_afterCompensation() {
+        UUID room = UUID.randomUUID();
+        LocalDate start = farFuture();
+        doThrow(new IllegalStateException("hotel-service down")).when(hotel).confirm(eq(room), any());
+
+        GroupBookingDto failed = bookingService.createGroup(ADMIN,
+                new CreateGroupBookingRequestDto(List.of(item(room, start))));
+        assertEquals(BookingStatus.CANCELLED.name(), failed.status());
+
+        // номер снова свободен на те же даты
+        GroupBookingDto retried = bookingService.createGroup(ADMIN,
+                new CreateGroupBookingRequestDto(List.of(item(UUID.randomUUID(), start), item(room, start))));
+        assertEquals(BookingStatus.CANCELLED.name(), retried.status());
+        verify(hotel, times(2)).release(eq(room), any());
+    }
+}
@@ -0,0 +1,148 @@
+package valentinakondr.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.web.servlet.MockMvc;
+import valentinakondr.booking.domain.RefreshToken;
+import valentinakondr.booking.domain.User;
+import valentinakondr.booking.dto.RefreshRequestDto;
+import valentinakondr.booking.dto.TokenDto;
+import valentinakondr.booking.dto.UserDto;
+import valentinakondr.booking.repo.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Токены выдаются отдельным пользователям, созданным в тесте: отзыв и очистка не задевают сидовые учётки
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "eureka.client.register-with-eureka=false",
+        "eureka.client.fetch-registry=false",
+        "spring.cloud.discovery.enabled=false"
+})
+@AutoConfigureMockMvc
+class RefreshTokenStoreTest {
+
+    @Autowired
+    RefreshTokenStore store;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    UserRepository userRepo;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private User user() {
+        return userRepo.save(new User(null, "refresh." + UUID.randomUUID(), "{noop}secret", "USER"));
+    }
+
+    private String issue(User user) {
+        return store.issue(user.getId(), user.getUsername(), user.getRole());
+    }
+
+    private void expire(UUID userId) {
+        jdbcTemplate.update("update refresh_tokens set expires_at = ? where user_id = ?",
+                LocalDateTime.now().minusMinutes(1), userId);
+    }
+
+    private long tokens(UUID userId) {
+        return jdbcTemplate.queryForObject("select count(*) from refresh_tokens where user_id = ?", Long.class, userId);
+    }
+
+    @Test
+    void refresh_shouldReturn401_whenTokenIsReused() throws Exception {
+        String token = issue(user());
+        String body = objectMapper.writeValueAsString(new RefreshRequestDto(token));
+
+        String first = mockMvc.perform(post("/user/refresh").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertNotEquals(token, objectMapper.readValue(first, TokenDto.class).refreshToken());
+
+        mockMvc.perform(post("/user/refresh").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message").value("Invalid refresh token"));
+    }
+
+    @Test
+    void consume_shouldReturnCopiedIdentity_once() {
+        User user = user();
+        String token = issue(user);
+
+        RefreshToken consumed = store.consume(token);
+
+        assertEquals(user.getId(), consumed.getUserId());
+        assertEquals(user.getUsername(), consumed.getUsername());
+        assertEquals("USER", consumed.getRole());
+        assertEquals(0, tokens(user.getId()));
+        assertThrows(BadCredentialsException.class, () -> store.consume(token));
+    }
+
+    // истёкший токен тоже гасится: повторная попытка уже не отличается от неизвестного токена
+    @Test
+    void consume_shouldRejectExpiredToken_andDeleteIt() {
+        User user = user();
+        String token = issue(user);
+        expire(user.getId());
+
+        BadCredentialsException expired = assertThrows(BadCredentialsException.class, () -> store.consume(token));
+        assertEquals("Refresh token expired", expired.getMessage());
+        assertEquals(0, tokens(user.getId()));
+
+        BadCredentialsException unknown = assertThrows(BadCredentialsException.class, () -> store.consume(token));
+        assertEquals("Invalid refresh token", unknown.getMessage());
+    }
+
+    @Test
+    void updateUser_shouldRevokeAllRefreshTokensOfThatUser() {
+        User user = user();
+        String first = issue(user);
+        String second = issue(user);
+        User other = user();
+        String untouched = issue(other);
+
+        userService.updateUser(new UserDto(user.getId(), user.getUsername() + ".renamed", null, "USER"));
+
+        assertThrows(BadCredentialsException.class, () -> store.consume(first));
+        assertThrows(BadCredentialsException.class, () -> store.consume(second));
+        assertEquals(other.getId(), store.consume(untouched).getUserId());
+    }
+
+    @Test
+    void purgeExpired_shouldDeleteOnlyExpiredTokens() {
+        User expiredOwner = user();
+        issue(expiredOwner);
+        issue(expiredOwner);
+        expire(expiredOwner.getId());
+        User liveOwner = user();
+        String live = issue(liveOwner);
+
+        store.purgeExpired();
+
+        assertEquals(0, tokens(expiredOwner.getId()));
+        assertEquals(1, tokens(liveOwner.getId()));
+        assertEquals(liveOwner.getId(), store.consume(live).getUserId());
+    }
+}
@@ -0,0 +1,158 @@
+package valentinakondr.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import valentinakondr.booking.domain.User;
+import valentinakondr.booking.dto.BulkUserResultDto;
+import valentinakondr.booking.dto.UserDto;
+import valentinakondr.booking.exception.InvalidRequestException;
+import valentinakondr.booking.repo.UserRepository;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Маленькие лимиты, чтобы пачка из нескольких пользователей резалась на батчи
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "eureka.client.register-with-eureka=false",
+        "eureka.client.fetch-registry=false",
+        "spring.cloud.discovery.enabled=false",
+        "booking.users.bulk.max-size=5",
+        "booking.users.bulk.batch-size=2"
+})
+@AutoConfigureMockMvc
+class UserServiceImplTest {
+
+    private static final String INSERT = "insert into users (id, username, password, role) values (?, ?, ?, ?)";
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    UserRepository userRepo;
+
+    @Autowired
+    PasswordEncoder passwordEncoder;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @SpyBean
+    JdbcTemplate jdbcTemplate;
+
+    // у каждого теста свои имена: пользователи остаются в общей БД
+    private final String prefix = "bulk." + UUID.randomUUID().toString().substring(0, 8) + ".";
+
+    @AfterEach
+    void resetSpy() {
+        reset(jdbcTemplate);
+    }
+
+    private UserDto user(int i) {
+        return new UserDto(null, prefix + i, "pass-" + i, "USER");
+    }
+
+    private List<UserDto> users(int count) {
+        return IntStream.range(0, count).mapToObj(this::user).toList();
+    }
+
+    private String storedHash(String username) {
+        return userRepo.findByUsername(username).map(User::getPassword).orElseThrow();
+    }
+
+    @Test
+    void createUsers_shouldSkipExistingAndRepeatedUsernames() {
+        UserDto repeated = new UserDto(null, prefix + 0, "other-pass", "ADMIN");
+
+        BulkUserResultDto result = userService.createUsers(List.of(user(0), new UserDto(null, "alex.petrov", "x", "USER"),
+                user(1), repeated));
+
+        assertEquals(2, result.created());
+        assertEquals(List.of("alex.petrov", prefix + 0), result.skipped());
+        // создаётся первое вхождение, повтор из того же запроса его не перезаписывает
+        assertTrue(passwordEncoder.matches("pass-0", storedHash(prefix + 0)));
+        assertEquals("USER", userRepo.findByUsername(prefix + 0).orElseThrow().getRole());
+        assertFalse(passwordEncoder.matches("x", storedHash("alex.petrov")));
+    }
+
+    @Test
+    void createUsers_shouldReject_moreThanMaxSize() {
+        InvalidRequestException e = assertThrows(InvalidRequestException.class, () -> userService.createUsers(users(6)));
+
+        assertEquals("Too many users: max 5", e.getMessage());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        assertFalse(userRepo.existsByUsername(prefix + 0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createUsers_shouldInsertInBatchesOfConfiguredSize() {
+        userService.createUsers(users(5));
+
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(3)).batchUpdate(eq(INSERT), batches.capture());
+        assertEquals(List.of(2, 2, 1), batches.getAllValues().stream().map(List::size).toList());
+        // порядок строк в батчах совпадает с порядком запроса
+        assertEquals(prefix + 4, batches.getAllValues().get(2).get(0)[1]);
+    }
+
+    // хэши считаются срезами параллельно, но каждый пользователь получает хэш своего пароля
+    @Test
+    void createUsers_shouldStoreEachUsersOwnHash_acrossSlices() {
+        userService.createUsers(users(5));
+
+        for (int i = 0; i < 5; i++) {
+            String hash = storedHash(prefix + i);
+            assertTrue(passwordEncoder.matches("pass-" + i, hash));
+            assertFalse(passwordEncoder.matches("pass-" + (i + 1) % 5, hash));
+        }
+    }
+
+    // пользователь появился между проверкой существующих и вставкой
+    @Test
+    void createUsers_shouldReturn409_whenInsertHitsDuplicateKey() throws Exception {
+        doThrow(new DuplicateKeyException("uk_users_username")).when(jdbcTemplate).batchUpdate(eq(INSERT), anyList());
+
+        mockMvc.perform(post("/user/bulk")
+                        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(users(3))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Some users were created concurrently, retry the import"));
+
+        assertFalse(userRepo.existsByUsername(prefix + 0));
+    }
+}
@@ -0,0 +1,107 @@
+package valentinakondr.booking.service.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import valentinakondr.booking.domain.booking.BookingStatus;
+import valentinakondr.booking.domain.booking.BookingView;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArchiveSegmentTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    @TempDir
+    Path dir;
+
+    static BookingView row(UUID userId, String username, LocalDate start, BookingStatus status, UUID hotelId) {
+        return new BookingView(UUID.randomUUID(), userId, username, UUID.randomUUID(), hotelId,
+                start, start.plusDays(2), status, LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123_456_000).plusDays(start.getDayOfMonth()));
+    }
+
+    @Test
+    void write_shouldRoundTripUserRows_throughIndexOnDisk() throws Exception {
+        UUID alex = UUID.randomUUID();
+        UUID maria = UUID.randomUUID();
+        UUID hotelId = UUID.randomUUID();
+        List<BookingView> rows = List.of(
+                row(alex, "alex.petrov", DAY, BookingStatus.CONFIRMED, hotelId),
+                row(maria, "maria.ivanova", DAY.plusDays(5), BookingStatus.CANCELLED, null),
+                row(alex, "alex.petrov", DAY.plusDays(10), BookingStatus.CANCELLED, null),
+                row(maria, "maria.ivanova", DAY.minusDays(3), BookingStatus.PENDING, hotelId)
+        );
+
+        SegmentIndex written = ArchiveSegment.write(dir, 7, rows);
+        SegmentIndex index = ArchiveSegment.readIndex(dir.resolve("000000000007.idx"));
+
+        assertEquals(7, index.sequence());
+        assertEquals(4, index.rows());
+        assertEquals(DAY.minusDays(3), index.minStartDate());
+        assertEquals(DAY.plusDays(12), index.maxEndDate());
+        assertEquals(written.users(), index.users());
+        assertEquals("alex.petrov", index.users().get(alex).username());
+
+        Comparator<BookingView> byId = Comparator.comparing(BookingView::getId);
+        List<BookingView> expected = new ArrayList<>(rows.stream().filter(row -> row.getUserId().equals(alex)).toList());
+        List<BookingView> actual = new ArrayList<>(ArchiveSegment.readUser(index, alex));
+        expected.sort(byId);
+        actual.sort(byId);
+        assertEquals(expected, actual);
+
+        assertEquals(2, ArchiveSegment.readUser(index, maria).size());
+        assertTrue(ArchiveSegment.readUser(index, UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void readUser_shouldKeepStatusAndMissingHotel() throws Exception {
+        UUID userId = UUID.randomUUID();
+        BookingView cancelled = row(userId, "alex.petrov", DAY, BookingStatus.CANCELLED, null);
+
+        SegmentIndex index = ArchiveSegment.write(dir, 1, List.of(cancelled));
+        BookingView read = ArchiveSegment.readUser(index, userId).get(0);
+
+        assertEquals(BookingStatus.CANCELLED, read.getStatus());
+        assertNull(read.getHotelId());
+        assertEquals(cancelled.getCreatedAt(), read.getCreatedAt());
+    }
+
+    @Test
+    void findOwner_shouldLocateRowOwner_andFilterUnknownIds() throws Exception {
+        List<BookingView> rows = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            rows.add(row(UUID.randomUUID(), "user" + i, DAY.plusDays(i % 20), BookingStatus.CONFIRMED, null));
+        }
+        SegmentIndex index = ArchiveSegment.write(dir, 1, rows);
+
+        for (BookingView row : rows) {
+            assertTrue(index.ids().mightContain(row.getId()));
+            assertEquals(Optional.of(row.getUserId()), ArchiveSegment.findOwner(index, row.getId()));
+        }
+        assertEquals(Optional.empty(), ArchiveSegment.findOwner(index, UUID.randomUUID()));
+
+        // ~1% ложных срабатываний: из 1000 случайных id "возможно" отвечает на единицы
+        long falsePositives = java.util.stream.IntStream.range(0, 1000)
+                .filter(i -> index.ids().mightContain(UUID.randomUUID()))
+                .count();
+        assertTrue(falsePositives < 50, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void isIndex_shouldMatchOnlyIndexFiles() {
+        assertTrue(ArchiveSegment.isIndex(dir.resolve("000000000001.idx")));
+        assertFalse(ArchiveSegment.isIndex(dir.resolve("000000000001.seg.gz")));
+        assertFalse(ArchiveSegment.isIndex(dir.resolve("000000000001.idx.tmp")));
+    }
+}
@@ -0,0 +1,105 @@
+package valentinakondr.booking.service.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import valentinakondr.booking.domain.booking.BookingStatus;
+import valentinakondr.booking.domain.booking.BookingView;
+import valentinakondr.booking.service.BookingCursor;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static valentinakondr.booking.service.archive.ArchiveSegmentTest.row;
+
+class BookingArchiveTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+    private static final UUID USER = UUID.randomUUID();
+
+    @TempDir
+    Path dir;
+
+    private BookingArchive archive() throws Exception {
+        BookingArchive archive = new BookingArchive(dir, 100);
+        archive.load();
+        return archive;
+    }
+
+    private static List<UUID> ids(List<BookingView> rows) {
+        return rows.stream().map(BookingView::getId).toList();
+    }
+
+    @Test
+    void findPage_shouldMergeSegments_newestFirst_afterReload() throws Exception {
+        BookingView first = row(USER, "alex.petrov", DAY, BookingStatus.CONFIRMED, null);
+        BookingView second = row(USER, "alex.petrov", DAY.plusDays(1), BookingStatus.CANCELLED, null);
+        BookingView third = row(USER, "alex.petrov", DAY.plusDays(2), BookingStatus.CONFIRMED, null);
+        BookingArchive archive = archive();
+        archive.append(List.of(first, third));
+        archive.append(List.of(second, row(UUID.randomUUID(), "maria.ivanova", DAY, BookingStatus.CONFIRMED, null)));
+
+        BookingArchive reloaded = archive();
+
+        assertEquals(ids(List.of(third, second, first)), ids(reloaded.findPage(USER, null, null, null, null, 10)));
+        assertEquals(ids(List.of(third, first)), ids(reloaded.findPage(USER, BookingStatus.CONFIRMED, null, null, null, 10)));
+        assertEquals(ids(List.of(third)), ids(reloaded.findPage(USER, null, null, null, null, 1)));
+
+        BookingCursor cursor = new BookingCursor(third.getCreatedAt(), third.getId());
+        assertEquals(ids(List.of(second, first)), ids(reloaded.findPage(USER, null, null, null, cursor, 10)));
+    }
+
+    @Test
+    void findPage_shouldFilterByDates_andSkipForeignUsers() throws Exception {
+        BookingView march = row(USER, "alex.petrov", DAY, BookingStatus.CONFIRMED, null);
+        BookingArchive archive = archive();
+        archive.append(List.of(march));
+
+        assertEquals(1, archive.findPage(USER, null, DAY.plusDays(1), DAY.plusDays(1), null, 10).size());
+        assertTrue(archive.findPage(USER, null, DAY.plusDays(3), null, null, 10).isEmpty());
+        assertTrue(archive.findPage(USER, null, null, DAY.minusDays(1), null, 10).isEmpty());
+        assertTrue(archive.findPage(UUID.randomUUID(), null, null, null, null, 10).isEmpty());
+    }
+
+    // сбой между записью сегмента и удалением строк: бронь архивируется повторно и схлопывается по id
+    @Test
+    void find_shouldDeduplicateRowsArchivedTwice() throws Exception {
+        BookingView booking = row(USER, "alex.petrov", DAY, BookingStatus.CANCELLED, null);
+        BookingArchive archive = archive();
+        archive.append(List.of(booking));
+        archive.append(List.of(booking));
+
+        assertEquals(1, archive.findPage(USER, null, null, null, null, 10).size());
+        assertEquals(Optional.of(booking.getId()), archive.find(USER, booking.getId()).map(BookingView::getId));
+        assertTrue(archive.find(UUID.randomUUID(), booking.getId()).isEmpty());
+    }
+
+    @Test
+    void findOwner_shouldSearchAllSegments() throws Exception {
+        BookingView older = row(USER, "alex.petrov", DAY, BookingStatus.CANCELLED, null);
+        UUID maria = UUID.randomUUID();
+        BookingView newer = row(maria, "maria.ivanova", DAY, BookingStatus.CONFIRMED, null);
+        BookingArchive archive = archive();
+        archive.append(List.of(older));
+        archive.append(List.of(newer));
+
+        assertEquals(Optional.of(USER), archive.findOwner(older.getId()));
+        assertEquals(Optional.of(maria), archive().findOwner(newer.getId()));
+        assertEquals(Optional.empty(), archive.findOwner(UUID.randomUUID()));
+    }
+
+    // сегмент без индекса - недописанный, при загрузке не учитывается
+    @Test
+    void load_shouldIgnoreSegmentWithoutIndex() throws Exception {
+        BookingArchive archive = archive();
+        archive.append(List.of(row(USER, "alex.petrov", DAY, BookingStatus.CANCELLED, null)));
+        Files.delete(dir.resolve("000000000001.idx"));
+
+        assertTrue(archive().findPage(USER, null, null, null, null, 10).isEmpty());
+    }
+}
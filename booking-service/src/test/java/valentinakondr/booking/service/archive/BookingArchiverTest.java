@@ -0,0 +1,138 @@
+package valentinakondr.booking.service.archive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import valentinakondr.booking.client.HotelClient;
+import valentinakondr.booking.domain.User;
+import valentinakondr.booking.domain.booking.Booking;
+import valentinakondr.booking.domain.booking.BookingStatus;
+import valentinakondr.booking.dto.BookingDto;
+import valentinakondr.booking.dto.BookingFilterDto;
+import valentinakondr.booking.dto.CreateBookingRequestDto;
+import valentinakondr.booking.exception.ResourceNotFoundException;
+import valentinakondr.booking.repo.BookingRepository;
+import valentinakondr.booking.repo.BookingViewRepository;
+import valentinakondr.booking.repo.UserRepository;
+import valentinakondr.booking.service.BookingService;
+import valentinakondr.booking.service.BookingServiceImpl;
+import valentinakondr.booking.service.view.BookingViewProjector;
+
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Архив включён на отдельной БД: архиватор удаляет строки, которые нужны остальным тестам
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "eureka.client.register-with-eureka=false",
+        "eureka.client.fetch-registry=false",
+        "spring.cloud.discovery.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:bookingdb-archive",
+        "booking.archive.enabled=true",
+        "booking.archive.initial-delay=3600000"
+})
+class BookingArchiverTest {
+
+    private static final Authentication ALEX = new TestingAuthenticationToken("alex.petrov", null, "ROLE_USER");
+    private static final Authentication KATYA = new TestingAuthenticationToken("katya.smirnova", null, "ROLE_USER");
+
+    @DynamicPropertySource
+    static void archiveDir(DynamicPropertyRegistry registry) throws Exception {
+        registry.add("booking.archive.dir", Files.createTempDirectory("booking-archive-test")::toString);
+    }
+
+    @Autowired
+    BookingArchiver archiver;
+
+    @Autowired
+    BookingService bookingService;
+
+    @Autowired
+    BookingRepository bookingRepo;
+
+    @Autowired
+    BookingViewRepository viewRepo;
+
+    @Autowired
+    UserRepository userRepo;
+
+    @Autowired
+    BookingViewProjector projector;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    HotelClient hotel;
+
+    private Booking saveDirectly(LocalDate start, BookingStatus status, LocalDateTime createdAt) {
+        User alex = userRepo.findByUsername("alex.petrov").orElseThrow();
+        Booking booking = BookingServiceImpl.newBooking(alex, start, start.plusDays(2), UUID.randomUUID());
+        booking.setStatus(status);
+        booking.setCreatedAt(createdAt);
+        return bookingRepo.save(booking);
+    }
+
+    @Test
+    void run_shouldArchiveFromBookings_andServeArchivedRowsWithHotOnes() {
+        LocalDate longAgo = LocalDate.now().minusYears(2);
+        // прошедшая бронь, у которой строка проекции отстала: в bookings она отменена
+        Booking stale = saveDirectly(longAgo, BookingStatus.CANCELLED, LocalDateTime.now().minusYears(2));
+        projector.backfill();
+        jdbcTemplate.update("update booking_view set status = 'CONFIRMED' where id = ?", stale.getId());
+        // давно отменённая бронь на будущее, строки проекции нет вовсе
+        Booking missing = saveDirectly(LocalDate.now().plusYears(1), BookingStatus.CANCELLED, LocalDateTime.now().minusYears(1));
+        BookingDto hot = bookingService.create(ALEX, new CreateBookingRequestDto(UUID.randomUUID(), false,
+                LocalDate.now().plusYears(2), LocalDate.now().plusYears(2).plusDays(1)));
+
+        archiver.run();
+
+        assertFalse(bookingRepo.existsById(stale.getId()));
+        assertFalse(viewRepo.existsById(stale.getId()));
+        assertFalse(bookingRepo.existsById(missing.getId()));
+        assertTrue(bookingRepo.existsById(hot.id()));
+
+        // статус берётся из bookings, а не из отставшей проекции
+        assertEquals(BookingStatus.CANCELLED.name(), bookingService.findById(ALEX, stale.getId()).status());
+        assertEquals(BookingStatus.CANCELLED.name(), bookingService.findById(ALEX, missing.getId()).status());
+
+        // горячие и архивные строки в одной выдаче, новые первыми
+        List<UUID> page = bookingService.findAll(ALEX, new BookingFilterDto(100, null, null, null, null)).items().stream()
+                .map(BookingDto::id)
+                .toList();
+        assertTrue(page.indexOf(hot.id()) >= 0);
+        assertTrue(page.indexOf(hot.id()) < page.indexOf(missing.getId()));
+        assertTrue(page.indexOf(missing.getId()) < page.indexOf(stale.getId()));
+
+        List<UUID> cancelled = bookingService.findAll(ALEX, new BookingFilterDto(100, null, "CANCELLED", longAgo, longAgo)).items().stream()
+                .map(BookingDto::id)
+                .toList();
+        assertEquals(List.of(stale.getId()), cancelled);
+    }
+
+    @Test
+    void findById_shouldReturn403ForForeignArchivedBooking_and404ForUnknown() {
+        Booking archived = saveDirectly(LocalDate.now().minusYears(3), BookingStatus.CONFIRMED, LocalDateTime.now().minusYears(3));
+
+        archiver.run();
+
+        assertFalse(bookingRepo.existsById(archived.getId()));
+        assertThrows(AccessDeniedException.class, () -> bookingService.findById(KATYA, archived.getId()));
+        assertThrows(ResourceNotFoundException.class, () -> bookingService.findById(KATYA, UUID.randomUUID()));
+    }
+}
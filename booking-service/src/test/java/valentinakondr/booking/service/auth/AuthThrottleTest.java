@@ -0,0 +1,62 @@
+package valentinakondr.booking.service.auth;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import valentinakondr.booking.exception.TooManyRequestsException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AuthThrottleTest {
+
+    // 2 попытки на IP, лимит по username не мешает
+    private final AuthThrottle throttle =
+            new AuthThrottle(2, 0, 1_000, 0, 1_000, List.of("10.0.0.5"), Runnable::run);
+
+    @AfterEach
+    void clearRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private void attempt(String remoteAddr, String forwardedFor, String username) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/user/auth");
+        request.setRemoteAddr(remoteAddr);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        throttle.acquire(username);
+    }
+
+    // каждая попытка с новым "IP" в заголовке всё равно расходует лимит адреса соединения
+    @Test
+    void acquire_shouldIgnoreForwardedFor_fromUntrustedAddress() {
+        attempt("203.0.113.7", "198.51.100.1", "user1");
+        attempt("203.0.113.7", "198.51.100.2", "user2");
+
+        assertThrows(TooManyRequestsException.class, () -> attempt("203.0.113.7", "198.51.100.3", "user3"));
+    }
+
+    @Test
+    void acquire_shouldUseLastForwardedFor_fromLoopback() {
+        attempt("127.0.0.1", "198.51.100.1", "user1");
+        attempt("127.0.0.1", "198.51.100.1", "user2");
+        // другой клиент за тем же шлюзом - свой бакет
+        attempt("::1", "203.0.113.9, 198.51.100.2", "user3");
+
+        assertThrows(TooManyRequestsException.class, () -> attempt("127.0.0.1", "198.51.100.1", "user4"));
+    }
+
+    @Test
+    void acquire_shouldUseForwardedFor_fromConfiguredProxy() {
+        attempt("10.0.0.5", "198.51.100.1", "user1");
+        attempt("10.0.0.5", "198.51.100.1", "user2");
+        attempt("10.0.0.5", "198.51.100.2", "user3");
+
+        assertThrows(TooManyRequestsException.class, () -> attempt("10.0.0.5", "198.51.100.1", "user4"));
+    }
+}
@@ -0,0 +1,101 @@
+package valentinakondr.booking.service.availability;
+
+import org.junit.jupiter.api.Test;
+import valentinakondr.booking.domain.booking.Booking;
+import valentinakondr.booking.domain.booking.BookingStatus;
+import valentinakondr.booking.repo.BookingRepository;
+import valentinakondr.booking.repo.BookingSlot;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RoomAvailabilityIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 6, 1);
+
+    private final BookingRepository bookingRepo = mock(BookingRepository.class);
+    private final RoomAvailabilityIndex index = new RoomAvailabilityIndex(bookingRepo);
+
+    private static Booking booking(UUID roomId, LocalDate start, LocalDate end) {
+        Booking booking = new Booking();
+        booking.setId(UUID.randomUUID());
+        booking.setRequestId(UUID.randomUUID());
+        booking.setRoomId(roomId);
+        booking.setStartDate(start);
+        booking.setEndDate(end);
+        booking.setStatus(BookingStatus.PENDING);
+        return booking;
+    }
+
+    private static BookingSlot slot(UUID roomId, LocalDate start, LocalDate end) {
+        BookingSlot slot = mock(BookingSlot.class);
+        when(slot.getId()).thenReturn(UUID.randomUUID());
+        when(slot.getRequestId()).thenReturn(null);
+        when(slot.getRoomId()).thenReturn(roomId);
+        when(slot.getStartDate()).thenReturn(start);
+        when(slot.getEndDate()).thenReturn(end);
+        return slot;
+    }
+
+    @Test
+    void tryReserve_shouldRejectOverlap_andAllowCheckoutDay() {
+        UUID room = UUID.randomUUID();
+
+        assertTrue(index.tryReserve(booking(room, DAY, DAY.plusDays(3))));
+        assertFalse(index.tryReserve(booking(room, DAY.plusDays(2), DAY.plusDays(5))));
+        assertTrue(index.tryReserve(booking(room, DAY.plusDays(3), DAY.plusDays(5))));
+        // другой номер на те же даты свободен
+        assertTrue(index.tryReserve(booking(UUID.randomUUID(), DAY, DAY.plusDays(3))));
+    }
+
+    @Test
+    void tryReserve_shouldTreatSameDayBookingAsOneNight() {
+        UUID room = UUID.randomUUID();
+        assertTrue(index.tryReserve(booking(room, DAY, DAY)));
+
+        assertFalse(index.isFree(room, DAY, DAY.plusDays(1)));
+        assertTrue(index.isFree(room, DAY.plusDays(1), DAY.plusDays(2)));
+    }
+
+    @Test
+    void release_shouldFreeDates() {
+        UUID room = UUID.randomUUID();
+        Booking booking = booking(room, DAY, DAY.plusDays(2));
+        index.tryReserve(booking);
+
+        index.release(booking);
+
+        assertTrue(index.isFree(room, DAY, DAY.plusDays(2)));
+        // повторное освобождение и освобождение неизвестного номера - без ошибок
+        index.release(booking);
+        index.release(booking(UUID.randomUUID(), DAY, DAY.plusDays(1)));
+    }
+
+    @Test
+    void load_shouldIndexActiveBookings() {
+        UUID room = UUID.randomUUID();
+        BookingSlot slot = slot(room, DAY, DAY.plusDays(4));
+        when(bookingRepo.findByStatusNotAndEndDateGreaterThanEqual(eq(BookingStatus.CANCELLED), any()))
+                .thenReturn(List.of(slot));
+
+        index.afterSingletonsInstantiated();
+
+        assertFalse(index.isFree(room, DAY.plusDays(1), DAY.plusDays(2)));
+        assertTrue(index.isFree(room, DAY.plusDays(4), DAY.plusDays(6)));
+
+        // бронь без requestId освобождается по id
+        Booking loaded = booking(room, DAY, DAY.plusDays(4));
+        loaded.setId(slot.getId());
+        loaded.setRequestId(null);
+        index.release(loaded);
+        assertTrue(index.isFree(room, DAY, DAY.plusDays(4)));
+    }
+}
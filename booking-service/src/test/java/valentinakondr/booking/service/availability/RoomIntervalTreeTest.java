@@ -0,0 +1,126 @@
+package valentinakondr.booking.service.availability;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoomIntervalTreeTest {
+
+    private record Interval(UUID key, long start, long end) {
+        boolean overlaps(long from, long to) {
+            return start < to && end > from;
+        }
+    }
+
+    // --------------------
+    // overlaps
+    // --------------------
+
+    @Test
+    void overlaps_shouldBeFalse_onEmptyTree() {
+        assertFalse(new RoomIntervalTree().overlaps(0, 10));
+    }
+
+    @Test
+    void overlaps_shouldBeFalse_forAdjacentIntervals() {
+        RoomIntervalTree tree = new RoomIntervalTree();
+        tree.insert(UUID.randomUUID(), 10, 20);
+
+        // [start, end): день выезда свободен для следующего заезда
+        assertFalse(tree.overlaps(20, 25));
+        assertFalse(tree.overlaps(5, 10));
+    }
+
+    @Test
+    void overlaps_shouldBeTrue_forPartialAndNestedIntervals() {
+        RoomIntervalTree tree = new RoomIntervalTree();
+        tree.insert(UUID.randomUUID(), 10, 20);
+
+        assertTrue(tree.overlaps(5, 11));
+        assertTrue(tree.overlaps(19, 30));
+        assertTrue(tree.overlaps(12, 15));
+        assertTrue(tree.overlaps(0, 100));
+        assertTrue(tree.overlaps(10, 20));
+    }
+
+    // длинный интервал слева находится только через maxEnd поддерева
+    @Test
+    void overlaps_shouldFindLongIntervalStartingFarLeft() {
+        RoomIntervalTree tree = new RoomIntervalTree();
+        UUID longStay = UUID.randomUUID();
+        tree.insert(longStay, 0, 1_000);
+        for (int day = 10; day < 900; day += 10) {
+            tree.insert(UUID.randomUUID(), day, day + 1);
+        }
+
+        assertTrue(tree.overlaps(905, 906));
+
+        assertTrue(tree.remove(longStay, 0));
+        assertFalse(tree.overlaps(905, 906));
+        assertTrue(tree.overlaps(500, 501));
+    }
+
+    // --------------------
+    // insert / remove
+    // --------------------
+
+    @Test
+    void insert_shouldKeepIntervalsWithEqualStart() {
+        RoomIntervalTree tree = new RoomIntervalTree();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        tree.insert(first, 10, 12);
+        tree.insert(second, 10, 15);
+
+        assertTrue(tree.remove(first, 10));
+        assertTrue(tree.overlaps(13, 14));
+        assertTrue(tree.remove(second, 10));
+        assertFalse(tree.overlaps(0, 100));
+    }
+
+    @Test
+    void remove_shouldReturnFalse_whenKeyOrStartDoesNotMatch() {
+        RoomIntervalTree tree = new RoomIntervalTree();
+        UUID key = UUID.randomUUID();
+        tree.insert(key, 10, 12);
+
+        assertFalse(tree.remove(UUID.randomUUID(), 10));
+        assertFalse(tree.remove(key, 11));
+        assertTrue(tree.overlaps(10, 11));
+
+        assertTrue(tree.remove(key, 10));
+        assertFalse(tree.remove(key, 10));
+    }
+
+    // случайные вставки и удаления против перебора: проверяет split/merge и пересчёт maxEnd при перестройках
+    @Test
+    void randomOperations_shouldMatchBruteForce() {
+        Random random = new Random(42);
+        RoomIntervalTree tree = new RoomIntervalTree();
+        List<Interval> live = new ArrayList<>();
+
+        for (int step = 0; step < 5_000; step++) {
+            if (live.isEmpty() || random.nextInt(3) > 0) {
+                long start = random.nextInt(365);
+                Interval interval = new Interval(UUID.randomUUID(), start, start + 1 + random.nextInt(30));
+                tree.insert(interval.key(), interval.start(), interval.end());
+                live.add(interval);
+            } else {
+                Interval interval = live.remove(random.nextInt(live.size()));
+                assertTrue(tree.remove(interval.key(), interval.start()));
+            }
+
+            long from = random.nextInt(400);
+            long to = from + 1 + random.nextInt(10);
+            boolean expected = live.stream().anyMatch(interval -> interval.overlaps(from, to));
+            assertEquals(expected, tree.overlaps(from, to), "step " + step + " [" + from + ", " + to + ")");
+        }
+    }
+}
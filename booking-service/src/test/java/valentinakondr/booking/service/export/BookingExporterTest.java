@@ -0,0 +1,121 @@
+package valentinakondr.booking.service.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import valentinakondr.booking.domain.User;
+import valentinakondr.booking.domain.booking.Booking;
+import valentinakondr.booking.domain.booking.BookingStatus;
+import valentinakondr.booking.dto.BookingDto;
+import valentinakondr.booking.repo.BookingRepository;
+import valentinakondr.booking.repo.UserRepository;
+import valentinakondr.booking.service.BookingServiceImpl;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Реальные строки из БД; 1999 год не пересекается с бронями остальных тестов
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "eureka.client.register-with-eureka=false",
+        "eureka.client.fetch-registry=false",
+        "spring.cloud.discovery.enabled=false"
+})
+class BookingExporterTest {
+
+    private static final LocalDate DAY = LocalDate.of(1999, 3, 1);
+
+    // брони в порядке createdAt, как их отдаёт курсор выгрузки
+    private static final List<Booking> saved = new ArrayList<>();
+
+    @Autowired
+    BookingExporter exporter;
+
+    @Autowired
+    BookingRepository bookingRepo;
+
+    @Autowired
+    UserRepository userRepo;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @BeforeEach
+    void seed() {
+        if (saved.isEmpty()) {
+            save("export.plain", BookingStatus.CONFIRMED, 10);
+            save("export, comma", BookingStatus.PENDING, 11);
+            save("export \"quoted\"", BookingStatus.CANCELLED, 12);
+            save("export\nnewline", BookingStatus.CONFIRMED, 13);
+        }
+    }
+
+    private void save(String username, BookingStatus status, int hour) {
+        User user = userRepo.save(new User(null, username, "{noop}secret", "USER"));
+        Booking booking = BookingServiceImpl.newBooking(user, DAY.plusDays(30), DAY.plusDays(32), UUID.randomUUID());
+        booking.setStatus(status);
+        booking.setCreatedAt(DAY.atTime(hour, 0));
+        saved.add(bookingRepo.save(booking));
+    }
+
+    private String export(LocalDate from, LocalDate to, ExportFormat format) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(from, to, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void export_shouldWriteCsv_withQuotingAndEscaping() {
+        String csv = export(DAY, DAY, ExportFormat.CSV);
+
+        // значения с запятой, кавычкой или переводом строки берутся в кавычки, кавычки удваиваются
+        assertTrue(csv.contains("," + saved.get(0).getUser().getId() + ",export.plain," + saved.get(0).getRoomId()
+                + ",1999-03-31,1999-04-02,CONFIRMED,1999-03-01T10:00\n"));
+        assertTrue(csv.contains(",\"export, comma\"," + saved.get(1).getRoomId() + ",1999-03-31,1999-04-02,PENDING,"));
+        assertTrue(csv.contains(",\"export \"\"quoted\"\"\"," + saved.get(2).getRoomId() + ",1999-03-31,1999-04-02,CANCELLED,"));
+        assertTrue(csv.contains(",\"export\nnewline\"," + saved.get(3).getRoomId() + ",1999-03-31,1999-04-02,CONFIRMED,"));
+        assertTrue(csv.startsWith("id,userId,username,roomId,startDate,endDate,status,createdAt\n" + saved.get(0).getId() + ","));
+        assertTrue(csv.endsWith("1999-03-01T13:00\n"));
+    }
+
+    @Test
+    void export_shouldWriteOneJsonObjectPerLine_inCreationOrder() throws Exception {
+        String ndjson = export(DAY, DAY, ExportFormat.NDJSON);
+
+        assertTrue(ndjson.endsWith("\n"));
+        String[] lines = ndjson.substring(0, ndjson.length() - 1).split("\n");
+        assertEquals(4, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            Booking booking = saved.get(i);
+            assertEquals(new BookingDto(booking.getId(), booking.getUser().getId(), booking.getUser().getUsername(),
+                    booking.getRoomId(), booking.getStartDate(), booking.getEndDate(), booking.getStatus().name(),
+                    booking.getCreatedAt()), objectMapper.readValue(lines[i], BookingDto.class));
+        }
+        // перевод строки внутри значения экранируется и не разрывает запись
+        assertTrue(lines[3].contains("\"username\":\"export\\nnewline\""));
+        assertTrue(lines[0].contains("\"startDate\":\"1999-03-31\""));
+    }
+
+    @Test
+    void export_shouldWriteOnlyHeader_whenRangeIsEmpty() {
+        LocalDate empty = LocalDate.of(1998, 1, 1);
+
+        assertEquals("id,userId,username,roomId,startDate,endDate,status,createdAt\n", export(empty, empty, ExportFormat.CSV));
+        assertEquals("", export(empty, empty, ExportFormat.NDJSON));
+    }
+
+    @Test
+    void export_shouldIncludeWholeLastDay_andNothingAfterIt() {
+        assertEquals(4, export(DAY.minusDays(1), DAY, ExportFormat.NDJSON).lines().count());
+        assertEquals("", export(DAY.plusDays(1), DAY.plusDays(1), ExportFormat.NDJSON));
+    }
+}
@@ -0,0 +1,137 @@
+package valentinakondr.booking.service.rollup;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import valentinakondr.booking.domain.booking.BookingStatus;
+import valentinakondr.booking.service.view.BookingEvent;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+
+// Периодический flush отключён, вызывается из теста; у каждого теста свой номер
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "eureka.client.register-with-eureka=false",
+        "eureka.client.fetch-registry=false",
+        "spring.cloud.discovery.enabled=false",
+        "booking.rollup.flush-interval=3600000"
+})
+class BookingRollupTest {
+
+    @Autowired
+    BookingRollup rollup;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @SpyBean
+    JdbcTemplate jdbcTemplate;
+
+    private final UUID room = UUID.randomUUID();
+
+    @AfterEach
+    void resetSpy() {
+        reset(jdbcTemplate);
+    }
+
+    private BookingEvent event(UUID booking, int nights, BookingStatus status, BookingStatus previousStatus) {
+        LocalDate start = LocalDate.now().plusDays(10);
+        return new BookingEvent(booking, UUID.randomUUID(), "alex.petrov", room, start, start.plusDays(nights),
+                status, previousStatus, LocalDateTime.now());
+    }
+
+    // created, confirmed, cancelled, roomNights за сегодня (окно на случай полуночи между событием и чтением)
+    private List<Long> counters() {
+        long[] sum = new long[4];
+        rollup.read(LocalDate.now().minusDays(1), LocalDate.now()).stream()
+                .filter(row -> row.roomId().equals(room))
+                .forEach(row -> {
+                    sum[0] += row.created();
+                    sum[1] += row.confirmed();
+                    sum[2] += row.cancelled();
+                    sum[3] += row.roomNights();
+                });
+        return List.of(sum[0], sum[1], sum[2], sum[3]);
+    }
+
+    @Test
+    void flush_shouldCountEachStatusTransition() {
+        UUID confirmedLater = UUID.randomUUID();
+        rollup.on(event(confirmedLater, 2, BookingStatus.PENDING, null));
+        rollup.on(event(confirmedLater, 2, BookingStatus.CONFIRMED, BookingStatus.PENDING));
+        // автоподтверждение: создание и подтверждение одним событием
+        rollup.on(event(UUID.randomUUID(), 3, BookingStatus.CONFIRMED, null));
+        // отмена неподтверждённой брони ночи не трогает
+        UUID cancelled = UUID.randomUUID();
+        rollup.on(event(cancelled, 4, BookingStatus.PENDING, null));
+        rollup.on(event(cancelled, 4, BookingStatus.CANCELLED, BookingStatus.PENDING));
+        // однодневная бронь занимает одну ночь
+        rollup.on(event(UUID.randomUUID(), 0, BookingStatus.CONFIRMED, null));
+
+        rollup.flush();
+
+        assertEquals(List.of(4L, 3L, 1L, 6L), counters());
+    }
+
+    @Test
+    void flush_shouldSubtractRoomNights_whenConfirmedBookingIsCancelled() {
+        UUID booking = UUID.randomUUID();
+        rollup.on(event(booking, 5, BookingStatus.CONFIRMED, null));
+        rollup.flush();
+        assertEquals(List.of(1L, 1L, 0L, 5L), counters());
+
+        // вторая запись за тот же день досчитывается в существующую строку
+        rollup.on(event(booking, 5, BookingStatus.CANCELLED, BookingStatus.CONFIRMED));
+        rollup.flush();
+
+        assertEquals(List.of(1L, 1L, 1L, 0L), counters());
+    }
+
+    @Test
+    void flush_shouldKeepPendingCounters_whenWriteFails() {
+        rollup.on(event(UUID.randomUUID(), 2, BookingStatus.CONFIRMED, null));
+        doThrow(new QueryTimeoutException("rollup timeout")).when(jdbcTemplate)
+                .update(argThat((String sql) -> sql.contains("booking_daily_rollup")), any(Object[].class));
+
+        rollup.flush();
+        reset(jdbcTemplate);
+        assertEquals(List.of(0L, 0L, 0L, 0L), counters());
+
+        // несохранённое складывается с событиями, пришедшими после неудачного flush
+        rollup.on(event(UUID.randomUUID(), 3, BookingStatus.CONFIRMED, null));
+        rollup.flush();
+
+        assertEquals(List.of(2L, 2L, 0L, 5L), counters());
+    }
+
+    // остановка приложения досчитывает накопленное до следующего планового flush
+    @Test
+    void close_shouldFlushPendingCounters() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.registerBean(JdbcTemplate.class, () -> jdbcTemplate);
+            context.registerBean(TransactionTemplate.class, () -> transactionTemplate);
+            context.registerBean(BookingRollup.class);
+            context.refresh();
+
+            context.publishEvent(event(UUID.randomUUID(), 2, BookingStatus.CONFIRMED, null));
+            assertEquals(List.of(0L, 0L, 0L, 0L), counters());
+        }
+
+        assertEquals(List.of(1L, 1L, 0L, 2L), counters());
+    }
+}
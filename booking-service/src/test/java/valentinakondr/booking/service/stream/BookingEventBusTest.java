@@ -0,0 +1,174 @@
+package valentinakondr.booking.service.stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import valentinakondr.booking.domain.booking.BookingStatus;
+import valentinakondr.booking.domain.booking.BookingView;
+import valentinakondr.booking.dto.BookingDto;
+import valentinakondr.booking.repo.BookingViewRepository;
+import valentinakondr.booking.service.view.BookingEvent;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookingEventBusTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 6, 1);
+
+    private final BookingViewRepository viewRepo = mock(BookingViewRepository.class);
+
+    // записывает отправленные бронирования вместо сокета
+    private static class RecordingEmitter extends SseEmitter {
+        final List<BookingDto> sent = new CopyOnWriteArrayList<>();
+        volatile CountDownLatch blockSend;
+        volatile Throwable completedWith;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (completedWith != null) {
+                throw new IllegalStateException("completed");
+            }
+            CountDownLatch latch = blockSend;
+            if (latch != null) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                // закрытое соединение обрывает зависшую запись
+                if (completedWith != null) {
+                    throw new IOException("connection closed");
+                }
+            }
+            builder.build().stream()
+                    .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                    .filter(BookingDto.class::isInstance)
+                    .map(BookingDto.class::cast)
+                    .forEach(sent::add);
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            completedWith = ex;
+            CountDownLatch latch = blockSend;
+            if (latch != null) {
+                latch.countDown();
+            }
+        }
+    }
+
+    private static BookingEvent event(UUID userId, UUID bookingId, BookingStatus status) {
+        return new BookingEvent(bookingId, userId, "alex.petrov", UUID.randomUUID(), DAY, DAY.plusDays(2),
+                status, null, LocalDateTime.now());
+    }
+
+    private static BookingView view(UUID userId, BookingStatus status) {
+        return new BookingView(UUID.randomUUID(), userId, "alex.petrov", UUID.randomUUID(), null,
+                DAY, DAY.plusDays(2), status, LocalDateTime.now());
+    }
+
+    private BookingEventBus bus(Executor executor, long sendTimeout) {
+        return new BookingEventBus(executor, viewRepo, 32, 60_000, sendTimeout);
+    }
+
+    @Test
+    void subscribe_shouldSendCurrentBookings_oldestFirst() {
+        UUID userId = UUID.randomUUID();
+        BookingView newest = view(userId, BookingStatus.CONFIRMED);
+        BookingView oldest = view(userId, BookingStatus.PENDING);
+        when(viewRepo.findFirstPage(eq(userId), any(), any(), any(), any())).thenReturn(List.of(newest, oldest));
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        bus(Runnable::run, 5_000).subscribe(userId, emitter);
+
+        assertEquals(List.of(oldest.getId(), newest.getId()), emitter.sent.stream().map(BookingDto::id).toList());
+    }
+
+    @Test
+    void on_shouldDeliverOnlySubscribersEvents_inOrder() {
+        UUID userId = UUID.randomUUID();
+        UUID bookingId = UUID.randomUUID();
+        BookingEventBus bus = bus(Runnable::run, 5_000);
+        RecordingEmitter emitter = new RecordingEmitter();
+        bus.subscribe(userId, emitter);
+
+        bus.on(event(userId, bookingId, BookingStatus.PENDING));
+        bus.on(event(UUID.randomUUID(), UUID.randomUUID(), BookingStatus.PENDING));
+        bus.on(event(userId, bookingId, BookingStatus.CONFIRMED));
+
+        assertEquals(List.of("PENDING", "CONFIRMED"), emitter.sent.stream().map(BookingDto::status).toList());
+    }
+
+    @Test
+    void sweep_shouldRedeliver_whenExecutorRejectedDrain() {
+        UUID userId = UUID.randomUUID();
+        AtomicBoolean saturated = new AtomicBoolean(true);
+        BookingEventBus bus = bus(task -> {
+            if (saturated.get()) {
+                throw new RejectedExecutionException("saturated");
+            }
+            task.run();
+        }, 5_000);
+        RecordingEmitter emitter = new RecordingEmitter();
+        bus.subscribe(userId, emitter);
+
+        // последнее событие пользователя: следующего offer, который подхватил бы буфер, не будет
+        bus.on(event(userId, UUID.randomUUID(), BookingStatus.CONFIRMED));
+        assertTrue(emitter.sent.isEmpty());
+
+        saturated.set(false);
+        bus.sweep();
+
+        assertEquals(List.of("CONFIRMED"), emitter.sent.stream().map(BookingDto::status).toList());
+    }
+
+    @Test
+    void sweep_shouldDisconnectSlowClient_andKeepServingOthers() throws Exception {
+        UUID slowUser = UUID.randomUUID();
+        UUID fastUser = UUID.randomUUID();
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        try {
+            BookingEventBus bus = bus(executor, 50);
+            RecordingEmitter slow = new RecordingEmitter();
+            slow.blockSend = new CountDownLatch(1);
+            RecordingEmitter fast = new RecordingEmitter();
+            bus.subscribe(slowUser, slow);
+            bus.subscribe(fastUser, fast);
+
+            bus.on(event(slowUser, UUID.randomUUID(), BookingStatus.PENDING));
+            bus.on(event(fastUser, UUID.randomUUID(), BookingStatus.PENDING));
+            Thread.sleep(200);
+            bus.sweep();
+
+            assertTrue(slow.completedWith != null);
+            // единственный поток пула освободился и обслужил быстрого клиента
+            executor.submit(() -> { }).get(5, TimeUnit.SECONDS);
+            assertEquals(1, fast.sent.size());
+
+            bus.on(event(slowUser, UUID.randomUUID(), BookingStatus.CONFIRMED));
+            executor.submit(() -> { }).get(5, TimeUnit.SECONDS);
+            assertTrue(slow.sent.isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
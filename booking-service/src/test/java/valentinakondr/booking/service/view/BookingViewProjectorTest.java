@@ -0,0 +1,103 @@
+package valentinakondr.booking.service.view;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import valentinakondr.booking.client.HotelClient;
+import valentinakondr.booking.domain.booking.BookingStatus;
+import valentinakondr.booking.domain.booking.BookingView;
+import valentinakondr.booking.dto.BookingDto;
+import valentinakondr.booking.dto.CreateBookingRequestDto;
+import valentinakondr.booking.repo.BookingViewRepository;
+import valentinakondr.booking.service.BookingService;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+
+// Проекция сходится с bookings после упавшей записи; периодическая сверка отключена, вызывается из теста
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "eureka.client.register-with-eureka=false",
+        "eureka.client.fetch-registry=false",
+        "spring.cloud.discovery.enabled=false",
+        "booking.view.reconcile-interval=3600000"
+})
+class BookingViewProjectorTest {
+
+    private static final Authentication ADMIN = new TestingAuthenticationToken("valentinakondr.admin", null, "ROLE_ADMIN");
+
+    @Autowired
+    BookingService bookingService;
+
+    @Autowired
+    BookingViewProjector projector;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @SpyBean
+    BookingViewRepository viewRepo;
+
+    @MockBean
+    HotelClient hotel;
+
+    private BookingDto book() {
+        LocalDate start = LocalDate.now().plusYears(4).plusDays(ThreadLocalRandom.current().nextInt(1000));
+        return bookingService.create(ADMIN, new CreateBookingRequestDto(UUID.randomUUID(), false, start, start.plusDays(1)));
+    }
+
+    @Test
+    void reconcileStale_shouldRebuildRow_afterFailedProjection() {
+        // обе записи проекции (PENDING и CONFIRMED) падают
+        doThrow(new QueryTimeoutException("timeout")).when(viewRepo).save(any(BookingView.class));
+
+        BookingDto booking = book();
+        reset(viewRepo);
+        assertEquals(BookingStatus.CONFIRMED.name(), booking.status());
+        assertTrue(viewRepo.findById(booking.id()).isEmpty());
+
+        projector.reconcileStale();
+
+        assertEquals(BookingStatus.CONFIRMED, viewRepo.findById(booking.id()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void reconcileStale_shouldUpdateStatus_whenOnlyLaterProjectionFailed() {
+        doThrow(new QueryTimeoutException("timeout"))
+                .when(viewRepo).save(argThat(view -> view.getStatus() == BookingStatus.CONFIRMED));
+
+        BookingDto booking = book();
+        reset(viewRepo);
+        assertEquals(BookingStatus.PENDING, viewRepo.findById(booking.id()).orElseThrow().getStatus());
+
+        projector.reconcileStale();
+
+        assertEquals(BookingStatus.CONFIRMED, viewRepo.findById(booking.id()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void backfill_shouldReconcileDivergedRows() {
+        BookingDto booking = book();
+        jdbcTemplate.update("update booking_view set status = 'PENDING', username = 'stale' where id = ?", booking.id());
+
+        projector.backfill();
+
+        BookingView view = viewRepo.findById(booking.id()).orElseThrow();
+        assertEquals(BookingStatus.CONFIRMED, view.getStatus());
+        assertEquals("valentinakondr.admin", view.getUsername());
+    }
+}
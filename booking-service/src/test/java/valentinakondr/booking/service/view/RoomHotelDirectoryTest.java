@@ -0,0 +1,79 @@
+package valentinakondr.booking.service.view;
+
+import org.junit.jupiter.api.Test;
+import valentinakondr.booking.client.HotelClient;
+import valentinakondr.booking.client.RoomDto;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RoomHotelDirectoryTest {
+
+    private final HotelClient hotel = mock(HotelClient.class);
+    private final RoomHotelDirectory directory = new RoomHotelDirectory(hotel, Duration.ofMinutes(5), 100);
+
+    private static RoomDto room(UUID id, UUID hotelId) {
+        return new RoomDto(id, hotelId, "101", true, 0);
+    }
+
+    @Test
+    void hotelOf_shouldNotCallHotelService() {
+        UUID roomId = UUID.randomUUID();
+
+        assertNull(directory.hotelOf(roomId));
+
+        UUID hotelId = UUID.randomUUID();
+        directory.remember(List.of(room(roomId, hotelId)));
+        assertEquals(hotelId, directory.hotelOf(roomId));
+        verify(hotel, never()).getAllRooms();
+    }
+
+    @Test
+    void hotelsOf_shouldRefreshOnce_forUnknownRooms() {
+        UUID known = UUID.randomUUID();
+        UUID hotelId = UUID.randomUUID();
+        UUID unknown = UUID.randomUUID();
+        when(hotel.getAllRooms()).thenReturn(List.of(room(known, hotelId)));
+
+        assertEquals(Map.of(known, hotelId), directory.hotelsOf(List.of(known, unknown)));
+        assertEquals(Map.of(known, hotelId), directory.hotelsOf(List.of(known, unknown)));
+
+        verify(hotel, times(1)).getAllRooms();
+    }
+
+    @Test
+    void hotelsOf_shouldRetry_whenRefreshFailed() {
+        UUID roomId = UUID.randomUUID();
+        UUID hotelId = UUID.randomUUID();
+        when(hotel.getAllRooms())
+                .thenThrow(new IllegalStateException("no token"))
+                .thenReturn(List.of(room(roomId, hotelId)));
+
+        assertTrue(directory.hotelsOf(List.of(roomId)).isEmpty());
+        assertEquals(Map.of(roomId, hotelId), directory.hotelsOf(List.of(roomId)));
+    }
+
+    @Test
+    void remember_shouldOverrideUnknownRoom() {
+        UUID roomId = UUID.randomUUID();
+        when(hotel.getAllRooms()).thenReturn(List.of());
+        directory.hotelsOf(List.of(roomId));
+
+        UUID hotelId = UUID.randomUUID();
+        directory.remember(List.of(room(roomId, hotelId)));
+
+        assertEquals(Map.of(roomId, hotelId), directory.hotelsOf(List.of(roomId)));
+        verify(hotel, times(1)).getAllRooms();
+    }
+}
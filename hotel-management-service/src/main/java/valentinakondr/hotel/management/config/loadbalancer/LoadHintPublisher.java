@@ -0,0 +1,47 @@
+package valentinakondr.hotel.management.config.loadbalancer;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Locale;
+import java.util.Map;
+
+// Подсказка балансировщикам: загрузка CPU процесса в метаданных Eureka (lb.load).
+// Округляется до 0.1, иначе экземпляр перерегистрировался бы в Eureka на каждом тике.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LoadHintPublisher {
+
+    // ключ читает InstanceLatencyStats (модуль loadbalancer) в api-gateway и booking-service
+    public static final String LOAD_HINT_METADATA = "lb.load";
+
+    private final ObjectProvider<ApplicationInfoManager> applicationInfoManager;
+    private String published;
+
+    @Scheduled(initialDelayString = "${hotel.load-hint.interval}", fixedDelayString = "${hotel.load-hint.interval}")
+    public void publish() {
+        ApplicationInfoManager manager = applicationInfoManager.getIfAvailable();
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (manager == null || !(os instanceof com.sun.management.OperatingSystemMXBean sunOs)) {
+            return;
+        }
+        double load = sunOs.getProcessCpuLoad();
+        if (load < 0) {
+            return;
+        }
+        String value = String.format(Locale.ROOT, "%.1f", load);
+        if (value.equals(published)) {
+            return;
+        }
+        manager.registerAppMetadata(Map.of(LOAD_HINT_METADATA, value));
+        published = value;
+        log.debug("[lb.hint.published] load={}", value);
+    }
+}
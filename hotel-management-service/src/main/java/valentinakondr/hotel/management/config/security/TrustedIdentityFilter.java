@@ -0,0 +1,37 @@
+package valentinakondr.hotel.management.config.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import valentinakondr.identity.IdentityHeaders;
+
+import java.io.IOException;
+import java.util.List;
+
+// Не @Component: регистрируется только в цепочке Spring Security, перед BearerTokenAuthenticationFilter
+public class TrustedIdentityFilter extends OncePerRequestFilter {
+
+    private final IdentityHeaders identityHeaders;
+
+    public TrustedIdentityFilter(IdentityHeaders identityHeaders) {
+        this.identityHeaders = identityHeaders;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        IdentityHeaders.Identity identity = identityHeaders.verify(request::getHeader);
+        if (identity != null) {
+            UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
+                    identity.username(), null, List.of(new SimpleGrantedAuthority("ROLE_" + identity.role()))
+            );
+            SecurityContextHolder.getContext().setAuthentication(auth);
+        }
+        filterChain.doFilter(request, response);
+    }
+}
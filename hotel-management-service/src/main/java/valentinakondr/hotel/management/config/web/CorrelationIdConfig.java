@@ -0,0 +1,15 @@
+package valentinakondr.hotel.management.config.web;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import valentinakondr.websupport.CorrelationIdFilter;
+
+// X-Correlation-Id в MDC и [http.request.done] с длительностью участка hotel-service
+@Configuration
+public class CorrelationIdConfig {
+
+    @Bean
+    public CorrelationIdFilter correlationIdFilter() {
+        return new CorrelationIdFilter();
+    }
+}
@@ -3,10 +3,14 @@ package valentinakondr.hotel.management.controller;
 import valentinakondr.hotel.management.controller.api.HotelDto;
 import valentinakondr.hotel.management.service.HotelService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -15,6 +19,10 @@ import java.util.List;
 public class HotelController {
     private final HotelService hotelService;
 
+    // справочник меняется редко: api-gateway и клиенты могут кэшировать ответ
+    @Value("${hotel.cache.catalog-max-age}")
+    private Duration catalogMaxAge;
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     @ResponseStatus(HttpStatus.CREATED)
@@ -23,8 +31,10 @@ public class HotelController {
     }
 
     @GetMapping
-    public List<HotelDto> getAllHotels() {
-        return hotelService.getAllHotels();
+    public ResponseEntity<List<HotelDto>> getAllHotels() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(catalogMaxAge))
+                .body(hotelService.getAllHotels());
     }
 
 }
\ No newline at end of file
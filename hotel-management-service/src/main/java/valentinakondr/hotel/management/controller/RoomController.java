@@ -4,10 +4,14 @@ import valentinakondr.hotel.management.controller.api.AvailabilityDto;
 import valentinakondr.hotel.management.controller.api.RoomDto;
 import valentinakondr.hotel.management.service.RoomService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
 
@@ -17,6 +21,13 @@ import java.util.UUID;
 public class RoomController {
     private final RoomService roomService;
 
+    // рекомендации зависят от счётчиков заселений, поэтому живут в кэше заметно меньше списка номеров
+    @Value("${hotel.cache.catalog-max-age}")
+    private Duration catalogMaxAge;
+
+    @Value("${hotel.cache.recommend-max-age}")
+    private Duration recommendMaxAge;
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     @ResponseStatus(HttpStatus.CREATED)
@@ -25,13 +36,17 @@ public class RoomController {
     }
 
     @GetMapping
-    public List<RoomDto> getRooms() {
-        return roomService.getRooms();
+    public ResponseEntity<List<RoomDto>> getRooms() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(catalogMaxAge))
+                .body(roomService.getRooms());
     }
 
     @GetMapping("/recommend")
-    public List<RoomDto> getRecommendedRooms() {
-        return roomService.getRecommendedRooms();
+    public ResponseEntity<List<RoomDto>> getRecommendedRooms() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(recommendMaxAge))
+                .body(roomService.getRecommendedRooms());
     }
 
     @PostMapping("/{id}/confirm-availability")
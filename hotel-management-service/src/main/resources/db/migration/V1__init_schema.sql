@@ -0,0 +1,31 @@
+create table hotel (
+    id      uuid         not null,
+    name    varchar(255) not null,
+    address varchar(255) not null,
+    primary key (id)
+);
+
+create table room (
+    id           uuid         not null,
+    hotel_id     uuid         not null,
+    number       varchar(255) not null,
+    available    boolean      not null,
+    times_booked integer      not null,
+    version      bigint,
+    primary key (id),
+    constraint fk_room_hotel foreign key (hotel_id) references hotel (id)
+);
+
+-- рекомендации: available = true ORDER BY times_booked, id читаются прямо из индекса
+create index idx_room_available_times_booked on room (available, times_booked, id);
+
+create index idx_room_hotel on room (hotel_id);
+
+create table idempotency_request (
+    id         uuid                        not null,
+    request_id uuid                        not null,
+    room_id    uuid                        not null,
+    created_at timestamp(6) with time zone not null,
+    primary key (id),
+    constraint uk_idempotency_request_request_id unique (request_id)
+);
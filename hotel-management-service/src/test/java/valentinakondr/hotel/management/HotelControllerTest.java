@@ -129,6 +129,7 @@ class HotelControllerTest {
         mockMvc.perform(get("/api/hotels")
                         .with(jwtRole("USER")))
                 .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=30"))
                 .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.length()").value(2))
                 .andExpect(jsonPath("$[0].id").value(h1.id().toString()))
@@ -140,4 +141,17 @@ class HotelControllerTest {
 
         verify(hotelService).getAllHotels();
     }
-}
\ No newline at end of file
+
+    // --------------------
+    // GET /actuator/health/readiness
+    // --------------------
+
+    @Test
+    void readinessProbe_shouldReturnUp_withoutToken() throws Exception {
+        mockMvc.perform(get("/actuator/health/readiness"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"));
+
+        verifyNoInteractions(hotelService);
+    }
+}
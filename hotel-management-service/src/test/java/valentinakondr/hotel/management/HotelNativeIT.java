@@ -0,0 +1,137 @@
+package valentinakondr.hotel.management;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import valentinakondr.identity.IdentityHeaders;
+import valentinakondr.testsupport.nativeimage.NativeApplication;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Контроллеры hotel-management-service против native image: NimbusJwtDecoder (HS256), подпись заголовков
+// личности от шлюза, JPA-запись отеля и номера, блокировки номера для booking-service.
+class HotelNativeIT {
+
+    private static final String JWT_SECRET = "1234567890123456789012345678901212345678";
+    private static final String IDENTITY_SECRET = "identity-test-secret-0123456789abcdef";
+    private static final IdentityHeaders identityHeaders = new IdentityHeaders(true, IDENTITY_SECRET);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static NativeApplication app;
+
+    @BeforeAll
+    static void start() throws Exception {
+        app = NativeApplication.start("--auth.identity.enabled=true", "--auth.identity.secret=" + IDENTITY_SECRET);
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        if (app != null) {
+            app.close();
+        }
+    }
+
+    private static String bearer(String username) throws Exception {
+        SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), new JWTClaimsSet.Builder()
+                .subject(username)
+                .expirationTime(Date.from(Instant.now().plusSeconds(300)))
+                .build());
+        jwt.sign(new MACSigner(JWT_SECRET.getBytes(StandardCharsets.UTF_8)));
+        return "Bearer " + jwt.serialize();
+    }
+
+    // заголовки, которые выставил бы api-gateway
+    private static HttpRequest.Builder asAdmin(HttpRequest.Builder request) {
+        identityHeaders.sign(UUID.randomUUID().toString(), "native admin", "ADMIN",
+                Instant.now().plusSeconds(300).getEpochSecond()).forEach(request::header);
+        return request;
+    }
+
+    private static HttpRequest.Builder json(String path, Object body) throws Exception {
+        return HttpRequest.newBuilder(app.uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body), StandardCharsets.UTF_8));
+    }
+
+    // --------------------
+    // GET /actuator/health/readiness
+    // --------------------
+
+    @Test
+    void readinessProbe_shouldReturnUp_withoutToken() throws Exception {
+        HttpResponse<String> response = app.send(HttpRequest.newBuilder(app.uri("/actuator/health/readiness")));
+
+        assertEquals(200, response.statusCode());
+        assertEquals("UP", objectMapper.readTree(response.body()).get("status").asText());
+    }
+
+    // --------------------
+    // GET /api/hotels
+    // --------------------
+
+    @Test
+    void getHotels_shouldReturn401_whenNoToken() throws Exception {
+        HttpResponse<String> response = app.send(HttpRequest.newBuilder(app.uri("/api/hotels")));
+
+        assertEquals(401, response.statusCode());
+    }
+
+    @Test
+    void getHotels_shouldReturn200_withBearerToken() throws Exception {
+        HttpResponse<String> response = app.send(HttpRequest.newBuilder(app.uri("/api/hotels"))
+                .header("Authorization", bearer("native-user"))
+                .header("X-Correlation-Id", "native-it-1"));
+
+        assertEquals(200, response.statusCode(), response.body());
+        assertTrue(objectMapper.readTree(response.body()).isArray());
+        assertEquals("native-it-1", response.headers().firstValue("X-Correlation-Id").orElse(null));
+    }
+
+    // --------------------
+    // POST /api/hotels, /api/rooms (ADMIN) и блокировки номера
+    // --------------------
+
+    @Test
+    void createHotelAndRoom_thenConfirmAndRelease_shouldSucceed() throws Exception {
+        HttpResponse<String> hotel = app.send(asAdmin(json("/api/hotels",
+                Map.of("name", "Native Hotel", "address", "Native street 1"))));
+        assertEquals(201, hotel.statusCode(), hotel.body());
+        String hotelId = objectMapper.readTree(hotel.body()).get("id").asText();
+
+        HttpResponse<String> room = app.send(asAdmin(json("/api/rooms",
+                Map.of("hotelId", hotelId, "number", "N-" + UUID.randomUUID(), "available", true))));
+        assertEquals(201, room.statusCode(), room.body());
+        JsonNode created = objectMapper.readTree(room.body());
+        assertEquals(hotelId, created.get("hotelId").asText());
+        String roomId = created.get("id").asText();
+
+        UUID requestId = UUID.randomUUID();
+        LocalDate start = LocalDate.now().plusYears(1);
+        HttpResponse<String> confirmed = app.send(json("/api/rooms/" + roomId + "/confirm-availability", Map.of(
+                "requestId", requestId, "startDate", start.toString(), "endDate", start.plusDays(2).toString())));
+        assertEquals(204, confirmed.statusCode(), confirmed.body());
+
+        HttpResponse<String> released = app.send(HttpRequest.newBuilder(
+                        app.uri("/api/rooms/" + roomId + "/release?requestId=" + requestId))
+                .POST(HttpRequest.BodyPublishers.noBody()));
+        assertEquals(204, released.statusCode(), released.body());
+    }
+}
@@ -0,0 +1,65 @@
+package valentinakondr.hotel.management;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import valentinakondr.hotel.management.dao.HotelRepository;
+import valentinakondr.hotel.management.dao.IdempotencyRequestRepository;
+import valentinakondr.hotel.management.dao.RoomRepository;
+import valentinakondr.testsupport.queryplan.QueryPlans;
+import valentinakondr.testsupport.queryplan.SqlCapture;
+
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "eureka.client.register-with-eureka=false",
+        "eureka.client.fetch-registry=false",
+        "spring.cloud.discovery.enabled=false"
+})
+@Import(SqlCapture.Config.class)
+class RepositoryQueryPlanTest {
+
+    @Autowired RoomRepository roomRepository;
+    @Autowired HotelRepository hotelRepository;
+    @Autowired IdempotencyRequestRepository idempotencyRequestRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    // Каждый объявленный в репозиториях метод должен быть здесь, иначе тест упадёт на проверке покрытия
+    private Map<String, Runnable> queries() {
+        UUID requestId = UUID.randomUUID();
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("RoomRepository.findAvailableRoomsRecommended", () -> roomRepository.findAvailableRoomsRecommended());
+        queries.put("RoomRepository.findByAvailableTrue", () -> roomRepository.findByAvailableTrue());
+        queries.put("IdempotencyRequestRepository.existsByRequestId",
+                () -> idempotencyRequestRepository.existsByRequestId(requestId));
+        queries.put("IdempotencyRequestRepository.findByRequestId",
+                () -> idempotencyRequestRepository.findByRequestId(requestId));
+        // производный deleteBy выполняет DELETE, только если строка нашлась
+        queries.put("IdempotencyRequestRepository.deleteByRequestId", () -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("insert into idempotency_request (id, request_id, room_id, created_at) values (?, ?, ?, ?)",
+                    UUID.randomUUID(), requestId, UUID.randomUUID(), OffsetDateTime.now());
+            idempotencyRequestRepository.deleteByRequestId(requestId);
+        }));
+        return queries;
+    }
+
+    @Test
+    void everyRepositoryQuery_shouldBeCovered() {
+        QueryPlans.assertCovered(queries(), RoomRepository.class, HotelRepository.class, IdempotencyRequestRepository.class);
+    }
+
+    @Test
+    void everyRepositoryQuery_shouldUseIndex() {
+        QueryPlans.assertIndexed(jdbcTemplate, queries());
+    }
+}
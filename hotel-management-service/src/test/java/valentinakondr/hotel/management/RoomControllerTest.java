@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
@@ -13,12 +14,14 @@ import org.springframework.test.web.servlet.MockMvc;
 import valentinakondr.hotel.management.controller.api.AvailabilityDto;
 import valentinakondr.hotel.management.controller.api.RoomDto;
 import valentinakondr.hotel.management.service.RoomService;
+import valentinakondr.identity.IdentityHeaders;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import static org.hamcrest.Matchers.matchesPattern;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
@@ -41,6 +44,15 @@ class RoomControllerTest {
 
     @MockBean JwtDecoder jwtDecoder;
 
+    @Autowired IdentityHeaders identityHeaders;
+
+    // заголовки личности в том виде, в каком их выставляет api-gateway
+    private HttpHeaders gatewayIdentity(String role) {
+        HttpHeaders headers = new HttpHeaders();
+        identityHeaders.sign(null, "admin", role, Instant.now().plusSeconds(60).getEpochSecond()).forEach(headers::set);
+        return headers;
+    }
+
     private Jwt jwtToken(String role) {
 
         return Jwt.withTokenValue("test-token")
@@ -131,6 +143,38 @@ class RoomControllerTest {
         verify(roomService).createRoom(any());
     }
 
+    @Test
+    void createRoom_shouldReturn201_whenGatewayIdentityAdmin() throws Exception {
+        UUID hotelId = UUID.randomUUID();
+        RoomDto request = new RoomDto(null, hotelId, "102", true, 0);
+
+        when(roomService.createRoom(any())).thenReturn(new RoomDto(UUID.randomUUID(), hotelId, "102", true, 0));
+
+        mockMvc.perform(post("/api/rooms")
+                        .headers(gatewayIdentity("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        verify(roomService).createRoom(any());
+        verifyNoInteractions(jwtDecoder);
+    }
+
+    @Test
+    void createRoom_shouldReturn401_whenGatewayIdentityForged() throws Exception {
+        RoomDto req = mock(RoomDto.class);
+
+        HttpHeaders forged = gatewayIdentity("USER");
+        forged.set(IdentityHeaders.ROLE, "ADMIN");
+        mockMvc.perform(post("/api/rooms")
+                        .headers(forged)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(roomService);
+    }
+
     // --------------------
     // GET /api/rooms (authenticated)
     // --------------------
@@ -154,6 +198,7 @@ class RoomControllerTest {
         mockMvc.perform(get("/api/rooms")
                         .with(authJwtRole("USER")))
                 .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=30"))
                 .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.length()").value(2))
                 .andExpect(jsonPath("$[0].id").value(r1.id().toString()))
@@ -164,6 +209,22 @@ class RoomControllerTest {
         verify(roomService).getRooms();
     }
 
+    @Test
+    void getRooms_shouldEchoCorrelationId_andMintOneWhenInvalid() throws Exception {
+        when(roomService.getRooms()).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/rooms")
+                        .header("X-Correlation-Id", "req-42")
+                        .with(authJwtRole("USER")))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Correlation-Id", "req-42"));
+
+        mockMvc.perform(get("/api/rooms")
+                        .header("X-Correlation-Id", "bad id\r\n"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string("X-Correlation-Id", matchesPattern("[0-9a-f-]{36}")));
+    }
+
     // --------------------
     // GET /api/rooms/recommend (authenticated)
     // --------------------
@@ -186,6 +247,7 @@ class RoomControllerTest {
         mockMvc.perform(get("/api/rooms/recommend")
                         .with(authJwtRole("USER")))
                 .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=5"))
                 .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.length()").value(1))
                 .andExpect(jsonPath("$[0].id").value(r1.id().toString()))
@@ -0,0 +1,119 @@
+package valentinakondr.identity;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+// Проверенная личность пользователя, которую api-gateway передаёт сервисам вместо повторной проверки JWT.
+// Подпись - HMAC-SHA256 по значениям заголовков на общем ключе auth.identity.secret: шлюз подписывает (sign),
+// сервисы проверяют (verify) без разбора JWT.
+public final class IdentityHeaders {
+
+    public static final String USER_ID = "X-Auth-User-Id";
+    public static final String USERNAME = "X-Auth-User";
+    public static final String ROLE = "X-Auth-Role";
+    public static final String EXPIRES = "X-Auth-Expires";
+    public static final String SIGNATURE = "X-Auth-Signature";
+
+    public static final List<String> ALL = List.of(USER_ID, USERNAME, ROLE, EXPIRES, SIGNATURE);
+
+    private final boolean enabled;
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+
+    // секрет в репозитории не хранится; включённый режим без секрета - ошибка конфигурации, а не тихий отказ
+    public IdentityHeaders(boolean enabled, String secret) {
+        if (enabled && (secret == null || secret.isBlank())) {
+            throw new IllegalStateException("auth.identity.secret must be set when auth.identity.enabled=true");
+        }
+        this.enabled = enabled;
+        this.key = enabled ? new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256") : null;
+        if (enabled) {
+            newMac();
+        }
+    }
+
+    // userId == null для токенов без claim "uid"
+    public record Identity(String userId, String username, String role) {
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    // username кодируется, т.к. значения заголовков - ISO-8859-1
+    public Map<String, String> sign(String userId, String username, String role, long expiresEpochSecond) {
+        if (!enabled) {
+            throw new IllegalStateException("auth.identity is disabled");
+        }
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put(USER_ID, userId != null ? userId : "");
+        headers.put(USERNAME, URLEncoder.encode(username, StandardCharsets.UTF_8));
+        headers.put(ROLE, role != null ? role : "");
+        headers.put(EXPIRES, Long.toString(expiresEpochSecond));
+        headers.put(SIGNATURE, signature(String.join("\n", headers.values())));
+        return Map.copyOf(headers);
+    }
+
+    // null - режим выключен, заголовков нет, подпись не сошлась или срок истёк
+    public Identity verify(UnaryOperator<String> header) {
+        String signature = header.apply(SIGNATURE);
+        if (!enabled || signature == null) {
+            return null;
+        }
+        String userId = header.apply(USER_ID);
+        String username = header.apply(USERNAME);
+        String role = header.apply(ROLE);
+        String expires = header.apply(EXPIRES);
+        if (userId == null || username == null || role == null || expires == null) {
+            return null;
+        }
+
+        byte[] expected = mac(String.join("\n", userId, username, role, expires));
+        byte[] actual;
+        try {
+            actual = Base64.getUrlDecoder().decode(signature);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return null;
+        }
+        try {
+            if (Instant.ofEpochSecond(Long.parseLong(expires)).isBefore(Instant.now())) {
+                return null;
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return new Identity(userId.isEmpty() ? null : userId, URLDecoder.decode(username, StandardCharsets.UTF_8), role);
+    }
+
+    private String signature(String payload) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac(payload));
+    }
+
+    private byte[] mac(String payload) {
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package valentinakondr.identity;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Результаты проверки JWT по SHA-256 токена: сам токен в памяти не хранится, запись живёт не дольше его exp.
+// Повторные запросы той же сессии не проверяют подпись и не разбирают JSON. maximumSize <= 0 - кэш выключен.
+public final class VerifiedTokenCache<V> {
+
+    private final Cache<String, V> verified;
+    private final Function<V, Instant> expiresAt;
+
+    public VerifiedTokenCache(long maximumSize, Function<V, Instant> expiresAt) {
+        this.expiresAt = expiresAt;
+        this.verified = maximumSize > 0
+                ? Caffeine.newBuilder().maximumSize(maximumSize).expireAfter(new UntilExpiration()).build()
+                : null;
+    }
+
+    // verify вызывается при промахе; null и результаты без exp не кэшируются, исключения пробрасываются
+    public V get(String token, Function<String, V> verify) {
+        if (verified == null) {
+            return verify.apply(token);
+        }
+        String hash = sha256(token);
+        V cached = verified.getIfPresent(hash);
+        if (cached != null) {
+            return cached;
+        }
+        V result = verify.apply(token);
+        if (result != null && expiresAt.apply(result) != null) {
+            verified.put(hash, result);
+        }
+        return result;
+    }
+
+    private static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private final class UntilExpiration implements Expiry<String, V> {
+
+        @Override
+        public long expireAfterCreate(String key, V value, long currentTime) {
+            long millis = expiresAt.apply(value).toEpochMilli() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, V value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, V value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
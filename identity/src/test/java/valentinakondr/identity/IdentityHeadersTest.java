@@ -0,0 +1,71 @@
+package valentinakondr.identity;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdentityHeadersTest {
+
+    private static final String SECRET = "identity-test-secret-0123456789abcdef";
+
+    private final IdentityHeaders identity = new IdentityHeaders(true, SECRET);
+
+    private static long inOneHour() {
+        return Instant.now().plusSeconds(3600).getEpochSecond();
+    }
+
+    @Test
+    void verify_shouldAcceptSignedHeaders_andDecodeUsername() {
+        Map<String, String> headers = identity.sign("8f9c2a6e-0d7b-4a51-9a3e-2b1c4d5e6f70", "алекс петров", "USER", inOneHour());
+
+        assertEquals(new IdentityHeaders.Identity("8f9c2a6e-0d7b-4a51-9a3e-2b1c4d5e6f70", "алекс петров", "USER"),
+                identity.verify(headers::get));
+    }
+
+    @Test
+    void verify_shouldMapEmptyUserIdToNull() {
+        Map<String, String> headers = identity.sign(null, "admin", "ADMIN", inOneHour());
+
+        assertNull(identity.verify(headers::get).userId());
+    }
+
+    @Test
+    void verify_shouldRejectTamperedValues() {
+        Map<String, String> headers = new HashMap<>(identity.sign(null, "user1", "USER", inOneHour()));
+        headers.put(IdentityHeaders.ROLE, "ADMIN");
+
+        assertNull(identity.verify(headers::get));
+    }
+
+    @Test
+    void verify_shouldRejectOtherSecret_expiredAndMalformedHeaders() {
+        Map<String, String> foreign = new IdentityHeaders(true, "another-secret").sign(null, "user1", "USER", inOneHour());
+        assertNull(identity.verify(foreign::get));
+
+        Map<String, String> expired = identity.sign(null, "user1", "USER", Instant.now().minusSeconds(1).getEpochSecond());
+        assertNull(identity.verify(expired::get));
+
+        Map<String, String> garbage = new HashMap<>(identity.sign(null, "user1", "USER", inOneHour()));
+        garbage.put(IdentityHeaders.SIGNATURE, "%%%");
+        assertNull(identity.verify(garbage::get));
+
+        Map<String, String> partial = new HashMap<>(identity.sign(null, "user1", "USER", inOneHour()));
+        partial.remove(IdentityHeaders.EXPIRES);
+        assertNull(identity.verify(partial::get));
+    }
+
+    @Test
+    void disabled_shouldIgnoreHeaders_andRequireSecretWhenEnabled() {
+        Map<String, String> headers = identity.sign(null, "user1", "USER", inOneHour());
+
+        assertNull(new IdentityHeaders(false, null).verify(headers::get));
+        assertThrows(IllegalStateException.class, () -> new IdentityHeaders(true, ""));
+        assertThrows(IllegalStateException.class, () -> new IdentityHeaders(false, null).sign(null, "user1", "USER", inOneHour()));
+    }
+}
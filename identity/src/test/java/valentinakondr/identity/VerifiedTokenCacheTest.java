@@ -0,0 +1,77 @@
+package valentinakondr.identity;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VerifiedTokenCacheTest {
+
+    private record Verified(String subject, Instant expiresAt) {
+    }
+
+    private final VerifiedTokenCache<Verified> cache = new VerifiedTokenCache<>(100, Verified::expiresAt);
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    private Verified verify(String token, Instant expiresAt) {
+        verifications.incrementAndGet();
+        return new Verified(token, expiresAt);
+    }
+
+    @Test
+    void get_shouldVerifyOnce_perToken() {
+        Instant inOneHour = Instant.now().plusSeconds(3600);
+
+        Verified first = cache.get("token-a", token -> verify(token, inOneHour));
+        Verified second = cache.get("token-a", token -> verify(token, inOneHour));
+        cache.get("token-b", token -> verify(token, inOneHour));
+
+        assertSame(first, second);
+        assertEquals(2, verifications.get());
+    }
+
+    // запись не переживает exp токена
+    @Test
+    void get_shouldVerifyAgain_afterExpiration() {
+        cache.get("token", token -> verify(token, Instant.now().minusSeconds(1)));
+        cache.get("token", token -> verify(token, Instant.now().minusSeconds(1)));
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void get_shouldNotCache_failedOrUnboundedResults() {
+        assertNull(cache.get("invalid", token -> {
+            verifications.incrementAndGet();
+            return null;
+        }));
+        cache.get("invalid", token -> verify(token, Instant.now().plusSeconds(3600)));
+        cache.get("no-exp", token -> verify(token, null));
+        cache.get("no-exp", token -> verify(token, null));
+
+        assertEquals(4, verifications.get());
+    }
+
+    @Test
+    void get_shouldPropagateVerificationErrors() {
+        assertThrows(IllegalArgumentException.class, () -> cache.get("garbage", token -> {
+            throw new IllegalArgumentException("malformed");
+        }));
+    }
+
+    @Test
+    void get_shouldVerifyEveryTime_whenDisabled() {
+        VerifiedTokenCache<Verified> disabled = new VerifiedTokenCache<>(0, Verified::expiresAt);
+        Instant inOneHour = Instant.now().plusSeconds(3600);
+
+        disabled.get("token", token -> verify(token, inOneHour));
+        disabled.get("token", token -> verify(token, inOneHour));
+
+        assertEquals(2, verifications.get());
+    }
+}
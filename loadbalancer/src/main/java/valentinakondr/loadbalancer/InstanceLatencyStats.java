@@ -0,0 +1,128 @@
+package valentinakondr.loadbalancer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Задержки и запросы "в полёте" по экземплярам одного сервиса; заполняется через LoadBalancerLifecycle.
+// Задержка - peak EWMA: рост учитывается сразу, снижение - плавно с постоянной времени decay.
+public class InstanceLatencyStats implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    // метаданные Eureka, которые экземпляр публикует сам: загрузка CPU процесса, 0..1
+    public static final String LOAD_HINT_METADATA = "lb.load";
+
+    private final double decayNanos;
+    private final long initialLatencyNanos;
+    private final long failurePenaltyNanos;
+    private final Map<String, Instance> instances = new ConcurrentHashMap<>();
+
+    public InstanceLatencyStats(Duration decay, Duration initialLatency, Duration failurePenalty) {
+        this.decayNanos = decay.toNanos();
+        this.initialLatencyNanos = initialLatency.toNanos();
+        this.failurePenaltyNanos = failurePenalty.toNanos();
+    }
+
+    // стоимость выбора: задержка x (запросы в полёте + 1) x (1 + подсказка о загрузке).
+    // Задержка не меньше возраста самого старого запроса в полёте: зависший экземпляр (пауза GC)
+    // дорожает сразу, не дожидаясь, пока хоть один его ответ вернётся
+    double cost(ServiceInstance serviceInstance) {
+        Instance instance = instance(serviceInstance);
+        long now = System.nanoTime();
+        long oldestStart = now;
+        for (Long start : instance.inflight.asMap().values()) {
+            oldestStart = Math.min(oldestStart, start);
+        }
+        double latency = Math.max(instance.latency(now), now - oldestStart);
+        return latency * (instance.inflight.estimatedSize() + 1) * (1 + loadHint(serviceInstance));
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse.hasServer()) {
+            instance(lbResponse.getServer()).inflight.put(request, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        Instance instance = instance(lbResponse.getServer());
+        Long start = instance.inflight.asMap().remove(completionContext.getLoadBalancerRequest());
+        if (start == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        long elapsed = now - start;
+        if (completionContext.status() == CompletionContext.Status.FAILED) {
+            elapsed = Math.max(elapsed, failurePenaltyNanos);
+        }
+        instance.observe(elapsed, now);
+    }
+
+    private Instance instance(ServiceInstance serviceInstance) {
+        String id = serviceInstance.getInstanceId() != null
+                ? serviceInstance.getInstanceId()
+                : serviceInstance.getHost() + ":" + serviceInstance.getPort();
+        return instances.computeIfAbsent(id, key -> new Instance());
+    }
+
+    private static double loadHint(ServiceInstance serviceInstance) {
+        String value = serviceInstance.getMetadata().get(LOAD_HINT_METADATA);
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Double.parseDouble(value));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private final class Instance {
+
+        // weakKeys - сравнение по ссылке; запрос, для которого onComplete не пришёл (отмена клиентом),
+        // не держит счётчик вечно: запись уходит со сборкой мусора или через минуту
+        private final Cache<Object, Long> inflight = Caffeine.newBuilder()
+                .weakKeys()
+                .expireAfterWrite(Duration.ofMinutes(1))
+                .build();
+        private double latency = -1;
+        private long updatedAt;
+
+        synchronized void observe(long sample, long now) {
+            if (latency < 0 || sample > latency) {
+                latency = sample;
+            } else {
+                double weight = Math.exp(-(now - updatedAt) / decayNanos);
+                latency = latency * weight + sample * (1 - weight);
+            }
+            updatedAt = now;
+        }
+
+        // без замеров - initialLatency: новый экземпляр не забирает весь трафик, пока не прогрет
+        synchronized double latency(long now) {
+            if (latency < 0) {
+                return initialLatencyNanos;
+            }
+            // без трафика оценка возвращается к initialLatency: медленный экземпляр со временем снова
+            // получает запросы, но не весь поток сразу
+            double weight = Math.exp(-(now - updatedAt) / decayNanos);
+            return latency * weight + initialLatencyNanos * (1 - weight);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package valentinakondr.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+// Конфигурация дочернего контекста LoadBalancer (свой на каждый сервис), поэтому без @Configuration:
+// иначе бины попали бы в основной контекст и были бы общими для всех сервисов.
+public class PeakEwmaLoadBalancerConfiguration {
+
+    @Bean
+    public InstanceLatencyStats instanceLatencyStats(
+            @Value("${loadbalancer.decay}") String decay,
+            @Value("${loadbalancer.initial-latency}") String initialLatency,
+            @Value("${loadbalancer.failure-penalty}") String failurePenalty) {
+        // в дочернем контексте нет конвертера Spring Boot для "10s", разбираем сами
+        return new InstanceLatencyStats(DurationStyle.detectAndParse(decay),
+                DurationStyle.detectAndParse(initialLatency),
+                DurationStyle.detectAndParse(failurePenalty));
+    }
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> peakEwmaLoadBalancer(Environment environment,
+                                                                     LoadBalancerClientFactory clientFactory,
+                                                                     InstanceLatencyStats stats) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new PeakEwmaLoadBalancer(clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class), stats);
+    }
+}
@@ -0,0 +1,91 @@
+package valentinakondr.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InstanceLatencyStatsTest {
+
+    private static final Duration INITIAL = Duration.ofMillis(100);
+    private static final Duration PENALTY = Duration.ofSeconds(10);
+
+    private final InstanceLatencyStats stats = new InstanceLatencyStats(Duration.ofSeconds(10), INITIAL, PENALTY);
+
+    static ServiceInstance instance(String id, Map<String, String> metadata) {
+        return new DefaultServiceInstance(id, "hotel-service", id, 8080, false, metadata);
+    }
+
+    static ServiceInstance instance(String id) {
+        return instance(id, Map.of());
+    }
+
+    static Request<Object> start(InstanceLatencyStats stats, ServiceInstance instance) {
+        Request<Object> request = new DefaultRequest<>();
+        stats.onStartRequest(request, new DefaultResponse(instance));
+        return request;
+    }
+
+    static void complete(InstanceLatencyStats stats, Request<Object> request, ServiceInstance instance,
+                         CompletionContext.Status status) {
+        Response<ServiceInstance> response = new DefaultResponse(instance);
+        stats.onComplete(new CompletionContext<>(status, request, response));
+    }
+
+    @Test
+    void cost_shouldStartFromInitialLatency() {
+        assertEquals(INITIAL.toNanos(), stats.cost(instance("a")), INITIAL.toNanos() * 0.01);
+    }
+
+    @Test
+    void cost_shouldGrowWithRequestsInFlight_andDropOnCompletion() {
+        ServiceInstance a = instance("a");
+        Request<Object> first = start(stats, a);
+        start(stats, a);
+
+        assertTrue(stats.cost(a) >= 3 * INITIAL.toNanos() * 0.99);
+
+        complete(stats, first, a, CompletionContext.Status.SUCCESS);
+        // быстрый ответ снижает оценку задержки, в полёте остался один запрос
+        assertTrue(stats.cost(a) < 2 * INITIAL.toNanos());
+    }
+
+    // ошибка учитывается как ответ не быстрее failure-penalty: пик принимается сразу
+    @Test
+    void cost_shouldJumpToPenalty_onFailure() {
+        ServiceInstance a = instance("a");
+        complete(stats, start(stats, a), a, CompletionContext.Status.FAILED);
+
+        assertTrue(stats.cost(a) > PENALTY.toNanos() * 0.9);
+        assertTrue(stats.cost(instance("b")) < PENALTY.toNanos() * 0.1);
+    }
+
+    @Test
+    void cost_shouldScaleWithLoadHint_andIgnoreGarbage() {
+        double plain = stats.cost(instance("a"));
+
+        assertEquals(plain * 1.5, stats.cost(instance("b", Map.of(InstanceLatencyStats.LOAD_HINT_METADATA, "0.5"))),
+                plain * 0.01);
+        assertEquals(plain, stats.cost(instance("c", Map.of(InstanceLatencyStats.LOAD_HINT_METADATA, "high"))),
+                plain * 0.01);
+    }
+
+    // onComplete без onStartRequest (или повторный) не меняет оценку
+    @Test
+    void onComplete_shouldIgnoreUnknownRequest() {
+        ServiceInstance a = instance("a");
+        complete(stats, new DefaultRequest<>(), a, CompletionContext.Status.FAILED);
+
+        assertEquals(INITIAL.toNanos(), stats.cost(a), INITIAL.toNanos() * 0.01);
+    }
+}
@@ -0,0 +1,86 @@
+package valentinakondr.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static valentinakondr.loadbalancer.InstanceLatencyStatsTest.complete;
+import static valentinakondr.loadbalancer.InstanceLatencyStatsTest.instance;
+import static valentinakondr.loadbalancer.InstanceLatencyStatsTest.start;
+
+class PeakEwmaLoadBalancerTest {
+
+    private final InstanceLatencyStats stats =
+            new InstanceLatencyStats(Duration.ofSeconds(10), Duration.ofMillis(100), Duration.ofSeconds(10));
+
+    private PeakEwmaLoadBalancer balancer(ServiceInstance... instances) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(
+                Map.of("supplier", ServiceInstanceListSuppliers.from("hotel-service", instances)));
+        return new PeakEwmaLoadBalancer(beans.getBeanProvider(ServiceInstanceListSupplier.class), stats);
+    }
+
+    private static ServiceInstance chosen(PeakEwmaLoadBalancer balancer) {
+        Response<ServiceInstance> response = balancer.choose(new DefaultRequest<>()).block();
+        return response.hasServer() ? response.getServer() : null;
+    }
+
+    @Test
+    void choose_shouldReturnEmpty_withoutInstances() {
+        assertFalse(balancer().choose(new DefaultRequest<>()).block().hasServer());
+    }
+
+    @Test
+    void choose_shouldReturnOnlyInstance_evenIfSlow() {
+        ServiceInstance a = instance("a");
+        complete(stats, start(stats, a), a, CompletionContext.Status.FAILED);
+
+        assertSame(a, chosen(balancer(a)));
+    }
+
+    // из двух разных случайных экземпляров берётся дешёвый: самый дорогой не выбирается никогда
+    @Test
+    void choose_shouldNeverPickMostExpensiveInstance() {
+        ServiceInstance a = instance("a");
+        ServiceInstance b = instance("b");
+        ServiceInstance slow = instance("slow");
+        complete(stats, start(stats, slow), slow, CompletionContext.Status.FAILED);
+        PeakEwmaLoadBalancer balancer = balancer(a, b, slow);
+
+        Map<String, Integer> picks = new HashMap<>();
+        for (int i = 0; i < 1_000; i++) {
+            picks.merge(chosen(balancer).getInstanceId(), 1, Integer::sum);
+        }
+
+        assertNull(picks.get("slow"));
+        // среди равных выбор случайный, а не всегда первый
+        assertNotNull(picks.get("a"));
+        assertNotNull(picks.get("b"));
+    }
+
+    // зависший экземпляр (запросы в полёте) дорожает до первого ответа
+    @Test
+    void choose_shouldAvoidInstanceWithRequestsInFlight() {
+        ServiceInstance busy = instance("busy");
+        ServiceInstance idle = instance("idle");
+        start(stats, busy);
+        start(stats, busy);
+        PeakEwmaLoadBalancer balancer = balancer(busy, idle);
+
+        for (int i = 0; i < 100; i++) {
+            assertSame(idle, chosen(balancer));
+        }
+    }
+}
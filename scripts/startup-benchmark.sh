@@ -0,0 +1,102 @@
+#!/usr/bin/env bash
+# Время до готовности (readiness UP) каждого сервиса: обычный запуск против AOT + AppCDS.
+# Сначала: mvn -Pfast-start -DskipTests package
+# Запуск:  scripts/startup-benchmark.sh [прогонов на режим, по умолчанию 3]
+# Сервисы стартуют в порядке развёртывания (eureka первой и живёт до конца прогона), порты 8761/8082/8083/8081 должны быть свободны.
+# Результат - target/startup-benchmark.csv: mode,service,run,ready_ms,started_s (started_s - "Started ... in" из лога Spring).
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RUNS="${1:-3}"
+OUT=target/startup-benchmark.csv
+LOGS=target/startup-benchmark
+TIMEOUT_S=180
+
+# модуль|URL готовности
+SERVICES=(
+  "eureka-discovery|http://localhost:8761/actuator/health/readiness"
+  "hotel-management-service|http://localhost:8082/actuator/health/readiness"
+  "booking-service|http://localhost:8083/actuator/health/readiness"
+  "api-gateway|http://localhost:8091/actuator/health/readiness"
+)
+
+for entry in "${SERVICES[@]}"; do
+  module="${entry%%|*}"
+  if [[ ! -f "$module/target/fast-start/$module.jsa" ]]; then
+    echo "нет $module/target/fast-start/$module.jsa - соберите: mvn -Pfast-start -DskipTests package" >&2
+    exit 1
+  fi
+done
+
+mkdir -p "$LOGS"
+echo "mode,service,run,ready_ms,started_s" > "$OUT"
+
+PIDS=()
+cleanup() {
+  for pid in "${PIDS[@]:-}"; do
+    [[ -n "$pid" ]] && kill "$pid" 2>/dev/null && wait "$pid" 2>/dev/null || true
+  done
+  PIDS=()
+}
+trap cleanup EXIT
+
+now_ms() { date +%s%3N; }
+
+# start <mode> <module> <run> -> PID в LAST_PID
+start() {
+  local mode="$1" module="$2" run="$3"
+  local dir="$module/target/fast-start"
+  local opts=()
+  if [[ "$mode" == "aot-cds" ]]; then
+    opts+=("-XX:SharedArchiveFile=$module.jsa")
+    # eureka-discovery собирается без AOT (Eureka Server его не поддерживает), только CDS
+    [[ "$module" != "eureka-discovery" ]] && opts+=("-Dspring.aot.enabled=true")
+  fi
+  (cd "$dir" && exec java "${opts[@]}" -jar "$module-1.0-SNAPSHOT.jar") \
+    > "$LOGS/$mode-$module-$run.log" 2>&1 &
+  LAST_PID=$!
+}
+
+# measure <mode> <module> <url> <run>: ждёт readiness, пишет строку в CSV; процесс остаётся жить
+measure() {
+  local mode="$1" module="$2" url="$3" run="$4"
+  local begin; begin=$(now_ms)
+  start "$mode" "$module" "$run"
+  PIDS+=("$LAST_PID")
+  until curl -sf -o /dev/null "$url"; do
+    if ! kill -0 "$LAST_PID" 2>/dev/null; then
+      echo "$module ($mode) завершился при старте, лог: $LOGS/$mode-$module-$run.log" >&2
+      exit 1
+    fi
+    if (( $(now_ms) - begin > TIMEOUT_S * 1000 )); then
+      echo "$module ($mode) не готов за ${TIMEOUT_S}s, лог: $LOGS/$mode-$module-$run.log" >&2
+      exit 1
+    fi
+    sleep 0.05
+  done
+  local ready=$(( $(now_ms) - begin ))
+  local started
+  started=$(grep -oE 'Started [A-Za-z]+ in [0-9.]+ seconds' "$LOGS/$mode-$module-$run.log" | grep -oE '[0-9.]+' | head -1 || true)
+  echo "$mode,$module,$run,$ready,${started:-}" >> "$OUT"
+  printf '%-8s %-26s run %d: ready %6d ms (spring %s s)\n' "$mode" "$module" "$run" "$ready" "${started:-?}"
+}
+
+for mode in plain aot-cds; do
+  for run in $(seq 1 "$RUNS"); do
+    for entry in "${SERVICES[@]}"; do
+      measure "$mode" "${entry%%|*}" "${entry##*|}" "$run"
+    done
+    cleanup
+  done
+done
+
+echo
+echo "медиана ready_ms:"
+for mode in plain aot-cds; do
+  for entry in "${SERVICES[@]}"; do
+    module="${entry%%|*}"
+    median=$(awk -F, -v m="$mode" -v s="$module" '$1 == m && $2 == s { print $4 }' "$OUT" | sort -n \
+      | awk '{ v[NR] = $1 } END { print (NR % 2 ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2)) }')
+    printf '%-8s %-26s %6s ms\n' "$mode" "$module" "$median"
+  done
+done
@@ -0,0 +1,118 @@
+package valentinakondr.testsupport.nativeimage;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Собранный native image (профиль native) для *NativeIT: запуск на свободном порту, ожидание readiness, остановка.
+// Путь к бинарнику - системное свойство native.executable, его выставляет failsafe; без него тесты пропускаются.
+// Аргументы start(...) дописываются в командную строку после порта и отключения Eureka.
+public final class NativeApplication implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+
+    private final Process process;
+    private final int port;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+
+    private NativeApplication(Process process, int port) {
+        this.process = process;
+        this.port = port;
+    }
+
+    public static NativeApplication start(String... args) throws Exception {
+        String executable = System.getProperty("native.executable");
+        assumeTrue(executable != null && Files.isExecutable(Path.of(executable)),
+                "native image не собран (mvn -Pnative verify)");
+
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(executable);
+        command.add("--server.port=" + port);
+        // реестр не нужен: адреса зависимостей тесты передают через simple discovery
+        command.add("--eureka.client.register-with-eureka=false");
+        command.add("--eureka.client.fetch-registry=false");
+        command.addAll(List.of(args));
+
+        Path log = Path.of(executable + "-it.log");
+        long begin = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        NativeApplication app = new NativeApplication(process, port);
+        try {
+            app.awaitReady(log);
+        } catch (Exception | AssertionError e) {
+            app.close();
+            throw e;
+        }
+        System.out.printf("[native.it.started] executable=%s readyMs=%d rssKb=%s%n", executable,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin), app.residentKb());
+        return app;
+    }
+
+    public URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    public HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return http.send(request.timeout(Duration.ofSeconds(10)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    public static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private void awaitReady(Path log) throws Exception {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new AssertionError("процесс завершился с кодом " + process.exitValue() + ", лог: " + log);
+            }
+            try {
+                if (send(HttpRequest.newBuilder(uri("/actuator/health/readiness"))).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // порт ещё не открыт
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("нет readiness за " + STARTUP_TIMEOUT + ", лог: " + log);
+    }
+
+    // VmRSS из /proc - только Linux
+    private String residentKb() {
+        try {
+            return Files.readAllLines(Path.of("/proc", String.valueOf(process.pid()), "status")).stream()
+                    .filter(line -> line.startsWith("VmRSS:"))
+                    .map(line -> line.replaceAll("\\D", ""))
+                    .findFirst()
+                    .orElse("?");
+        } catch (IOException e) {
+            return "?";
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(10, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package valentinakondr.testsupport.queryplan;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Проверки RepositoryQueryPlanTest сервисов: каждый метод репозиториев вызван в тесте, и ни один его SQL не сканирует таблицу
+public final class QueryPlans {
+
+    private QueryPlans() {
+    }
+
+    // ключ queries - "Repository.method"
+    public static void assertCovered(Map<String, Runnable> queries, Class<?>... repositories) {
+        Set<String> declared = Arrays.stream(repositories)
+                .flatMap(repository -> Arrays.stream(repository.getDeclaredMethods())
+                        .map(Method::getName)
+                        .map(method -> repository.getSimpleName() + "." + method))
+                .collect(Collectors.toSet());
+
+        assertThat(queries.keySet()).containsExactlyInAnyOrderElementsOf(declared);
+    }
+
+    public static void assertIndexed(JdbcTemplate jdbcTemplate, Map<String, Runnable> queries) {
+        queries.forEach((name, query) -> {
+            List<SqlCapture.Statement> statements = SqlCapture.capture(query);
+
+            assertThat(statements).as("SQL for %s", name).isNotEmpty();
+            if (name.substring(name.indexOf('.') + 1).startsWith("delete")) {
+                assertThat(statements)
+                        .as("%s must reach a DELETE, seed a matching row", name)
+                        .anyMatch(statement -> statement.sql().stripLeading().toLowerCase().startsWith("delete"));
+            }
+            for (SqlCapture.Statement statement : statements) {
+                String plan = explain(jdbcTemplate, statement);
+                assertThat(plan)
+                        .as("%s regressed to a full scan:%n%s", name, plan)
+                        .doesNotContain(".tableScan");
+            }
+        });
+    }
+
+    // EXPLAIN с теми же значениями параметров, с которыми выполнялся запрос
+    public static String explain(JdbcTemplate jdbcTemplate, SqlCapture.Statement statement) {
+        return jdbcTemplate.execute("EXPLAIN " + statement.sql(), (PreparedStatement ps) -> {
+            for (Map.Entry<Integer, Object> parameter : statement.parameters().entrySet()) {
+                ps.setObject(parameter.getKey(), parameter.getValue());
+            }
+            try (var rs = ps.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+                return plan.toString();
+            }
+        });
+    }
+}
@@ -0,0 +1,112 @@
+package valentinakondr.testsupport.queryplan;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// SELECT/UPDATE/DELETE, выполненные через DataSource контекста, вместе с реально привязанными параметрами.
+// Перехват на уровне JDBC, а не StatementInspector: EXPLAIN должен видеть те же значения, что и запрос.
+// Подключение: @Import(SqlCapture.Config.class)
+public final class SqlCapture {
+
+    public record Statement(String sql, Map<Integer, Object> parameters) {
+    }
+
+    private static final List<Statement> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+    private static volatile boolean capturing;
+
+    private SqlCapture() {
+    }
+
+    public static synchronized List<Statement> capture(Runnable query) {
+        STATEMENTS.clear();
+        capturing = true;
+        try {
+            query.run();
+        } finally {
+            capturing = false;
+        }
+        return List.copyOf(STATEMENTS);
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    public static class Config {
+
+        @Bean
+        static BeanPostProcessor sqlCaptureDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? wrap(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    static DataSource wrap(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, (method, result, args) ->
+                result instanceof Connection connection ? wrap(connection) : result);
+    }
+
+    private static Connection wrap(Connection connection) {
+        return proxy(Connection.class, connection, (method, result, args) ->
+                result instanceof PreparedStatement statement && method.equals("prepareStatement")
+                        ? wrap(statement, (String) args[0])
+                        : result);
+    }
+
+    private static PreparedStatement wrap(PreparedStatement statement, String sql) {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        return (PreparedStatement) Proxy.newProxyInstance(SqlCapture.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        parameters.put(index, name.equals("setNull") ? null : args[1]);
+                    } else if (name.equals("clearParameters")) {
+                        parameters.clear();
+                    } else if (name.startsWith("execute") || name.equals("addBatch")) {
+                        record(sql, parameters);
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static void record(String sql, Map<Integer, Object> parameters) {
+        String statement = sql.stripLeading().toLowerCase();
+        if (capturing && (statement.startsWith("select") || statement.startsWith("update") || statement.startsWith("delete"))) {
+            STATEMENTS.add(new Statement(sql, new TreeMap<>(parameters)));
+        }
+    }
+
+    private interface ResultWrapper {
+        Object apply(String method, Object result, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, ResultWrapper wrapper) {
+        InvocationHandler handler = (proxy, method, args) ->
+                wrapper.apply(method.getName(), invoke(target, method, args), args);
+        return (T) Proxy.newProxyInstance(SqlCapture.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package valentinakondr.websupport;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+// id запроса от api-gateway или другого сервиса (или новый при вызове напрямую) кладётся в MDC на всё время обработки;
+// по завершении пишется длительность участка сервиса. Регистрируется бином в каждом сервисе
+public class CorrelationIdFilter extends OncePerRequestFilter implements Ordered {
+
+    public static final String HEADER = "X-Correlation-Id";
+    public static final String MDC_KEY = "correlationId";
+
+    private static final Logger log = LoggerFactory.getLogger(CorrelationIdFilter.class);
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9._:-]{1,64}");
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        String incoming = request.getHeader(HEADER);
+        String correlationId = incoming != null && VALID_ID.matcher(incoming).matches()
+                ? incoming
+                : UUID.randomUUID().toString();
+
+        MDC.put(MDC_KEY, correlationId);
+        response.setHeader(HEADER, correlationId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            log.info("[http.request.done] method={} path={} status={} durationMs={}",
+                    request.getMethod(), request.getRequestURI(), response.getStatus(),
+                    (System.nanoTime() - start) / 1_000_000);
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    // раньше Spring Security: 401/403 тоже получают id и попадают в лог
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,52 @@
+package valentinakondr.websupport;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CorrelationIdFilterTest {
+
+    private final CorrelationIdFilter filter = new CorrelationIdFilter();
+
+    // id в MDC на время обработки и id в ответе
+    private String[] run(String incoming) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/hotels");
+        if (incoming != null) {
+            request.addHeader(CorrelationIdFilter.HEADER, incoming);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> seen = new AtomicReference<>();
+
+        filter.doFilter(request, response, (req, res) -> seen.set(MDC.get(CorrelationIdFilter.MDC_KEY)));
+
+        return new String[]{seen.get(), response.getHeader(CorrelationIdFilter.HEADER)};
+    }
+
+    @Test
+    void filter_shouldKeepValidIncomingId_andClearMdcAfterwards() throws Exception {
+        String[] ids = run("req-42");
+
+        assertEquals("req-42", ids[0]);
+        assertEquals("req-42", ids[1]);
+        assertNull(MDC.get(CorrelationIdFilter.MDC_KEY));
+    }
+
+    // чужой id с переводами строк или слишком длинный не попадает в логи
+    @Test
+    void filter_shouldReplaceInvalidOrMissingId() throws Exception {
+        for (String incoming : new String[]{null, "bad\nid", "x".repeat(65)}) {
+            String[] ids = run(incoming);
+
+            assertNotEquals(incoming, ids[0]);
+            assertEquals(36, ids[0].length());
+            assertEquals(ids[0], ids[1]);
+        }
+    }
+}